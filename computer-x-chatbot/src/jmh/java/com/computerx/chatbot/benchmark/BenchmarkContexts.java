@@ -0,0 +1,50 @@
+package com.computerx.chatbot.benchmark;
+
+import com.computerx.chatbot.ChatbotApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application context the way the headless server does, minus the web server, so
+ * benchmarks exercise the real beans and configuration.
+ */
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    /**
+     * Starts a context with the given {@code key=value} properties. They are passed as command-line
+     * arguments so they override application.properties, which default properties would not.
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(List.of("--chatbot.mode=headless", "--logging.level.root=WARN",
+                "--chatbot.learned.journal.path=" + journalPath(), "--chatbot.catalog.snapshot.path="));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(ChatbotApplication.class)
+                .web(WebApplicationType.NONE)
+                .headless(true)
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+    }
+
+    private static Path journalPath() {
+        try {
+            Path directory = Files.createTempDirectory("computerx-bench-");
+            directory.toFile().deleteOnExit();
+            return directory.resolve("learned.journal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
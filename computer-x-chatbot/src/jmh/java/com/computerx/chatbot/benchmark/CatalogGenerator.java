@@ -0,0 +1,67 @@
+package com.computerx.chatbot.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Writes synthetic product catalogs in the products.csv format. Catalogs are generated from a
+ * fixed seed, so every run and every release benchmarks the same data.
+ */
+final class CatalogGenerator {
+
+    private static final long SEED = 42;
+    private static final String[] CATEGORIES = {"gpu", "motherboard", "psu", "ram", "casing", "monitor",
+            "keyboard", "mouse", "speakers", "headphones", "laptop", "cable", "ssd", "cpu", "cooler"};
+    private static final String[] BRANDS = {"MSI", "Asus", "Gigabyte", "Corsair", "Kingston", "ADATA", "Seasonic",
+            "NZXT", "Logitech", "Razer", "Samsung", "Dell", "Lenovo", "HP", "Generic", "G.Skill", "Sony"};
+    private static final String[] MODELS = {"GeForce RTX", "Radeon RX", "Vengeance", "Fury Beast", "Focus GX",
+            "ROG Strix", "Tomahawk", "Odyssey", "DeathAdder", "Huntsman", "ThinkPad", "Spectre", "Ripjaws", "Lancer"};
+    private static final String[] ADJECTIVES = {"reliable", "powerful", "compact", "premium", "budget",
+            "high-refresh", "silent", "wireless", "modular", "ultra-light"};
+
+    private CatalogGenerator() {
+    }
+
+    /**
+     * Returns a catalog with the given number of products, generating it into the temp directory
+     * on first use.
+     */
+    static Path catalog(int size) {
+        Path path = Path.of(System.getProperty("java.io.tmpdir"), "computerx-catalog-" + size + ".csv");
+        if (Files.exists(path)) {
+            return path;
+        }
+        try {
+            Path partial = Files.createTempFile(path.getParent(), "computerx-catalog-", ".partial");
+            write(partial, size);
+            return Files.move(partial, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void write(Path path, int size) throws IOException {
+        Random random = new Random(SEED);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("category,name,brand,price,stock,description,attributes\n");
+            for (int i = 0; i < size; i++) {
+                String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                String brand = BRANDS[random.nextInt(BRANDS.length)];
+                String name = MODELS[random.nextInt(MODELS.length)] + " " + (1000 + random.nextInt(9000)) + " " + Integer.toString(i, 36).toUpperCase(Locale.ROOT);
+                double price = 5 + random.nextInt(300_000) / 100.0;
+                String stock = random.nextInt(5) == 0 ? "out of stock" : "in stock";
+                String description = "A " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + category
+                        + " from " + brand + ", great for " + (random.nextBoolean() ? "gaming." : "work.");
+                String attributes = "capacity:" + (1 << random.nextInt(8)) + "GB;type:T" + random.nextInt(10) + ";";
+                writer.write(String.format(Locale.ROOT, "%s,\"%s\",\"%s\",%.2f,%s,\"%s\",\"%s\"%n",
+                        category, name, brand, price, stock, description, attributes));
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.computerx.chatbot.benchmark;
+
+import com.computerx.chatbot.model.Product;
+import com.computerx.chatbot.service.KnowledgeBaseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a whole generated catalog per invocation into each kind of catalog store.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CatalogLoadBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int catalogSize;
+
+    @Param({"heap", "columnar", "columnar-off-heap"})
+    public String store;
+
+    private FileSystemResource catalog;
+    private ConfigurableApplicationContext context;
+    private KnowledgeBaseService knowledgeBase;
+
+    @Setup
+    public void setUp() {
+        catalog = new FileSystemResource(CatalogGenerator.catalog(catalogSize));
+        context = BenchmarkContexts.start("chatbot.catalog.store=" + store);
+        knowledgeBase = context.getBean(KnowledgeBaseService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> loadProducts() {
+        return knowledgeBase.readCatalog(catalog);
+    }
+}
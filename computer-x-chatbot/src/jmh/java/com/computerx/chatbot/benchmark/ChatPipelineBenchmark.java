@@ -0,0 +1,78 @@
+package com.computerx.chatbot.benchmark;
+
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.service.ChatService;
+import com.computerx.chatbot.service.KnowledgeBaseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of {@link ChatService#getResponse} for each class of message, against the
+ * bundled catalog. Each intent alternates between two messages and rotates over many sessions
+ * so the repetition logic never turns replies into ANNOYED ones.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatPipelineBenchmark {
+
+    public enum MessageClass {
+        GREETING("hi", "hello"),
+        SMALL_TALK("tell me a joke", "help"),
+        LEARNED("what is your return policy", "do you ship overseas"),
+        PRODUCT_LIST("show me gpus", "show me ram"),
+        PRICE("price of geforce rtx 4090", "price of h5 flow"),
+        STOCK("is h5 flow in stock", "is the huntsman mini available"),
+        FALLBACK("can you fix my printer", "what is the meaning of life");
+
+        private final String[] messages;
+
+        MessageClass(String... messages) {
+            this.messages = messages;
+        }
+    }
+
+    private static final int SESSIONS = 1024;
+
+    @Param
+    public MessageClass messageClass;
+
+    private ConfigurableApplicationContext context;
+    private ChatService chatService;
+    private String[] sessionIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        chatService = context.getBean(ChatService.class);
+        KnowledgeBaseService knowledgeBase = context.getBean(KnowledgeBaseService.class);
+        knowledgeBase.saveLearnedResponse("what is your return policy", "You can return any item within 30 days.");
+        knowledgeBase.saveLearnedResponse("do you ship overseas", "We ship to most countries.");
+        sessionIds = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            sessionIds[i] = "bench-" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public ChatResponse getResponse(Cursor cursor) {
+        int i = cursor.next++;
+        String[] messages = messageClass.messages;
+        return chatService.getResponse(sessionIds[i % SESSIONS], messages[(i / SESSIONS) % messages.length]);
+    }
+}
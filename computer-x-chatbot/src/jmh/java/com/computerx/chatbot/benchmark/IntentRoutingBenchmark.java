@@ -0,0 +1,107 @@
+package com.computerx.chatbot.benchmark;
+
+import com.computerx.chatbot.intent.Intent;
+import com.computerx.chatbot.intent.IntentMatch;
+import com.computerx.chatbot.intent.IntentRouter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to decide what a message asks for: the if/contains chain {@code ChatService.processQuery}
+ * used to run, against {@link IntentRouter}. Both normalize the message, pick the first intent
+ * triggered in rule order and extract the keyword of a product intent; the small talk and learned
+ * response lookups in between cost the same either way and are left out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntentRoutingBenchmark {
+
+    private static final Intent[] INTENTS = Intent.values();
+
+    @Param({"Hello", "Good evening!", "Show me all GPUs", "What is the price of the H5 Flow?",
+            "Is this G.Skill kit in stock?", "What's your return policy?"})
+    public String message;
+
+    private IntentRouter router;
+    private IntentMatch match;
+
+    @Setup
+    public void setUp() {
+        router = new IntentRouter();
+        match = router.newMatch();
+    }
+
+    @Benchmark
+    public String ifChain() {
+        return routeWithChain(message);
+    }
+
+    @Benchmark
+    public String router() {
+        router.route(message, match);
+        for (Intent intent : INTENTS) {
+            if (intent.trigger() != Intent.Trigger.LOOKUP && match.matches(intent)) {
+                return intent.keywordPrefixes().isEmpty() ? intent.name() : match.keyword(intent);
+            }
+        }
+        return Intent.FALLBACK.name();
+    }
+
+    /**
+     * The routing decisions of {@code ChatService.processQuery} before the intent table replaced it.
+     */
+    private static String routeWithChain(String message) {
+        String normalizedInput = message.toLowerCase().trim();
+        if (normalizedInput.contains("morning") || normalizedInput.contains("afternoon")
+                || normalizedInput.contains("evening") || normalizedInput.contains("night")) {
+            return Intent.TIME_GREETING.name();
+        }
+        if (normalizedInput.contains("who are you") || normalizedInput.contains("what is your name")) {
+            return Intent.IDENTITY.name();
+        }
+        if (normalizedInput.equals("hi") || normalizedInput.equals("hello")) {
+            return Intent.GREETING.name();
+        }
+        if (normalizedInput.equals("thanks") || normalizedInput.equals("thank you")) {
+            return Intent.THANKS.name();
+        }
+        if (normalizedInput.equals("bye") || normalizedInput.equals("exit") || normalizedInput.equals("quit")) {
+            return Intent.FAREWELL.name();
+        }
+        if (normalizedInput.contains("how are you")) {
+            return Intent.WELLBEING.name();
+        }
+        if (normalizedInput.contains("categor")) {
+            return Intent.CATEGORIES.name();
+        }
+        if (normalizedInput.contains("product names") || normalizedInput.contains("item names")) {
+            return Intent.PRODUCT_NAMES.name();
+        }
+        if (normalizedInput.contains("show") || normalizedInput.contains("list") || normalizedInput.contains("see")) {
+            return extractKeyword(normalizedInput, "show me", "list all", "see all", "show", "list", "see");
+        }
+        if (normalizedInput.startsWith("price of") || normalizedInput.startsWith("what is the price of")) {
+            return extractKeyword(normalizedInput, "price of", "what is the price of");
+        }
+        if (normalizedInput.contains("in stock") || normalizedInput.contains("available")) {
+            return extractKeyword(normalizedInput, "is", "are", "in stock", "available");
+        }
+        if (normalizedInput.contains("do you have") || normalizedInput.contains("any")) {
+            return extractKeyword(normalizedInput, "do you have", "any");
+        }
+        return Intent.FALLBACK.name();
+    }
+
+    private static String extractKeyword(String input, String... prefixes) {
+        String result = input;
+        for (String prefix : prefixes) {
+            result = result.replace(prefix, "");
+        }
+        return result.replace("?", "").trim();
+    }
+}
@@ -0,0 +1,53 @@
+package com.computerx.chatbot.benchmark;
+
+import com.computerx.chatbot.model.Product;
+import com.computerx.chatbot.search.SearchMode;
+import com.computerx.chatbot.service.KnowledgeBaseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword search against generated catalogs of increasing size, with the index and the linear
+ * scan side by side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class KnowledgeBaseBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int catalogSize;
+
+    @Param({"INDEX", "SCAN"})
+    public SearchMode searchMode;
+
+    @Param({"gpu", "vengeance", "rtx 4090", "nothing matches this"})
+    public String keyword;
+
+    private ConfigurableApplicationContext context;
+    private KnowledgeBaseService knowledgeBase;
+
+    @Setup
+    public void setUp() {
+        Path catalog = CatalogGenerator.catalog(catalogSize);
+        context = BenchmarkContexts.start("chatbot.catalog.location=file:" + catalog.toAbsolutePath());
+        knowledgeBase = context.getBean(KnowledgeBaseService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> findProductsByKeyword() {
+        return knowledgeBase.findProductsByKeyword(keyword, searchMode);
+    }
+}
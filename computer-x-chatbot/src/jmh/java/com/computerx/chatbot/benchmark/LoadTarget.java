@@ -0,0 +1,103 @@
+package com.computerx.chatbot.benchmark;
+
+import com.computerx.chatbot.service.ChatService;
+import com.computerx.chatbot.web.ChatRequest;
+import com.computerx.chatbot.web.LearnRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * What a {@link LoadTest} sends its messages to. Implementations are called from many threads at once.
+ */
+interface LoadTarget extends AutoCloseable {
+
+    void chat(String sessionId, String message) throws Exception;
+
+    void learn(String question, String answer) throws Exception;
+
+    /**
+     * Boots the application in this JVM, without a web server, and calls {@link ChatService} directly.
+     * @param catalogSize The number of products of the generated catalog to load, or zero for the bundled one.
+     */
+    static LoadTarget inProcess(int catalogSize) {
+        ConfigurableApplicationContext context = catalogSize > 0
+                ? BenchmarkContexts.start("chatbot.catalog.location=file:" + CatalogGenerator.catalog(catalogSize),
+                        "chatbot.catalog.watch=false")
+                : BenchmarkContexts.start("chatbot.catalog.watch=false");
+        ChatService chatService = context.getBean(ChatService.class);
+        return new LoadTarget() {
+            @Override
+            public void chat(String sessionId, String message) {
+                chatService.getResponse(sessionId, message);
+            }
+
+            @Override
+            public void learn(String question, String answer) {
+                chatService.learn(question, answer);
+            }
+
+            @Override
+            public void close() {
+                context.close();
+            }
+
+            @Override
+            public String toString() {
+                return "in-process";
+            }
+        };
+    }
+
+    /**
+     * Posts to the chat API of a running server, such as {@code http://localhost:8080}.
+     */
+    static LoadTarget http(URI baseUri) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        ObjectMapper json = new ObjectMapper();
+        URI chat = baseUri.resolve("/api/chat");
+        URI learn = baseUri.resolve("/api/learn");
+        return new LoadTarget() {
+            @Override
+            public void chat(String sessionId, String message) throws IOException, InterruptedException {
+                post(chat, new ChatRequest(sessionId, message));
+            }
+
+            @Override
+            public void learn(String question, String answer) throws IOException, InterruptedException {
+                post(learn, new LearnRequest(question, answer));
+            }
+
+            private void post(URI uri, Object body) throws IOException, InterruptedException {
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofSeconds(30))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body)))
+                        .build();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() / 100 != 2) {
+                    throw new IOException("HTTP " + response.statusCode() + " from " + uri);
+                }
+            }
+
+            @Override
+            public void close() {
+                client.close();
+            }
+
+            @Override
+            public String toString() {
+                return baseUri.toString();
+            }
+        };
+    }
+}
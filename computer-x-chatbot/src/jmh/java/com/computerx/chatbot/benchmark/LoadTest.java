@@ -0,0 +1,257 @@
+package com.computerx.chatbot.benchmark;
+
+import com.computerx.chatbot.benchmark.Workload.Kind;
+import com.computerx.chatbot.benchmark.Workload.Operation;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends a {@link Workload} to the chatbot at a fixed arrival rate and reports the latency
+ * distribution, optionally checking it against latency objectives.
+ * <p>
+ * The load is open-loop: messages are sent when the schedule says, whether or not earlier ones
+ * have been answered, by a pool of worker threads standing in for the server's request threads.
+ * Latency is measured from the moment a message was due rather than from when a worker got to
+ * it, so time spent queued behind a slow response counts against it, as it would for a user. The
+ * report shows this corrected latency next to the service time measured from the actual send,
+ * which is what a closed-loop benchmark would report and which hides that coordinated omission.
+ * <p>
+ * Options are {@code key=value} arguments:
+ * <ul>
+ *   <li>{@code target}: {@code in-process} (default) to boot the application in this JVM, or the
+ *       base URL of a running server such as {@code http://localhost:8080};</li>
+ *   <li>{@code catalog}: the number of products of the generated catalog, or 0 (default) for the
+ *       bundled one. A server target must already be serving the same catalog;</li>
+ *   <li>{@code rate} (default 200) messages per second over {@code sessions} (default 100) sessions,
+ *       mixed as {@code mix} (default {@code smalltalk=40,show=25,price=15,stock=15,teach=5});</li>
+ *   <li>{@code warmup} (default 10s) then {@code duration} (default 30s) of recorded load;</li>
+ *   <li>{@code threads} (default 200, as Tomcat's) workers sending messages;</li>
+ *   <li>{@code seed} (default 42) for the workload;</li>
+ *   <li>{@code slo}, such as {@code p99=50ms,p99.9=200ms}: objectives for the corrected latency;</li>
+ *   <li>{@code hgrm}: a path prefix to write the full distributions to, as {@code .hgrm} files.</li>
+ * </ul>
+ * The process exits with status 1 if an objective is missed or a message failed or went unanswered.
+ * Teaching adds learned responses; against a server, they are kept in its journal.
+ */
+public final class LoadTest {
+
+    private static final String DEFAULT_MIX = "smalltalk=40,show=25,price=15,stock=15,teach=5";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    /** How long unanswered messages are waited for once the schedule ends. */
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Map<String, String> options;
+    private final Map<Kind, Histogram> corrected = new EnumMap<>(Kind.class);
+    private final Map<Kind, Histogram> service = new EnumMap<>(Kind.class);
+    private final Map<Kind, LongAdder> failures = new EnumMap<>(Kind.class);
+    private final AtomicInteger reportedFailures = new AtomicInteger();
+    private final AtomicLong lastCompletion = new AtomicLong();
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        for (Kind kind : Kind.values()) {
+            corrected.put(kind, new ConcurrentHistogram(3));
+            service.put(kind, new ConcurrentHistogram(3));
+            failures.put(kind, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected key=value: " + arg);
+            }
+            options.put(parts[0], parts[1]);
+        }
+        System.exit(new LoadTest(options).run() ? 0 : 1);
+    }
+
+    private String option(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    private boolean run() throws Exception {
+        String targetName = option("target", "in-process");
+        int catalogSize = Integer.parseInt(option("catalog", "0"));
+        double rate = Double.parseDouble(option("rate", "200"));
+        int sessions = Integer.parseInt(option("sessions", "100"));
+        Map<Kind, Integer> mix = Workload.parseMix(option("mix", DEFAULT_MIX));
+        long warmupNanos = DurationStyle.detectAndParse(option("warmup", "10s")).toNanos();
+        long durationNanos = DurationStyle.detectAndParse(option("duration", "30s")).toNanos();
+        int threads = Integer.parseInt(option("threads", "200"));
+        long seed = Long.parseLong(option("seed", "42"));
+        Map<Double, Duration> objectives = parseObjectives(option("slo", ""));
+        if (rate <= 0 || sessions <= 0 || threads <= 0 || durationNanos <= 0) {
+            throw new IllegalArgumentException("rate, sessions, threads and duration must be positive");
+        }
+
+        Workload workload = new Workload(seed, rate, sessions, mix, Workload.Catalog.read(catalogSize));
+        long sent = 0;
+        try (LoadTarget target = targetName.equals("in-process")
+                ? LoadTarget.inProcess(catalogSize)
+                : LoadTarget.http(URI.create(targetName))) {
+            System.out.printf(Locale.ROOT, "Sending %.0f msg/s over %d sessions to %s for %s after %s of warm-up, seed %d%n",
+                    rate, sessions, target, format(Duration.ofNanos(durationNanos)), format(Duration.ofNanos(warmupNanos)), seed);
+            AtomicInteger threadCount = new AtomicInteger();
+            ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "load-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            long start = System.nanoTime();
+            for (Operation operation = workload.next(); operation.offsetNanos() < warmupNanos + durationNanos;
+                 operation = workload.next()) {
+                long due = start + operation.offsetNanos();
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean recorded = operation.offsetNanos() >= warmupNanos;
+                Operation op = operation;
+                workers.execute(() -> send(target, op, due, recorded));
+                if (recorded) {
+                    sent++;
+                }
+            }
+            workers.shutdown();
+            if (!workers.awaitTermination(DRAIN_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS)) {
+                workers.shutdownNow();
+            }
+            long answered = 0;
+            for (Kind kind : Kind.values()) {
+                answered += corrected.get(kind).getTotalCount() + failures.get(kind).sum();
+            }
+            return report(start + warmupNanos, sent, sent - answered, objectives);
+        }
+    }
+
+    private void send(LoadTarget target, Operation operation, long due, boolean recorded) {
+        long begin = System.nanoTime();
+        try {
+            target.chat(operation.sessionId(), operation.message());
+            if (operation.answer() != null) {
+                target.learn(operation.message(), operation.answer());
+            }
+        } catch (Exception e) {
+            if (recorded) {
+                failures.get(operation.kind()).increment();
+            }
+            if (reportedFailures.incrementAndGet() <= 10) {
+                System.err.println("Failed to send '" + operation.message() + "': " + e);
+            }
+            return;
+        }
+        long end = System.nanoTime();
+        if (recorded) {
+            corrected.get(operation.kind()).recordValue(end - due);
+            service.get(operation.kind()).recordValue(end - begin);
+            lastCompletion.accumulateAndGet(end, Math::max);
+        }
+    }
+
+    private boolean report(long measuredFrom, long sent, long unanswered, Map<Double, Duration> objectives)
+            throws IOException {
+        Histogram allCorrected = new Histogram(3);
+        Histogram allService = new Histogram(3);
+        long failed = 0;
+        for (Kind kind : Kind.values()) {
+            allCorrected.add(corrected.get(kind));
+            allService.add(service.get(kind));
+            failed += failures.get(kind).sum();
+        }
+        double seconds = Math.max(1, lastCompletion.get() - measuredFrom) / 1e9;
+        System.out.printf(Locale.ROOT, "Sent %d, answered %d, failed %d, unanswered %d; throughput %.1f msg/s%n",
+                sent, allCorrected.getTotalCount(), failed, unanswered, allCorrected.getTotalCount() / seconds);
+
+        StringBuilder header = new StringBuilder(String.format(Locale.ROOT, "%-22s %8s", "latency (ms)", "count"));
+        for (double percentile : PERCENTILES) {
+            header.append(String.format(Locale.ROOT, " %8s", "p" + trim(percentile)));
+        }
+        System.out.println(header.append(String.format(Locale.ROOT, " %8s", "max")));
+        printRow("all", allCorrected);
+        printRow("all, service time", allService);
+        for (Kind kind : Kind.values()) {
+            if (corrected.get(kind).getTotalCount() > 0 || failures.get(kind).sum() > 0) {
+                printRow(kind.key(), corrected.get(kind));
+            }
+        }
+
+        String prefix = options.get("hgrm");
+        if (prefix != null) {
+            writeDistribution(Path.of(prefix + "-corrected.hgrm"), allCorrected);
+            writeDistribution(Path.of(prefix + "-service.hgrm"), allService);
+        }
+
+        boolean met = failed == 0 && unanswered == 0;
+        for (Map.Entry<Double, Duration> objective : objectives.entrySet()) {
+            double actualMillis = allCorrected.getValueAtPercentile(objective.getKey()) / 1e6;
+            boolean ok = actualMillis <= objective.getValue().toNanos() / 1e6;
+            System.out.printf(Locale.ROOT, "SLO p%s <= %s: %.2f ms, %s%n", trim(objective.getKey()),
+                    format(objective.getValue()), actualMillis, ok ? "met" : "MISSED");
+            met &= ok;
+        }
+        return met;
+    }
+
+    private static void printRow(String label, Histogram histogram) {
+        StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "%-22s %8d", label, histogram.getTotalCount()));
+        for (double percentile : PERCENTILES) {
+            row.append(String.format(Locale.ROOT, " %8.2f", histogram.getValueAtPercentile(percentile) / 1e6));
+        }
+        System.out.println(row.append(String.format(Locale.ROOT, " %8.2f", histogram.getMaxValue() / 1e6)));
+    }
+
+    private static void writeDistribution(Path path, Histogram histogram) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, 1e6);
+        }
+        System.out.println("Wrote " + path + " (values in ms)");
+    }
+
+    /**
+     * Parses objectives such as {@code p99=50ms,p99.9=200ms} into the latency allowed at each percentile.
+     */
+    private static Map<Double, Duration> parseObjectives(String slo) {
+        Map<Double, Duration> objectives = new TreeMap<>();
+        if (slo.isBlank()) {
+            return objectives;
+        }
+        for (String entry : slo.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2 || !parts[0].startsWith("p")) {
+                throw new IllegalArgumentException("Expected pNN=duration in the objectives: " + entry);
+            }
+            objectives.put(Double.parseDouble(parts[0].substring(1)), DurationStyle.detectAndParse(parts[1]));
+        }
+        return objectives;
+    }
+
+    private static String format(Duration duration) {
+        return duration.toString().substring(2).toLowerCase(Locale.ROOT);
+    }
+
+    private static String trim(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+}
@@ -0,0 +1,76 @@
+package com.computerx.chatbot.benchmark;
+
+import com.computerx.chatbot.intent.Intent;
+import com.computerx.chatbot.intent.IntentMatch;
+import com.computerx.chatbot.intent.IntentRouter;
+import com.computerx.chatbot.service.KnowledgeBaseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and, with {@code -prof gc}, allocation ({@code gc.alloc.rate.norm}) of what
+ * {@link com.computerx.chatbot.service.ChatService} does to a message before answering it:
+ * normalizing and routing it into a reused match, the small talk and learned-response lookups,
+ * and extracting the keyword of the product intent it triggers.
+ * <p>
+ * Normalizing, routing and the small talk lookup allocate nothing. A message reaching the
+ * learned-response lookup allocates its normalized string, the key of the exact lookup, and one
+ * with a product intent its keyword.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageAnalysisBenchmark {
+
+    private static final Intent[] KEYWORD_INTENTS = {Intent.LIST_PRODUCTS, Intent.PRICE, Intent.STOCK};
+
+    @Param({"Tell me a joke!", "Show me all GPUs", "What is the price of the H5 Flow?", "Is this G.Skill kit in stock?",
+            "What's your return policy?"})
+    public String message;
+
+    private ConfigurableApplicationContext context;
+    private IntentRouter router;
+    private KnowledgeBaseService knowledgeBase;
+    private IntentMatch match;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        router = context.getBean(IntentRouter.class);
+        knowledgeBase = context.getBean(KnowledgeBaseService.class);
+        for (int i = 0; i < 200; i++) {
+            knowledgeBase.saveLearnedResponse("What does order " + i + " include?", "Everything on invoice " + i + ".");
+        }
+        knowledgeBase.saveLearnedResponse("What is your return policy?", "You can return any item within 30 days.");
+        match = router.newMatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String analyze() {
+        router.route(message, match);
+        String answer = knowledgeBase.getSmallTalkResponse(match.tokens());
+        if (answer != null) {
+            return answer;
+        }
+        answer = knowledgeBase.getLearnedResponse(match.tokens());
+        if (answer != null) {
+            return answer;
+        }
+        for (Intent intent : KEYWORD_INTENTS) {
+            if (match.matches(intent)) {
+                return match.keyword(intent);
+            }
+        }
+        return match.input();
+    }
+}
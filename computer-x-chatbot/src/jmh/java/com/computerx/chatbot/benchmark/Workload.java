@@ -0,0 +1,212 @@
+package com.computerx.chatbot.benchmark;
+
+import com.computerx.chatbot.catalog.ProductCsvParser;
+import com.computerx.chatbot.model.Product;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.*;
+
+/**
+ * The stream of messages a {@link LoadTest} sends: Poisson arrivals at a fixed mean rate, each to a
+ * random session with a random kind of message from the configured mix. Everything is drawn from
+ * one seeded random, so runs with the same seed, catalog and options send the same messages to the
+ * same sessions at the same offsets.
+ */
+final class Workload {
+
+    /**
+     * The kinds of message in the mix, with the names used to configure it.
+     */
+    enum Kind
+    {
+        SMALL_TALK("smalltalk"),
+        PRODUCT_LIST("show"),
+        PRICE("price"),
+        STOCK("stock"),
+        /** An unknown question followed by teaching the bot its answer. */
+        TEACH("teach");
+
+        private final String key;
+
+        Kind(String key) {
+            this.key = key;
+        }
+
+        String key() {
+            return key;
+        }
+
+        static Kind forKey(String key) {
+            for (Kind kind : values()) {
+                if (kind.key.equals(key)) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown message kind '" + key + "', expected one of "
+                    + Arrays.stream(values()).map(Kind::key).toList());
+        }
+    }
+
+    /**
+     * One message to send.
+     * @param offsetNanos When to send it, from the start of the run.
+     * @param sessionId The conversation it belongs to.
+     * @param kind The kind of message.
+     * @param message The message text.
+     * @param answer For {@link Kind#TEACH}, the answer taught after the message; otherwise null.
+     */
+    record Operation(long offsetNanos, String sessionId, Kind kind, String message, String answer) {}
+
+    private static final String[] SMALL_TALK = {"hi", "hello", "how are you", "thank you", "thanks", "help",
+            "tell me a joke", "what can you do"};
+    /** Product names sampled from the catalog, enough to make repeated questions rare. */
+    private static final int NAME_SAMPLE = 10_000;
+
+    private final Random random;
+    private final double meanIntervalNanos;
+    private final int sessions;
+    private final Kind[] kinds;
+    private final int[] cumulativeWeights;
+    private final List<String> categories;
+    private final List<String> names;
+    private double offsetNanos;
+    private int taught;
+
+    /**
+     * @param seed Seeds every random choice.
+     * @param rate The mean number of messages per second.
+     * @param sessions The number of sessions messages are spread over.
+     * @param mix The relative weight of each kind of message.
+     * @param catalog The catalog the server answers from, whose categories and product names are asked about.
+     */
+    Workload(long seed, double rate, int sessions, Map<Kind, Integer> mix, Catalog catalog) {
+        this.random = new Random(seed);
+        this.meanIntervalNanos = 1e9 / rate;
+        this.sessions = sessions;
+        this.kinds = mix.keySet().toArray(Kind[]::new);
+        this.cumulativeWeights = new int[kinds.length];
+        int total = 0;
+        for (int i = 0; i < kinds.length; i++) {
+            total += mix.get(kinds[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The message mix has no positive weight: " + mix);
+        }
+        this.categories = catalog.categories();
+        this.names = catalog.names(random, NAME_SAMPLE);
+    }
+
+    /**
+     * Parses a mix such as {@code smalltalk=40,show=25,price=15,stock=15,teach=5}.
+     */
+    static Map<Kind, Integer> parseMix(String mix) {
+        Map<Kind, Integer> weights = new EnumMap<>(Kind.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected kind=weight in the message mix: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in the message mix: " + entry);
+            }
+            weights.put(Kind.forKey(parts[0].trim()), weight);
+        }
+        return weights;
+    }
+
+    Operation next() {
+        // Exponential gaps between arrivals make a Poisson process, the usual model of independent users.
+        offsetNanos += -Math.log(1 - random.nextDouble()) * meanIntervalNanos;
+        String sessionId = "load-" + random.nextInt(sessions);
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int k = 0;
+        while (pick >= cumulativeWeights[k]) {
+            k++;
+        }
+        Kind kind = kinds[k];
+        String message = switch (kind) {
+            case SMALL_TALK -> SMALL_TALK[random.nextInt(SMALL_TALK.length)];
+            case PRODUCT_LIST -> "show me " + pick(categories);
+            case PRICE -> "price of " + pick(names);
+            case STOCK -> "is " + pick(names) + " in stock";
+            case TEACH -> "what does order " + (100_000 + random.nextInt(900_000)) + " include";
+        };
+        String answer = kind == Kind.TEACH ? "Everything on invoice " + ++taught + "." : null;
+        return new Operation((long) offsetNanos, sessionId, kind, message, answer);
+    }
+
+    private String pick(List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * The categories and product names of a catalog file.
+     */
+    static final class Catalog {
+
+        private final SortedSet<String> categories = new TreeSet<>();
+        private final List<String> names = new ArrayList<>();
+
+        private Catalog() {
+        }
+
+        /**
+         * Reads the catalog generated with the given number of products, or the bundled catalog if zero.
+         */
+        static Catalog read(int size) {
+            Catalog catalog = new Catalog();
+            try (ReadableByteChannel channel = size > 0
+                    ? FileChannel.open(CatalogGenerator.catalog(size))
+                    : Channels.newChannel(bundled())) {
+                ProductCsvParser.parse(channel, catalog::add, error -> {});
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (catalog.names.isEmpty()) {
+                throw new IllegalStateException("The catalog has no products");
+            }
+            return catalog;
+        }
+
+        private static InputStream bundled() throws IOException {
+            InputStream in = Workload.class.getClassLoader().getResourceAsStream("data/products.csv");
+            if (in == null) {
+                throw new IOException("data/products.csv is not on the classpath");
+            }
+            return in;
+        }
+
+        private void add(Product product) {
+            categories.add(product.category().toLowerCase(Locale.ROOT));
+            names.add(product.name().toLowerCase(Locale.ROOT));
+        }
+
+        List<String> categories() {
+            return List.copyOf(categories);
+        }
+
+        /**
+         * Returns a random sample of at most {@code limit} product names.
+         */
+        List<String> names(Random random, int limit) {
+            if (names.size() <= limit) {
+                return List.copyOf(names);
+            }
+            String[] sample = names.subList(0, limit).toArray(String[]::new);
+            for (int i = limit; i < names.size(); i++) {
+                int slot = random.nextInt(i + 1);
+                if (slot < limit) {
+                    sample[slot] = names.get(i);
+                }
+            }
+            return List.of(sample);
+        }
+    }
+}
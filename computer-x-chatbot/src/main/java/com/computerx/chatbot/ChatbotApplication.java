@@ -1,6 +1,8 @@
 package com.computerx.chatbot;
 
 import com.computerx.chatbot.gui.ChatFrame;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -11,10 +13,23 @@ import java.awt.*;
 public class ChatbotApplication {
 
     public static void main(String[] args) {
+        ChatbotMode mode = ChatbotMode.resolve(args);
+        boolean gui = mode == ChatbotMode.GUI;
+
         ConfigurableApplicationContext context = new SpringApplicationBuilder(ChatbotApplication.class)
-                .headless(false)
+                .headless(!gui)
+                .web(mode == ChatbotMode.HEADLESS ? WebApplicationType.SERVLET : WebApplicationType.NONE)
                 .run(args);
 
+        if (gui) {
+            showChatFrame(context);
+        } else if (mode == ChatbotMode.BATCH) {
+            // The batch ran while the context started; shut down rather than wait on background threads.
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private static void showChatFrame(ConfigurableApplicationContext context) {
         EventQueue.invokeLater(() -> {
             ChatFrame chatFrame = context.getBean(ChatFrame.class);
             chatFrame.setVisible(true);
@@ -0,0 +1,31 @@
+package com.computerx.chatbot;
+
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Locale;
+
+/**
+ * How the application is run, chosen with the {@code chatbot.mode} property on the command line,
+ * as a system property or through the {@code CHATBOT_MODE} environment variable.
+ */
+public enum ChatbotMode
+{
+    /** Swing chat window; no web server is started. */
+    GUI,
+    /** HTTP and WebSocket endpoints only; AWT and Swing are never loaded. */
+    HEADLESS,
+    /** Answers the messages in {@code chatbot.batch.input}, writes the answers and exits. */
+    BATCH;
+
+    public static final String PROPERTY = "chatbot.mode";
+
+    /**
+     * Resolves the mode before the Spring context exists, since it decides what kind of context to start.
+     */
+    public static ChatbotMode resolve(String[] args) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        return valueOf(environment.getProperty(PROPERTY, "gui").trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,102 @@
+package com.computerx.chatbot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times the startup phases (catalog, small talk, learned responses, GUI avatars) and records how
+ * long after JVM launch the application was ready and answered its first message.
+ * <p>
+ * Phases finished by the time the application is ready are logged together with the ready time;
+ * later ones, such as avatars decoded in the background, are logged as they finish. Everything is
+ * also exported as {@code chatbot.startup.*} time gauges.
+ */
+@Component
+@Slf4j
+public class StartupTimings {
+
+    private final MeterRegistry meterRegistry;
+    /** Phase durations in nanoseconds, in the order they finished; guarded by this. */
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final AtomicBoolean answered = new AtomicBoolean();
+    private boolean ready;
+    private volatile long readyMillis = -1;
+    private volatile long firstResponseMillis = -1;
+
+    public StartupTimings(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        TimeGauge.builder("chatbot.startup.ready", this, TimeUnit.MILLISECONDS, t -> t.readyMillis)
+                .description("Time from JVM launch until the application was ready, or -1 while starting")
+                .register(meterRegistry);
+        TimeGauge.builder("chatbot.startup.first.response", this, TimeUnit.MILLISECONDS, t -> t.firstResponseMillis)
+                .description("Time from JVM launch until the first message was answered, or -1 before that")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a startup phase on the calling thread and records how long it took.
+     */
+    public void time(String phase, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    public void record(String phase, long nanos) {
+        boolean late;
+        synchronized (this) {
+            phases.put(phase, nanos);
+            late = ready;
+        }
+        TimeGauge.builder("chatbot.startup.phase", this, TimeUnit.NANOSECONDS, t -> t.phaseNanos(phase))
+                .description("Time taken by each startup phase")
+                .tag("phase", phase)
+                .register(meterRegistry);
+        if (late) {
+            log.info("Startup phase {} finished in {} ms", phase, TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    /**
+     * Notes that a message was answered; only the first call after startup records anything.
+     */
+    public void responded() {
+        if (!answered.get() && answered.compareAndSet(false, true)) {
+            firstResponseMillis = uptimeMillis();
+            log.info("First response {} ms after JVM launch", firstResponseMillis);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        StringJoiner summary = new StringJoiner(", ");
+        synchronized (this) {
+            ready = true;
+            phases.forEach((phase, nanos) -> summary.add(phase + " " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms"));
+        }
+        readyMillis = uptimeMillis();
+        log.info("Ready {} ms after JVM launch ({})", readyMillis, summary);
+    }
+
+    private synchronized double phaseNanos(String phase) {
+        return phases.getOrDefault(phase, 0L);
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
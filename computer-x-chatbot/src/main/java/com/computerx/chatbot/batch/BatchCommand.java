@@ -0,0 +1,67 @@
+package com.computerx.chatbot.batch;
+
+import com.computerx.chatbot.model.BotState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs a batch when started with {@code --chatbot.mode=batch --chatbot.batch.input=<file>}. Answers go
+ * to {@code chatbot.batch.output}, by default next to the input as {@code <input>.responses.tsv};
+ * {@code -} writes them to standard output.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "chatbot.mode", havingValue = "batch")
+public class BatchCommand implements CommandLineRunner {
+
+    private final ChatBatchProcessor processor;
+
+    @Value("${chatbot.batch.input:}")
+    private String input;
+
+    @Value("${chatbot.batch.output:}")
+    private String output;
+
+    @Override
+    public void run(String... args) throws IOException {
+        if (input.isBlank()) {
+            throw new IllegalStateException("Batch mode needs an input file: --chatbot.batch.input=<file>");
+        }
+        Path inputPath = Paths.get(input);
+        boolean toStandardOutput = output.equals("-");
+        Path outputPath = output.isBlank() ? Paths.get(input + ".responses.tsv") : Paths.get(output);
+
+        BatchSummary summary;
+        try (BufferedReader reader = Files.newBufferedReader(inputPath, StandardCharsets.UTF_8)) {
+            if (toStandardOutput) {
+                // Flushed but not closed, so later log lines still reach the console.
+                Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                summary = processor.process(reader, writer);
+            } else {
+                try (Writer writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+                    summary = processor.process(reader, writer);
+                }
+            }
+        }
+        log.info("Answered {} messages from {} in {} ms ({} messages/s): {} learning ({}%), {} annoyed, {} errors, {} skipped lines{}",
+                summary.messages(), inputPath, summary.elapsed().toMillis(), Math.round(summary.messagesPerSecond()),
+                summary.count(BotState.LEARNING), String.format("%.2f", 100 * summary.learningRate()),
+                summary.count(BotState.ANNOYED), summary.errors(), summary.skippedLines(),
+                toStandardOutput ? "" : "; answers in " + outputPath.toAbsolutePath());
+    }
+}
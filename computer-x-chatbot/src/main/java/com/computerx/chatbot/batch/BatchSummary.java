@@ -0,0 +1,32 @@
+package com.computerx.chatbot.batch;
+
+import com.computerx.chatbot.model.BotState;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Totals of one batch run.
+ * @param messages Messages answered, including those that failed.
+ * @param byState Answered messages per state the bot was left in; LEARNING means no rule answered.
+ * @param errors Messages whose processing threw; they are not counted in {@code byState}.
+ * @param skippedLines Input lines that were not {@code session<TAB>message}.
+ * @param elapsed Wall-clock time of the run.
+ */
+public record BatchSummary(long messages, Map<BotState, Long> byState, long errors, long skippedLines, Duration elapsed) {
+
+    public long count(BotState state) {
+        return byState.getOrDefault(state, 0L);
+    }
+
+    /**
+     * Share of messages the bot could not answer and asked to be taught instead.
+     */
+    public double learningRate() {
+        return messages == 0 ? 0 : (double) count(BotState.LEARNING) / messages;
+    }
+
+    public double messagesPerSecond() {
+        return elapsed.isZero() ? 0 : messages * 1e9 / elapsed.toNanos();
+    }
+}
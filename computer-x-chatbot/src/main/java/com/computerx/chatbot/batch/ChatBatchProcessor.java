@@ -0,0 +1,247 @@
+package com.computerx.chatbot.batch;
+
+import com.computerx.chatbot.model.BotState;
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.service.ChatService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Replays chat transcripts through {@link ChatService}.
+ * <p>
+ * The input has one {@code session<TAB>message} pair per line and is read as a stream. Each session
+ * gets a lane that answers its messages one after another on a virtual thread, so messages of a
+ * session are answered in input order while different sessions run in parallel. At most
+ * {@code chatbot.batch.max-in-flight} messages are read ahead of the answers, so memory does not
+ * grow with the input. Answers are written as {@code session<TAB>state<TAB>message} lines as they
+ * complete, with tabs, line breaks and backslashes escaped, followed by summary lines starting with
+ * {@code #}.
+ * <p>
+ * Sessions are namespaced per run so a batch never continues a live conversation. A session whose
+ * lane has drained stays open in case the transcript returns to it, until more than
+ * {@code chatbot.batch.max-open-sessions} are open and it is the least recently used.
+ */
+@Component
+@Slf4j
+public class ChatBatchProcessor {
+
+    private static final int MAX_LOGGED_SKIPPED_LINES = 20;
+    private static final BotState[] STATES = BotState.values();
+
+    private final ChatService chatService;
+    private final int maxInFlight;
+    private final int maxOpenSessions;
+
+    public ChatBatchProcessor(ChatService chatService,
+                              @Value("${chatbot.batch.max-in-flight:10000}") int maxInFlight,
+                              @Value("${chatbot.batch.max-open-sessions:5000}") int maxOpenSessions) {
+        this.chatService = chatService;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxOpenSessions = Math.max(0, maxOpenSessions);
+    }
+
+    /**
+     * Answers every message of {@code input}, writing the answers and then the summary to {@code output}.
+     */
+    public BatchSummary process(BufferedReader input, Writer output) throws IOException {
+        Run run = new Run(output);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String line;
+            long lineNumber = 0;
+            while (run.writeFailure.get() == null && (line = input.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                if (tab <= 0) {
+                    if (run.skippedLines.incrementAndGet() <= MAX_LOGGED_SKIPPED_LINES) {
+                        log.warn("Skipped batch input line {}: expected session<TAB>message", lineNumber);
+                    }
+                    continue;
+                }
+                run.inFlight.acquireUninterruptibly();
+                Lane lane = run.enqueue(line.substring(0, tab), line.substring(tab + 1));
+                if (lane != null) {
+                    executor.execute(() -> run.drain(lane));
+                }
+            }
+        } finally {
+            run.endOpenSessions();
+        }
+        if (run.writeFailure.get() != null) {
+            throw run.writeFailure.get();
+        }
+        BatchSummary summary = run.summary(Duration.ofNanos(System.nanoTime() - start));
+        writeSummary(summary, output);
+        output.flush();
+        return summary;
+    }
+
+    private static void writeSummary(BatchSummary summary, Writer output) throws IOException {
+        output.write(String.format(Locale.ROOT, "# messages %d, errors %d, skipped lines %d, %d ms, %.0f messages/s%n",
+                summary.messages(), summary.errors(), summary.skippedLines(), summary.elapsed().toMillis(),
+                summary.messagesPerSecond()));
+        for (BotState state : STATES) {
+            long count = summary.count(state);
+            output.write(String.format(Locale.ROOT, "# %s %d (%.2f%%)%n", state, count,
+                    summary.messages() == 0 ? 0.0 : 100.0 * count / summary.messages()));
+        }
+    }
+
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * The messages of one session waiting to be answered; guarded by the run's {@code lanes} map.
+     */
+    private static final class Lane {
+
+        final String sessionId;
+        final Deque<String> messages = new ArrayDeque<>();
+
+        Lane(String sessionId) {
+            this.sessionId = sessionId;
+        }
+    }
+
+    /**
+     * State of one call to {@link #process}.
+     */
+    private final class Run {
+
+        final String sessionPrefix = "batch-" + UUID.randomUUID() + ":";
+        final Writer output;
+        final Lock outputLock = new ReentrantLock();
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        /** Lanes with messages queued or being answered. */
+        final Map<String, Lane> lanes = new HashMap<>();
+        /** Sessions without a lane that are still open, least recently used first; guarded by {@code lanes}. */
+        final Set<String> openSessions = new LinkedHashSet<>();
+        final AtomicLong messages = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong skippedLines = new AtomicLong();
+        final AtomicLongArray byState = new AtomicLongArray(STATES.length);
+        final AtomicReference<IOException> writeFailure = new AtomicReference<>();
+
+        Run(Writer output) {
+            this.output = output;
+        }
+
+        /**
+         * Queues a message on its session's lane.
+         * @return The lane if it was idle and must be started, otherwise null.
+         */
+        Lane enqueue(String sessionId, String message) {
+            synchronized (lanes) {
+                Lane lane = lanes.get(sessionId);
+                boolean idle = lane == null;
+                if (idle) {
+                    lane = new Lane(sessionId);
+                    lanes.put(sessionId, lane);
+                    openSessions.remove(sessionId);
+                }
+                lane.messages.add(message);
+                return idle ? lane : null;
+            }
+        }
+
+        void drain(Lane lane) {
+            while (true) {
+                String message;
+                synchronized (lanes) {
+                    message = lane.messages.poll();
+                    if (message == null) {
+                        lanes.remove(lane.sessionId);
+                        openSessions.add(lane.sessionId);
+                        closeLeastRecentlyUsedSessions();
+                        return;
+                    }
+                }
+                try {
+                    answer(lane.sessionId, message);
+                } finally {
+                    inFlight.release();
+                }
+            }
+        }
+
+        private void answer(String sessionId, String message) {
+            String line;
+            try {
+                ChatResponse response = chatService.getResponse(sessionPrefix + sessionId, message);
+                byState.incrementAndGet(response.botState().ordinal());
+                line = sessionId + '\t' + response.botState() + '\t' + escape(response.message());
+            } catch (RuntimeException e) {
+                errors.incrementAndGet();
+                log.warn("Failed to answer batch message of session {}: {}", sessionId, e.toString());
+                line = sessionId + "\tERROR\t" + escape(String.valueOf(e.getMessage()));
+            }
+            messages.incrementAndGet();
+            // A lock rather than a monitor, so a virtual thread blocked on the write does not pin its carrier.
+            outputLock.lock();
+            try {
+                if (writeFailure.get() == null) {
+                    output.write(line);
+                    output.write('\n');
+                }
+            } catch (IOException e) {
+                // Stops reading more input; the lanes still drain so every permit is returned.
+                writeFailure.set(e);
+            } finally {
+                outputLock.unlock();
+            }
+        }
+
+        private void closeLeastRecentlyUsedSessions() {
+            Iterator<String> oldest = openSessions.iterator();
+            while (openSessions.size() > maxOpenSessions && oldest.hasNext()) {
+                chatService.endSession(sessionPrefix + oldest.next());
+                oldest.remove();
+            }
+        }
+
+        void endOpenSessions() {
+            synchronized (lanes) {
+                openSessions.forEach(sessionId -> chatService.endSession(sessionPrefix + sessionId));
+                openSessions.clear();
+            }
+        }
+
+        BatchSummary summary(Duration elapsed) {
+            Map<BotState, Long> counts = new EnumMap<>(BotState.class);
+            for (BotState state : STATES) {
+                counts.put(state, byState.get(state.ordinal()));
+            }
+            return new BatchSummary(messages.get(), counts, errors.get(), skippedLines.get(), elapsed);
+        }
+    }
+}
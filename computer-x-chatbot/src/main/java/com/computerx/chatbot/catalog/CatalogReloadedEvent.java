@@ -0,0 +1,8 @@
+package com.computerx.chatbot.catalog;
+
+/**
+ * Published after a new catalog snapshot has been swapped in.
+ * @param previous The snapshot that was replaced.
+ * @param current The snapshot now served.
+ */
+public record CatalogReloadedEvent(CatalogSnapshot previous, CatalogSnapshot current) {}
@@ -0,0 +1,69 @@
+package com.computerx.chatbot.catalog;
+
+import com.computerx.chatbot.model.Product;
+import com.computerx.chatbot.search.FacetIndex;
+import com.computerx.chatbot.search.FuzzyIndex;
+import com.computerx.chatbot.search.ProductIndex;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An immutable version of the product catalog together with everything derived from it.
+ * Readers grab the current snapshot once per query, so a reload swapping in a new snapshot
+ * can never show them a half-updated catalog.
+ * @param version Increases by one with every successful load.
+ * @param products The products, in file order; ids used by the index are positions in this list.
+ * @param index The keyword index over {@code products}; empty if the snapshot was built without
+ *              search indexes.
+ * @param fuzzyIndex The typo-tolerant index over names, brands and attribute values; empty if the
+ *                   snapshot was built without search indexes.
+ * @param facets The price, category, brand, stock and attribute indexes used by filters.
+ * @param views Category, name and rendered-card views of {@code products}.
+ * @param loadedAt When this snapshot was built.
+ */
+public record CatalogSnapshot(long version, List<Product> products, ProductIndex index, FuzzyIndex fuzzyIndex,
+                              FacetIndex facets, CatalogViews views, Instant loadedAt) {
+
+    public static final CatalogSnapshot EMPTY = build(0, List.of());
+
+    /**
+     * Builds a snapshot and its indexes. A {@link ColumnarProductList} is used as is, and the keyword
+     * index then re-reads product text from it instead of keeping a copy; other lists are copied.
+     */
+    public static CatalogSnapshot build(long version, List<Product> products) {
+        return build(version, products, true);
+    }
+
+    /**
+     * Builds a snapshot, with empty keyword and fuzzy indexes unless {@code searchIndexes}, for
+     * when lookups are answered elsewhere, such as by catalog shards.
+     */
+    public static CatalogSnapshot build(long version, List<Product> products, boolean searchIndexes) {
+        boolean columnar = products instanceof ColumnarProductList;
+        List<Product> frozen = columnar ? products : List.copyOf(products);
+        List<Product> indexed = searchIndexes ? frozen : List.of();
+        return new CatalogSnapshot(version, frozen, ProductIndex.build(indexed, retainsTexts(frozen)), FuzzyIndex.build(indexed),
+                FacetIndex.build(frozen), new CatalogViews(frozen), Instant.now());
+    }
+
+    /**
+     * Assembles a snapshot around indexes read back from a {@link CatalogSnapshotFile}, building
+     * only the facets and views. {@code products} must be immutable.
+     */
+    static CatalogSnapshot restore(long version, List<Product> products, ProductIndex index, FuzzyIndex fuzzyIndex) {
+        return new CatalogSnapshot(version, products, index, fuzzyIndex, FacetIndex.build(products),
+                new CatalogViews(products), Instant.now());
+    }
+
+    /**
+     * Whether the keyword index over these products keeps its own copy of their searchable text.
+     */
+    static boolean retainsTexts(List<Product> products) {
+        return !(products instanceof ColumnarProductList);
+    }
+
+    public int size() {
+        return products.size();
+    }
+}
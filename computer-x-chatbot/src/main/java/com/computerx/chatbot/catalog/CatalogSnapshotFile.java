@@ -0,0 +1,167 @@
+package com.computerx.chatbot.catalog;
+
+import com.computerx.chatbot.model.Product;
+import com.computerx.chatbot.search.FuzzyIndex;
+import com.computerx.chatbot.search.IndexInput;
+import com.computerx.chatbot.search.IndexOutput;
+import com.computerx.chatbot.search.ProductIndex;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Binary image of a {@link CatalogSnapshot}, so a restart can skip parsing the catalog CSV and
+ * rebuilding the keyword and fuzzy indexes, which take most of the load time of a large catalog.
+ * <p>
+ * The file holds the products, with categories, brands, stock levels and attributes stored once
+ * in a dictionary, followed by the posting lists of both indexes; facets and views are cheap and
+ * rebuilt on load. It is read through a memory-mapped buffer, posting lists being copied out in
+ * bulk. Each file records a description of the catalog it was built from, and is ignored once
+ * that no longer matches. Files are written to a temporary file and moved into place, so a
+ * reader never sees a partial snapshot.
+ */
+public final class CatalogSnapshotFile {
+
+    private static final int MAGIC = 0x43584353;
+    private static final int FORMAT_VERSION = 1;
+    /** Category, brand and stock codes, name and description lengths, attribute count and price. */
+    private static final int MIN_PRODUCT_BYTES = 6 * Integer.BYTES + Double.BYTES;
+
+    private CatalogSnapshotFile() {
+    }
+
+    /**
+     * Writes the snapshot to {@code path}, replacing any previous one.
+     * @param source Describes the catalog the snapshot was built from; see {@link #read}.
+     */
+    public static void write(Path path, String source, CatalogSnapshot snapshot) throws IOException {
+        Path target = path.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                IndexOutput out = new IndexOutput(channel);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeString(source);
+                writeProducts(out, snapshot.products());
+                snapshot.index().writeTo(out);
+                snapshot.fuzzyIndex().writeTo(out);
+                out.writeInt(MAGIC);
+                out.flush();
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Maps and reads a snapshot written by {@link #write}, keeping the products in {@code store}.
+     * @param source Must equal the description the file was written with, or the file is ignored.
+     * @param version The version to give the restored snapshot.
+     * @return The snapshot, or empty if there is no file, or it was written for another catalog or
+     *         by another format version.
+     * @throws IOException If the file cannot be read, is larger than 2 GB or is corrupt.
+     */
+    public static Optional<CatalogSnapshot> read(Path path, String source, long version, CatalogStore store)
+            throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to map (" + size + " bytes)");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        IndexInput in = new IndexInput(buffer);
+        if (in.readInt() != MAGIC) {
+            throw new IOException(path + " is not a catalog snapshot");
+        }
+        if (in.readInt() != FORMAT_VERSION || !source.equals(in.readString())) {
+            return Optional.empty();
+        }
+        List<Product> products = readProducts(in, store.collector());
+        ProductIndex index = ProductIndex.readFrom(in, products, CatalogSnapshot.retainsTexts(products));
+        FuzzyIndex fuzzyIndex = FuzzyIndex.readFrom(in);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Corrupt snapshot " + path + ": trailer missing");
+        }
+        return Optional.of(CatalogSnapshot.restore(version, products, index, fuzzyIndex));
+    }
+
+    private static void writeProducts(IndexOutput out, List<Product> products) throws IOException {
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        for (Product product : products) {
+            codes.putIfAbsent(product.category(), codes.size());
+            codes.putIfAbsent(product.brand(), codes.size());
+            codes.putIfAbsent(product.stock(), codes.size());
+            for (Map.Entry<String, String> attribute : product.attributes().entrySet()) {
+                codes.putIfAbsent(attribute.getKey(), codes.size());
+                codes.putIfAbsent(attribute.getValue(), codes.size());
+            }
+        }
+        out.writeInt(codes.size());
+        for (String value : codes.keySet()) {
+            out.writeString(value);
+        }
+
+        out.writeInt(products.size());
+        for (Product product : products) {
+            out.writeInt(codes.get(product.category()));
+            out.writeString(product.name());
+            out.writeInt(codes.get(product.brand()));
+            out.writeDouble(product.price());
+            out.writeInt(codes.get(product.stock()));
+            out.writeString(product.description());
+            out.writeInt(product.attributes().size());
+            for (Map.Entry<String, String> attribute : product.attributes().entrySet()) {
+                out.writeInt(codes.get(attribute.getKey()));
+                out.writeInt(codes.get(attribute.getValue()));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Product> readProducts(IndexInput in, CatalogStore.Collector collector) throws IOException {
+        String[] dictionary = new String[in.readLength(Integer.BYTES)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readString();
+        }
+
+        int count = in.readLength(MIN_PRODUCT_BYTES);
+        for (int i = 0; i < count; i++) {
+            String category = entry(dictionary, in.readInt());
+            String name = in.readString();
+            String brand = entry(dictionary, in.readInt());
+            double price = in.readDouble();
+            String stock = entry(dictionary, in.readInt());
+            String description = in.readString();
+            Map.Entry<String, String>[] attributes = new Map.Entry[in.readLength(2 * Integer.BYTES)];
+            for (int a = 0; a < attributes.length; a++) {
+                attributes[a] = Map.entry(entry(dictionary, in.readInt()), entry(dictionary, in.readInt()));
+            }
+            collector.accept(new Product(category, name, brand, price, stock, description,
+                    attributes.length == 0 ? Map.of() : Map.ofEntries(attributes)));
+        }
+        return collector.finish();
+    }
+
+    private static String entry(String[] dictionary, int code) throws IOException {
+        if (code < 0 || code >= dictionary.length) {
+            throw new IOException("Corrupt snapshot: dictionary code " + code + " out of range");
+        }
+        return dictionary[code];
+    }
+}
@@ -0,0 +1,59 @@
+package com.computerx.chatbot.catalog;
+
+import com.computerx.chatbot.model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * How a loaded catalog keeps its products in memory.
+ */
+public enum CatalogStore
+{
+    /** One {@link Product} record per product. Fastest to read; several hundred bytes per product. */
+    HEAP,
+    /** A {@link ColumnarProductList}, materializing products on access. */
+    COLUMNAR,
+    /** A {@link ColumnarProductList} whose names and descriptions are kept off the heap. */
+    COLUMNAR_OFF_HEAP;
+
+    /**
+     * Collects parsed products into a list of this kind.
+     */
+    public interface Collector extends Consumer<Product>
+    {
+        List<Product> finish();
+    }
+
+    public Collector collector() {
+        if (this == HEAP) {
+            List<Product> products = new ArrayList<>();
+            return new Collector() {
+                @Override
+                public void accept(Product product) {
+                    products.add(product);
+                }
+
+                @Override
+                public List<Product> finish() {
+                    return List.copyOf(products);
+                }
+            };
+        }
+        ColumnarProductList.Builder builder = ColumnarProductList.builder();
+        boolean offHeap = this == COLUMNAR_OFF_HEAP;
+        return new Collector() {
+            @Override
+            public void accept(Product product) {
+                builder.add(product);
+            }
+
+            @Override
+            public List<Product> finish() {
+                return builder.build(offHeap);
+            }
+        };
+    }
+
+}
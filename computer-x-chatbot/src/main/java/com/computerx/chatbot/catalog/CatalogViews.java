@@ -0,0 +1,100 @@
+package com.computerx.chatbot.catalog;
+
+import com.computerx.chatbot.model.Product;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-only views derived from one catalog snapshot, computed at most once per snapshot.
+ * <p>
+ * The category set is built with the snapshot and the product name list reads through to it. Rendered product cards
+ * ({@link Product#toString()}) are kept in a fixed-size, direct-mapped cache, so the cards shown most
+ * are rendered once while a large catalog costs no more than {@value #MAX_CARD_SLOTS} cached cards.
+ * Whole responses built from the catalog can be memoized by key, so repeated requests cost a lookup.
+ */
+public final class CatalogViews {
+
+    static final int MAX_CARD_SLOTS = 4096;
+
+    /**
+     * @param id The id of the product the card was rendered from.
+     * @param text The rendered card.
+     */
+    private record Card(int id, String text) {}
+
+    private final List<Product> products;
+    private final Set<String> categories;
+    private final List<String> productNames;
+    private final Card[] cards;
+    private final int cardMask;
+    private final Map<String, String> memoized = new ConcurrentHashMap<>();
+
+    CatalogViews(List<Product> products) {
+        this(products, MAX_CARD_SLOTS);
+    }
+
+    CatalogViews(List<Product> products, int maxCardSlots) {
+        this.products = products;
+        Set<String> categorySet = new LinkedHashSet<>();
+        for (Product product : products) {
+            categorySet.add(capitalize(product.category()));
+        }
+        this.categories = Collections.unmodifiableSet(categorySet);
+        // A view rather than a copy, so a columnar catalog does not get every name decoded up front.
+        this.productNames = new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return products.get(index).name();
+            }
+
+            @Override
+            public int size() {
+                return products.size();
+            }
+        };
+        // The smallest power of two with a slot per product, but no more than the cap allows.
+        int slots = Integer.highestOneBit(Math.max(1, Math.min(products.size(), maxCardSlots) * 2 - 1));
+        this.cards = new Card[Math.min(slots, Integer.highestOneBit(maxCardSlots))];
+        this.cardMask = cards.length - 1;
+    }
+
+    public Set<String> categories() {
+        return categories;
+    }
+
+    public List<String> productNames() {
+        return productNames;
+    }
+
+    /**
+     * Returns the rendered card of the product with the given id, rendering it unless it is cached.
+     */
+    public String card(int id) {
+        int slot = id & cardMask;
+        Card card = cards[slot];
+        if (card == null || card.id() != id) {
+            // Racing threads may both render or evict a card; records are immutable, so either may win.
+            card = new Card(id, products.get(id).toString());
+            cards[slot] = card;
+        }
+        return card.text();
+    }
+
+    /**
+     * Returns the value built for {@code key} in this snapshot, building it on first use.
+     * Builders must depend only on the catalog, since the result is shared by all callers.
+     */
+    public String memoize(String key, Supplier<String> builder) {
+        String value = memoized.get(key);
+        return value != null ? value : memoized.computeIfAbsent(key, k -> builder.get());
+    }
+
+    private static String capitalize(String str) {
+        if (str == null || str.isEmpty()) {
+            return str;
+        }
+        return str.substring(0, 1).toUpperCase() + str.substring(1).toLowerCase();
+    }
+}
@@ -0,0 +1,141 @@
+package com.computerx.chatbot.catalog;
+
+import com.computerx.chatbot.service.KnowledgeBaseService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the catalog when an external catalog file changes.
+ * <p>
+ * The file's directory is watched with a {@link WatchService}. Bursts of change events, as
+ * produced by editors and copy tools, are collapsed by waiting for {@code chatbot.catalog.watch-debounce}
+ * of quiet before reloading, and the reload waits longer while the file's size or modification
+ * time still changes over a debounce, as when a writer pauses without the watch service noticing.
+ * The reload runs on its own thread, so queries keep being answered from the previous snapshot
+ * until the new one is ready; {@link KnowledgeBaseService#reloadCatalog} still rejects a file
+ * that comes out empty or much shorter.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "chatbot.catalog.watch", havingValue = "true", matchIfMissing = true)
+public class CatalogWatcher {
+
+    private final KnowledgeBaseService knowledgeBase;
+    private final long debounceMillis;
+    private final ScheduledExecutorService reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-reloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Size and modification time of the catalog file, to tell whether it is still being written. */
+    private record FileStamp(long size, FileTime modified) {}
+
+    private WatchService watchService;
+    private Path file;
+    private ScheduledFuture<?> pendingReload;
+    private FileStamp pendingStamp;
+
+    public CatalogWatcher(KnowledgeBaseService knowledgeBase,
+                          @Value("${chatbot.catalog.watch-debounce:500ms}") Duration debounce) {
+        this.knowledgeBase = knowledgeBase;
+        this.debounceMillis = debounce.toMillis();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Optional<Path> catalogFile = knowledgeBase.getCatalogFile();
+        if (catalogFile.isEmpty()) {
+            log.info("Catalog is not an external file; hot reload is disabled.");
+            return;
+        }
+        file = catalogFile.get().toAbsolutePath();
+        watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watchThread = new Thread(this::watch, "catalog-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        log.info("Watching {} for catalog changes.", file);
+    }
+
+    private void watch() {
+        Path fileName = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) {
+                        scheduleReload();
+                    } else if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        scheduleReload();
+                    }
+                }
+                if (!key.reset()) {
+                    log.warn("Stopped watching {}: its directory is no longer accessible.", file);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down.
+        }
+    }
+
+    private synchronized void scheduleReload() {
+        if (pendingReload != null) {
+            pendingReload.cancel(false);
+        }
+        pendingStamp = stamp();
+        pendingReload = reloader.schedule(this::reloadWhenSettled, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reloads if the file has not changed since the reload was scheduled, and otherwise waits
+     * another debounce. A missing file, as in the middle of a rename, waits for its create event.
+     */
+    private void reloadWhenSettled() {
+        synchronized (this) {
+            FileStamp current = stamp();
+            if (current == null) {
+                return;
+            }
+            if (!current.equals(pendingStamp)) {
+                pendingStamp = current;
+                pendingReload = reloader.schedule(this::reloadWhenSettled, debounceMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+            pendingReload = null;
+        }
+        knowledgeBase.reloadCatalog();
+    }
+
+    private FileStamp stamp() {
+        try {
+            return new FileStamp(Files.size(file), Files.getLastModifiedTime(file));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        reloader.shutdownNow();
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.computerx.chatbot.catalog;
+
+import com.computerx.chatbot.model.Product;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * An immutable product list stored column by column instead of as {@link Product} objects.
+ * <p>
+ * Category, brand, attribute keys and attribute values are dictionary-encoded as int codes, prices
+ * live in a {@code double[]} and the usual "in stock" / "out of stock" status in a bitset, with any
+ * other stock text kept aside per product. Names and descriptions are UTF-8 encoded into a single
+ * string region, on the heap or off it in a direct buffer. {@link #get} materializes a
+ * {@code Product} on every call, so callers should not hold on to the result longer than needed.
+ */
+public final class ColumnarProductList extends AbstractList<Product> implements RandomAccess {
+
+    static final String IN_STOCK = "in stock";
+    static final String OUT_OF_STOCK = "out of stock";
+
+    private final int size;
+    private final String[] categories;
+    private final int[] categoryCodes;
+    private final String[] brands;
+    private final int[] brandCodes;
+    private final double[] prices;
+    private final BitSet inStock;
+    private final Map<Integer, String> otherStock;
+    private final byte[] heapRegion;
+    private final ByteBuffer directRegion;
+    /** Start of product {@code i}'s name at {@code 2i} and of its description at {@code 2i + 1}. */
+    private final int[] textOffsets;
+    private final String[] attributeKeys;
+    private final String[] attributeValues;
+    private final int[] attributeStarts;
+    private final int[] attributeKeyCodes;
+    private final int[] attributeValueCodes;
+
+    private ColumnarProductList(Builder builder, boolean offHeap) {
+        this.size = builder.size;
+        this.categories = builder.categories.values();
+        this.categoryCodes = Arrays.copyOf(builder.categoryCodes, size);
+        this.brands = builder.brands.values();
+        this.brandCodes = Arrays.copyOf(builder.brandCodes, size);
+        this.prices = Arrays.copyOf(builder.prices, size);
+        this.inStock = (BitSet) builder.inStock.clone();
+        this.otherStock = Map.copyOf(builder.otherStock);
+        this.textOffsets = Arrays.copyOf(builder.textOffsets, 2 * size + 1);
+        if (offHeap) {
+            this.heapRegion = null;
+            this.directRegion = ByteBuffer.allocateDirect(builder.regionLength).put(builder.region, 0, builder.regionLength);
+        } else {
+            this.heapRegion = Arrays.copyOf(builder.region, builder.regionLength);
+            this.directRegion = null;
+        }
+        this.attributeKeys = builder.attributeKeys.values();
+        this.attributeValues = builder.attributeValues.values();
+        this.attributeStarts = Arrays.copyOf(builder.attributeStarts, size + 1);
+        this.attributeKeyCodes = Arrays.copyOf(builder.attributeKeyCodes, builder.attributeCount);
+        this.attributeValueCodes = Arrays.copyOf(builder.attributeValueCodes, builder.attributeCount);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Product get(int index) {
+        Objects.checkIndex(index, size);
+        return new Product(categories[categoryCodes[index]], text(2 * index), brands[brandCodes[index]],
+                prices[index], stock(index), text(2 * index + 1), attributes(index));
+    }
+
+    public double price(int index) {
+        return prices[Objects.checkIndex(index, size)];
+    }
+
+    public boolean isInStock(int index) {
+        return inStock.get(Objects.checkIndex(index, size));
+    }
+
+    /**
+     * Returns the bytes held in the string region, on or off the heap.
+     */
+    public long regionBytes() {
+        return heapRegion != null ? heapRegion.length : directRegion.capacity();
+    }
+
+    private String stock(int index) {
+        String other = otherStock.get(index);
+        if (other != null) {
+            return other;
+        }
+        return inStock.get(index) ? IN_STOCK : OUT_OF_STOCK;
+    }
+
+    private String text(int slot) {
+        int start = textOffsets[slot];
+        int length = textOffsets[slot + 1] - start;
+        if (heapRegion != null) {
+            return new String(heapRegion, start, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        directRegion.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Map<String, String> attributes(int index) {
+        int from = attributeStarts[index];
+        int to = attributeStarts[index + 1];
+        if (from == to) {
+            return Map.of();
+        }
+        @SuppressWarnings("unchecked")
+        Map.Entry<String, String>[] entries = new Map.Entry[to - from];
+        for (int i = from; i < to; i++) {
+            entries[i - from] = Map.entry(attributeKeys[attributeKeyCodes[i]], attributeValues[attributeValueCodes[i]]);
+        }
+        return Map.ofEntries(entries);
+    }
+
+    /**
+     * Encodes products one at a time, so a catalog can be parsed straight into columns without
+     * first holding every {@code Product}.
+     */
+    public static final class Builder {
+
+        private int size;
+        private final Dictionary categories = new Dictionary();
+        private final Dictionary brands = new Dictionary();
+        private final Dictionary attributeKeys = new Dictionary();
+        private final Dictionary attributeValues = new Dictionary();
+        private int[] categoryCodes = new int[16];
+        private int[] brandCodes = new int[16];
+        private double[] prices = new double[16];
+        private final BitSet inStock = new BitSet();
+        private final Map<Integer, String> otherStock = new HashMap<>();
+        private byte[] region = new byte[1024];
+        private int regionLength;
+        private int[] textOffsets = new int[33];
+        private int[] attributeStarts = new int[17];
+        private int[] attributeKeyCodes = new int[16];
+        private int[] attributeValueCodes = new int[16];
+        private int attributeCount;
+
+        private Builder() {
+        }
+
+        public Builder add(Product product) {
+            if (size == prices.length) {
+                int capacity = size * 2;
+                categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+                brandCodes = Arrays.copyOf(brandCodes, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                textOffsets = Arrays.copyOf(textOffsets, 2 * capacity + 1);
+                attributeStarts = Arrays.copyOf(attributeStarts, capacity + 1);
+            }
+            categoryCodes[size] = categories.code(product.category());
+            brandCodes[size] = brands.code(product.brand());
+            prices[size] = product.price();
+            if (product.stock().equals(IN_STOCK)) {
+                inStock.set(size);
+            } else if (!product.stock().equals(OUT_OF_STOCK)) {
+                otherStock.put(size, product.stock());
+            }
+            appendText(2 * size, product.name());
+            appendText(2 * size + 1, product.description());
+            for (Map.Entry<String, String> attribute : product.attributes().entrySet()) {
+                if (attributeCount == attributeKeyCodes.length) {
+                    attributeKeyCodes = Arrays.copyOf(attributeKeyCodes, attributeCount * 2);
+                    attributeValueCodes = Arrays.copyOf(attributeValueCodes, attributeCount * 2);
+                }
+                attributeKeyCodes[attributeCount] = attributeKeys.code(attribute.getKey());
+                attributeValueCodes[attributeCount] = attributeValues.code(attribute.getValue());
+                attributeCount++;
+            }
+            size++;
+            attributeStarts[size] = attributeCount;
+            return this;
+        }
+
+        private void appendText(int slot, String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if ((long) regionLength + bytes.length > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Catalog text exceeds the 2 GB string region of a columnar store");
+            }
+            if (regionLength + bytes.length > region.length) {
+                long grown = Math.max((long) region.length * 2, (long) regionLength + bytes.length);
+                region = Arrays.copyOf(region, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+            }
+            System.arraycopy(bytes, 0, region, regionLength, bytes.length);
+            textOffsets[slot] = regionLength;
+            regionLength += bytes.length;
+            textOffsets[slot + 1] = regionLength;
+        }
+
+        /**
+         * Builds the list, keeping the string region on the heap or in a direct buffer.
+         */
+        public ColumnarProductList build(boolean offHeap) {
+            return new ColumnarProductList(this, offHeap);
+        }
+    }
+
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String[] values() {
+            return values.toArray(String[]::new);
+        }
+    }
+}
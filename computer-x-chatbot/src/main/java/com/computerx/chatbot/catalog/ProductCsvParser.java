@@ -0,0 +1,264 @@
+package com.computerx.chatbot.catalog;
+
+import com.computerx.chatbot.model.Product;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Single-pass streaming parser for the products.csv format.
+ * <p>
+ * Bytes are read from a channel into one reusable buffer, decoded as UTF-8 and fed through a
+ * character state machine, so memory use does not depend on the file size and every character
+ * is looked at once. Quoted fields may contain commas and line breaks; a quote inside a quoted
+ * field is written either doubled ({@code ""}) or backslash-escaped ({@code \"}). The attributes
+ * column is split into its {@code key:value;} pairs in the same pass over the field.
+ * <p>
+ * Malformed rows are reported with the line they start on and skipped; they never abort the load.
+ * Repeated values such as categories, brands and attribute keys are shared between products.
+ */
+public final class ProductCsvParser {
+
+    /**
+     * A row that could not be turned into a product.
+     * @param line The 1-based line the row starts on.
+     * @param message Why the row was rejected.
+     */
+    public record RowError(long line, String message) {}
+
+    static final int MIN_COLUMNS = 6;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char BOM = '\uFEFF';
+
+    private enum State { FIELD_START, UNQUOTED, QUOTED, QUOTE_IN_QUOTED, ESCAPE_IN_QUOTED }
+
+    private final Consumer<Product> products;
+    private final Consumer<RowError> errors;
+    private final Map<String, String> pool = new HashMap<>();
+    private final List<String> fields = new ArrayList<>(8);
+    private final StringBuilder field = new StringBuilder(64);
+    private final Map<String, String> attributes = new HashMap<>();
+
+    private State state = State.FIELD_START;
+    private long line = 1;
+    private long recordLine = 1;
+    private boolean headerSkipped;
+    private boolean pendingCarriageReturn;
+    private boolean firstChar = true;
+
+    private ProductCsvParser(Consumer<Product> products, Consumer<RowError> errors) {
+        this.products = products;
+        this.errors = errors;
+    }
+
+    /**
+     * Reads a catalog from the channel, skipping its header row, passing every valid product to
+     * {@code products} and every rejected row to {@code errors}. The channel is not closed.
+     */
+    public static void parse(ReadableByteChannel channel, Consumer<Product> products, Consumer<RowError> errors) throws IOException {
+        new ProductCsvParser(products, errors).run(channel);
+    }
+
+    private void run(ReadableByteChannel channel) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            endOfInput = channel.read(bytes) < 0;
+            bytes.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, endOfInput);
+                drain(chars);
+            } while (result.isOverflow());
+            bytes.compact();
+        }
+        while (decoder.flush(chars).isOverflow()) {
+            drain(chars);
+        }
+        drain(chars);
+        endRecord();
+    }
+
+    private void drain(CharBuffer chars) {
+        chars.flip();
+        char[] array = chars.array();
+        int end = chars.arrayOffset() + chars.limit();
+        for (int i = chars.arrayOffset() + chars.position(); i < end; i++) {
+            accept(array[i]);
+        }
+        chars.clear();
+    }
+
+    private void accept(char c) {
+        if (firstChar) {
+            firstChar = false;
+            if (c == BOM) {
+                return;
+            }
+        }
+        if (pendingCarriageReturn) {
+            pendingCarriageReturn = false;
+            if (c == '\n') {
+                return;
+            }
+        }
+        switch (state) {
+            case FIELD_START -> {
+                if (c == '"') {
+                    state = State.QUOTED;
+                } else {
+                    state = State.UNQUOTED;
+                    acceptUnquoted(c);
+                }
+            }
+            case UNQUOTED -> acceptUnquoted(c);
+            case QUOTED -> {
+                if (c == '"') {
+                    state = State.QUOTE_IN_QUOTED;
+                } else if (c == '\\') {
+                    state = State.ESCAPE_IN_QUOTED;
+                } else {
+                    appendQuoted(c);
+                }
+            }
+            case ESCAPE_IN_QUOTED -> {
+                if (c != '"') {
+                    field.append('\\');
+                }
+                appendQuoted(c);
+                state = State.QUOTED;
+            }
+            case QUOTE_IN_QUOTED -> {
+                if (c == '"') {
+                    field.append('"');
+                    state = State.QUOTED;
+                } else {
+                    // A closing quote followed by more text: keep the text, as spreadsheets do.
+                    state = State.UNQUOTED;
+                    acceptUnquoted(c);
+                }
+            }
+        }
+    }
+
+    private void acceptUnquoted(char c) {
+        switch (c) {
+            case ',' -> endField();
+            case '\n' -> {
+                endRecord();
+                line++;
+            }
+            case '\r' -> {
+                endRecord();
+                line++;
+                pendingCarriageReturn = true;
+            }
+            default -> field.append(c);
+        }
+    }
+
+    private void appendQuoted(char c) {
+        if (c == '\n') {
+            line++;
+        }
+        field.append(c);
+    }
+
+    private void endField() {
+        fields.add(field.toString().trim());
+        field.setLength(0);
+        state = State.FIELD_START;
+    }
+
+    private void endRecord() {
+        if (state == State.QUOTED || state == State.ESCAPE_IN_QUOTED) {
+            // Only reached at end of input: the last quoted field was never closed.
+            errors.accept(new RowError(recordLine, "unterminated quoted field"));
+            reset();
+            return;
+        }
+        if (state != State.FIELD_START || !fields.isEmpty()) {
+            endField();
+        }
+        if (!fields.isEmpty() && !(fields.size() == 1 && fields.get(0).isEmpty())) {
+            if (headerSkipped) {
+                toProduct();
+            } else {
+                headerSkipped = true;
+            }
+        }
+        reset();
+    }
+
+    private void reset() {
+        fields.clear();
+        field.setLength(0);
+        state = State.FIELD_START;
+        recordLine = line + 1;
+    }
+
+    private void toProduct() {
+        if (fields.size() < MIN_COLUMNS) {
+            errors.accept(new RowError(recordLine, "expected at least " + MIN_COLUMNS + " columns but found " + fields.size()));
+            return;
+        }
+        double price;
+        try {
+            price = Double.parseDouble(fields.get(3));
+        } catch (NumberFormatException e) {
+            errors.accept(new RowError(recordLine, "invalid price '" + fields.get(3) + "'"));
+            return;
+        }
+        products.accept(new Product(
+                intern(fields.get(0)),
+                fields.get(1),
+                intern(fields.get(2)),
+                price,
+                intern(fields.get(4)),
+                fields.get(5),
+                fields.size() > 6 ? parseAttributes(fields.get(6)) : Map.of()));
+    }
+
+    private Map<String, String> parseAttributes(String column) {
+        if (column.isEmpty()) {
+            return Map.of();
+        }
+        attributes.clear();
+        int start = 0;
+        while (start < column.length()) {
+            int end = column.indexOf(';', start);
+            if (end < 0) {
+                end = column.length();
+            }
+            int colon = column.indexOf(':', start);
+            if (colon > start && colon < end) {
+                String key = column.substring(start, colon).trim();
+                String value = column.substring(colon + 1, end).trim();
+                if (!key.isEmpty()) {
+                    attributes.put(intern(key), intern(value));
+                }
+            }
+            start = end + 1;
+        }
+        return attributes.isEmpty() ? Map.of() : Map.copyOf(attributes);
+    }
+
+    private String intern(String value) {
+        String pooled = pool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+}
@@ -0,0 +1,74 @@
+package com.computerx.chatbot.gui;
+
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.service.ChatService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs chat requests from the GUI on a small bounded pool so the event dispatch thread never waits
+ * on searches or disk writes. Cancelling a returned future before a worker picks it up skips the
+ * request entirely; once started, the request runs to completion and its result is discarded.
+ * When the queue is full, the returned future fails with a {@link RejectedExecutionException}.
+ */
+@Component
+@ConditionalOnProperty(name = "chatbot.mode", havingValue = "gui", matchIfMissing = true)
+public class AsyncChatClient {
+
+    private final ChatService chatService;
+    private final ThreadPoolExecutor executor;
+
+    public AsyncChatClient(ChatService chatService,
+                           @Value("${chatbot.gui.worker-threads:2}") int workerThreads,
+                           @Value("${chatbot.gui.queue-capacity:32}") int queueCapacity) {
+        this.chatService = chatService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "chat-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public CompletableFuture<ChatResponse> getResponse(String sessionId, String userInput) {
+        return submit(() -> chatService.getResponse(sessionId, userInput));
+    }
+
+    public CompletableFuture<Void> learn(String question, String answer) {
+        return submit(() -> {
+            chatService.learn(question, answer);
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> request) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(request.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,51 +1,114 @@
 package com.computerx.chatbot.gui;
 
+import com.computerx.chatbot.StartupTimings;
 import com.computerx.chatbot.model.BotState;
 import com.computerx.chatbot.model.ChatResponse;
-import com.computerx.chatbot.service.ChatService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.net.URL;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 @Component
+@ConditionalOnProperty(name = "chatbot.mode", havingValue = "gui", matchIfMissing = true)
 public class ChatFrame extends JFrame {
 
-    private final ChatService chatService;
+    private static final String TYPING_TEXT = "Nayana is typing";
+    private static final int AVATAR_SIZE = 200;
+
+    private final AsyncChatClient chatClient;
+    private final StartupTimings startupTimings;
+    private final String sessionId = UUID.randomUUID().toString();
     private JTextArea chatArea;
     private JTextField inputField;
     private JButton submitButton;
     private JLabel avatarLabel;
+    private JLabel typingLabel;
+    private Timer typingAnimation;
+    /** The request whose answer will be shown; only read and written on the event dispatch thread. */
+    private CompletableFuture<ChatResponse> pendingResponse;
 
+    /** The avatars, null until loaded; only read and written on the event dispatch thread. */
     private ImageIcon normalAvatar;
     private ImageIcon annoyedAvatar;
+    private BotState avatarState = BotState.NORMAL;
 
-    public ChatFrame(ChatService chatService) {
-        this.chatService = chatService;
-        loadAvatars();
+    public ChatFrame(AsyncChatClient chatClient, StartupTimings startupTimings) {
+        this.chatClient = chatClient;
+        this.startupTimings = startupTimings;
         initComponents();
+        loadAvatarsInBackground();
     }
 
-    private void loadAvatars() {
-        URL normalUrl = getClass().getClassLoader().getResource("images/nayana-normal.png");
-        URL annoyedUrl = getClass().getClassLoader().getResource("images/nayana-annoyed.png");
+    /**
+     * Decodes and scales the avatars on a background thread, so neither startup nor the event
+     * dispatch thread waits for them; the avatar space stays blank until they are ready.
+     */
+    private void loadAvatarsInBackground() {
+        Thread loader = new Thread(() -> {
+            long start = System.nanoTime();
+            ImageIcon normal = loadAvatar("images/nayana-normal.png");
+            ImageIcon annoyed = loadAvatar("images/nayana-annoyed.png");
+            startupTimings.record("avatars", System.nanoTime() - start);
+            EventQueue.invokeLater(() -> {
+                normalAvatar = normal;
+                annoyedAvatar = annoyed;
+                setAvatar(avatarState);
+            });
+        }, "avatar-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
 
-        if (normalUrl != null) {
-            normalAvatar = new ImageIcon(new ImageIcon(normalUrl).getImage().getScaledInstance(200, 200, Image.SCALE_SMOOTH));
-        } else {
-            System.err.println("Could not find normal avatar image!");
+    private ImageIcon loadAvatar(String resource) {
+        URL url = getClass().getClassLoader().getResource(resource);
+        if (url == null) {
+            System.err.println("Could not find avatar image " + resource + "!");
+            return null;
         }
-
-        if (annoyedUrl != null) {
-            annoyedAvatar = new ImageIcon(new ImageIcon(annoyedUrl).getImage().getScaledInstance(200, 200, Image.SCALE_SMOOTH));
-        } else {
-            System.err.println("Could not find annoyed avatar image!");
+        try {
+            BufferedImage image = ImageIO.read(url);
+            if (image == null) {
+                System.err.println("Could not decode avatar image " + resource + "!");
+                return null;
+            }
+            return new ImageIcon(scale(image, AVATAR_SIZE, AVATAR_SIZE));
+        } catch (IOException e) {
+            System.err.println("Could not read avatar image " + resource + ": " + e);
+            return null;
         }
     }
 
+    /**
+     * Scales by repeated halving with bilinear filtering, which looks as smooth as
+     * {@code SCALE_SMOOTH}'s area averaging at a fraction of its cost.
+     */
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        BufferedImage scaled = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage step = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(scaled, 0, 0, w, h, null);
+            graphics.dispose();
+            scaled = step;
+        } while (w != width || h != height);
+        return scaled;
+    }
+
     private void initComponents() {
         setTitle("Virtual Assistant for Computer X");
         setSize(800, 600);
@@ -63,12 +126,17 @@ public class ChatFrame extends JFrame {
         centerPanel.add(scrollPane, BorderLayout.CENTER);
 
         avatarLabel = new JLabel();
+        avatarLabel.setPreferredSize(new Dimension(AVATAR_SIZE, AVATAR_SIZE));
         setAvatar(BotState.NORMAL);
         centerPanel.add(avatarLabel, BorderLayout.EAST);
 
         add(centerPanel, BorderLayout.CENTER);
 
         JPanel bottomPanel = new JPanel(new BorderLayout(10, 10));
+        typingLabel = new JLabel(" ");
+        typingLabel.setFont(new Font("SansSerif", Font.ITALIC, 12));
+        typingAnimation = new Timer(400, e -> animateTyping());
+        bottomPanel.add(typingLabel, BorderLayout.NORTH);
         inputField = new JTextField();
         inputField.setFont(new Font("SansSerif", Font.PLAIN, 14));
         submitButton = new JButton("Submit");
@@ -95,7 +163,30 @@ public class ChatFrame extends JFrame {
         appendToChat("You", userInput);
         inputField.setText("");
 
-        ChatResponse response = chatService.getResponse(userInput);
+        // A newer message supersedes the one still waiting: skip it if it has not started yet.
+        if (pendingResponse != null) {
+            pendingResponse.cancel(false);
+        }
+        CompletableFuture<ChatResponse> request = chatClient.getResponse(sessionId, userInput);
+        pendingResponse = request;
+        setTyping(true);
+        request.whenComplete((response, error) ->
+                EventQueue.invokeLater(() -> showResponse(request, userInput, response, error)));
+    }
+
+    private void showResponse(CompletableFuture<ChatResponse> request, String userInput, ChatResponse response, Throwable error) {
+        if (request != pendingResponse) {
+            return;
+        }
+        pendingResponse = null;
+        setTyping(false);
+        if (error != null) {
+            if (!(error instanceof CancellationException)) {
+                System.err.println("Chat request failed: " + error);
+                appendToChat("Nayana", "Sorry, I couldn't answer that just now. Please try again.");
+            }
+            return;
+        }
 
         if (response.botState() == BotState.LEARNING) {
             String teachingAnswer = JOptionPane.showInputDialog(
@@ -105,8 +196,10 @@ public class ChatFrame extends JFrame {
                     JOptionPane.QUESTION_MESSAGE
             );
             if (teachingAnswer != null && !teachingAnswer.isBlank()) {
-                chatService.learn(userInput, teachingAnswer);
-                appendToChat("Nayana", "Thank you! I've learned that.");
+                chatClient.learn(userInput, teachingAnswer).whenComplete((ignored, learnError) ->
+                        EventQueue.invokeLater(() -> appendToChat("Nayana", learnError == null
+                                ? "Thank you! I've learned that."
+                                : "Sorry, I couldn't learn that right now.")));
             } else {
                 appendToChat("Nayana", "Okay, I won't learn that for now.");
             }
@@ -122,12 +215,28 @@ public class ChatFrame extends JFrame {
         }
     }
 
+    private void setTyping(boolean typing) {
+        if (typing) {
+            typingLabel.setText(TYPING_TEXT + "...");
+            typingAnimation.restart();
+        } else {
+            typingAnimation.stop();
+            typingLabel.setText(" ");
+        }
+    }
+
+    private void animateTyping() {
+        int dots = (typingLabel.getText().length() - TYPING_TEXT.length()) % 3 + 1;
+        typingLabel.setText(TYPING_TEXT + ".".repeat(dots));
+    }
+
     private void appendToChat(String user, String message) {
         chatArea.append(String.format("%s: %s\n\n", user, message));
         chatArea.setCaretPosition(chatArea.getDocument().getLength());
     }
 
     private void setAvatar(BotState state) {
+        avatarState = state;
         if (state == BotState.ANNOYED && annoyedAvatar != null) {
             avatarLabel.setIcon(annoyedAvatar);
         } else if (normalAvatar != null) {
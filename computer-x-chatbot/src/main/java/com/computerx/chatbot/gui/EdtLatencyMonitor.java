@@ -0,0 +1,77 @@
+package com.computerx.chatbot.gui;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.awt.EventQueue;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how long the Swing event dispatch thread takes to pick up work. A probe is posted to
+ * the event queue every {@code chatbot.gui.edt-probe-interval}; the delay until it runs is recorded
+ * in the {@code chatbot.gui.edt.latency} timer, and delays over {@code chatbot.gui.edt-stall-threshold}
+ * are logged as stalls.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "chatbot.mode", havingValue = "gui", matchIfMissing = true)
+public class EdtLatencyMonitor {
+
+    private final Timer latency;
+    private final Duration probeInterval;
+    private final long stallThresholdNanos;
+    private final AtomicBoolean probePending = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "edt-latency-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EdtLatencyMonitor(MeterRegistry meterRegistry,
+                             @Value("${chatbot.gui.edt-probe-interval:100ms}") Duration probeInterval,
+                             @Value("${chatbot.gui.edt-stall-threshold:250ms}") Duration stallThreshold) {
+        this.latency = Timer.builder("chatbot.gui.edt.latency")
+                .description("Delay between posting an event and the event dispatch thread running it")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.probeInterval = probeInterval;
+        this.stallThresholdNanos = stallThreshold.toNanos();
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMillis = Math.max(1, probeInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::postProbe, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void postProbe() {
+        // Only one probe at a time, so a long stall is recorded once rather than by a queue of probes.
+        if (!probePending.compareAndSet(false, true)) {
+            return;
+        }
+        long posted = System.nanoTime();
+        EventQueue.invokeLater(() -> {
+            long delay = System.nanoTime() - posted;
+            probePending.set(false);
+            latency.record(delay, TimeUnit.NANOSECONDS);
+            if (delay > stallThresholdNanos) {
+                log.warn("Event dispatch thread stalled for {} ms.", delay / 1_000_000);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
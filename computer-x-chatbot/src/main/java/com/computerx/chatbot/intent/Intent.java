@@ -0,0 +1,74 @@
+package com.computerx.chatbot.intent;
+
+import java.util.List;
+
+/**
+ * The intents the bot understands, declared in priority order: when a message triggers several
+ * intents, the one declared first wins. Intents without triggers are lookups that are always
+ * tried at their position in the order and may decline to answer.
+ */
+public enum Intent
+{
+    TIME_GREETING(Trigger.CONTAINS, List.of("morning", "afternoon", "evening", "night")),
+    IDENTITY(Trigger.CONTAINS, List.of("who are you", "what is your name")),
+    GREETING(Trigger.EQUALS, List.of("hi", "hello")),
+    THANKS(Trigger.EQUALS, List.of("thanks", "thank you")),
+    FAREWELL(Trigger.EQUALS, List.of("bye", "exit", "quit")),
+    WELLBEING(Trigger.CONTAINS, List.of("how are you")),
+    CATEGORIES(Trigger.CONTAINS, List.of("categor")),
+    PRODUCT_NAMES(Trigger.CONTAINS, List.of("product names", "item names")),
+    SMALL_TALK(Trigger.LOOKUP, List.of()),
+    LEARNED(Trigger.LOOKUP, List.of()),
+    MORE_RESULTS(Trigger.EQUALS, List.of("show more", "more", "next page", "next")),
+    PAGE(Trigger.STARTS_WITH, List.of("page"), List.of("page")),
+    FILTER(Trigger.LOOKUP, List.of()),
+    LIST_PRODUCTS(Trigger.CONTAINS, List.of("show", "list", "see"),
+            List.of("show me", "list all", "see all", "show", "list", "see")),
+    PRICE(Trigger.STARTS_WITH, List.of("price of", "what is the price of"),
+            List.of("what is the price of", "price of")),
+    STOCK(Trigger.CONTAINS, List.of("in stock", "available"),
+            List.of("is", "are", "in stock", "available")),
+    SEARCH_PRODUCTS(Trigger.CONTAINS, List.of("do you have", "any"),
+            List.of("do you have", "any")),
+    FALLBACK(Trigger.LOOKUP, List.of());
+
+    /**
+     * How a trigger phrase has to occur in the normalized message for the intent to match.
+     */
+    public enum Trigger
+    {
+        CONTAINS,
+        EQUALS,
+        STARTS_WITH,
+        LOOKUP
+    }
+
+    private final Trigger trigger;
+    private final List<String> phrases;
+    private final List<String> keywordPrefixes;
+
+    Intent(Trigger trigger, List<String> phrases) {
+        this(trigger, phrases, List.of());
+    }
+
+    Intent(Trigger trigger, List<String> phrases, List<String> keywordPrefixes) {
+        this.trigger = trigger;
+        this.phrases = phrases;
+        this.keywordPrefixes = keywordPrefixes;
+    }
+
+    public Trigger trigger() {
+        return trigger;
+    }
+
+    public List<String> phrases() {
+        return phrases;
+    }
+
+    /**
+     * Phrases removed from the message, in this order, to leave the product keyword.
+     */
+    public List<String> keywordPrefixes() {
+        return keywordPrefixes;
+    }
+}
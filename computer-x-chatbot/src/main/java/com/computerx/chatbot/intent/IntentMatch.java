@@ -0,0 +1,152 @@
+package com.computerx.chatbot.intent;
+
+import com.computerx.chatbot.text.TokenBuffer;
+
+import java.util.Arrays;
+
+/**
+ * The result of routing one message: its normalized tokens, which intents it triggers and where
+ * each phrase occurred. A match is refilled by every {@link IntentRouter#route(CharSequence, IntentMatch)}
+ * it is passed to, so it must not be shared between threads or kept past the next message.
+ */
+public final class IntentMatch {
+
+    private final IntentRouter router;
+    private final TokenBuffer tokens = new TokenBuffer();
+    private CharSequence message;
+    /** For each intent, the lowest position among its trigger phrases that matched, or -1. */
+    private final int[] triggerPositions;
+    private int[] occurrences = new int[8];
+    private int occurrenceCount;
+    /** Which characters of the normalized text the keyword being extracted leaves out. */
+    private boolean[] removed = new boolean[64];
+    private final StringBuilder keyword = new StringBuilder();
+
+    IntentMatch(IntentRouter router, int intentCount) {
+        this.router = router;
+        this.triggerPositions = new int[intentCount];
+    }
+
+    TokenBuffer reset(CharSequence message) {
+        this.message = message;
+        tokens.normalize(message);
+        Arrays.fill(triggerPositions, -1);
+        occurrenceCount = 0;
+        return tokens;
+    }
+
+    void addOccurrence(int phraseId, int start) {
+        if (occurrenceCount + 2 > occurrences.length) {
+            occurrences = Arrays.copyOf(occurrences, occurrences.length * 2);
+        }
+        occurrences[occurrenceCount++] = phraseId;
+        occurrences[occurrenceCount++] = start;
+    }
+
+    void addTrigger(Intent intent, int position) {
+        int current = triggerPositions[intent.ordinal()];
+        if (current < 0 || position < current) {
+            triggerPositions[intent.ordinal()] = position;
+        }
+    }
+
+    /**
+     * Returns the message as it was routed, before normalization.
+     */
+    public CharSequence message() {
+        return message;
+    }
+
+    /**
+     * Returns the normalized message.
+     */
+    public TokenBuffer tokens() {
+        return tokens;
+    }
+
+    /**
+     * Returns the normalized message as a string.
+     */
+    public String input() {
+        return tokens.toString();
+    }
+
+    /**
+     * Returns whether the intent should be tried for this message: it was triggered, or it is a
+     * lookup. Callers try intents in declaration order and stop at the first one that answers.
+     */
+    public boolean matches(Intent intent) {
+        return intent.trigger() == Intent.Trigger.LOOKUP || triggerPositions[intent.ordinal()] >= 0;
+    }
+
+    /**
+     * Returns the first phrase, in declaration order, that triggered the intent, or null.
+     */
+    public String matchedPhrase(Intent intent) {
+        int position = triggerPositions[intent.ordinal()];
+        return position < 0 ? null : intent.phrases().get(position);
+    }
+
+    /**
+     * Returns the normalized message without the intent's keyword prefixes. Prefixes are removed
+     * only where they are whole tokens, so "is" is removed from "is this in stock" but not from
+     * inside "this". Each prefix removes all of its occurrences that do not overlap text already
+     * removed, in the prefix order declared by the intent.
+     */
+    public String keyword(Intent intent) {
+        int length = tokens.length();
+        if (removed.length < length) {
+            removed = new boolean[Math.max(length, removed.length * 2)];
+        }
+        Arrays.fill(removed, 0, length, false);
+        boolean any = false;
+        for (int prefix : router.prefixPhrases(intent)) {
+            int prefixLength = router.phraseLength(prefix);
+            int lastEnd = 0;
+            for (int i = 0; i < occurrenceCount; i += 2) {
+                int start = occurrences[i + 1];
+                int end = start + prefixLength;
+                if (occurrences[i] != prefix || start < lastEnd || !isTokenStart(start) || !isTokenEnd(end)
+                        || isAnyRemoved(start, end)) {
+                    continue;
+                }
+                Arrays.fill(removed, start, end, true);
+                lastEnd = end;
+                any = true;
+            }
+        }
+        if (!any) {
+            return tokens.toString();
+        }
+        keyword.setLength(0);
+        for (int token = 0; token < tokens.tokenCount(); token++) {
+            int start = tokens.tokenStart(token);
+            if (removed[start]) {
+                continue;
+            }
+            if (!keyword.isEmpty()) {
+                keyword.append(' ');
+            }
+            keyword.append(tokens, start, tokens.tokenEnd(token));
+        }
+        return keyword.toString();
+    }
+
+    // Tokens are separated by single spaces, with none before the first or after the last.
+    private boolean isTokenStart(int position) {
+        return position == 0 || tokens.charAt(position - 1) == ' ';
+    }
+
+    private boolean isTokenEnd(int position) {
+        return position == tokens.length() || tokens.charAt(position) == ' ';
+    }
+
+    private boolean isAnyRemoved(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (removed[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+package com.computerx.chatbot.intent;
+
+import com.computerx.chatbot.text.TokenBuffer;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Routes a message to its intents with a single scan of its normalized form.
+ * <p>
+ * All trigger phrases and keyword prefixes of the {@link Intent} table are compiled at startup
+ * into one {@link PhraseMatcher}. Scanning a message once yields every phrase occurrence, from
+ * which both the matching intents and the keyword of the winning intent are derived.
+ */
+@Component
+public class IntentRouter {
+
+    private static final Intent[] INTENTS = Intent.values();
+
+    private final PhraseMatcher matcher;
+    private final List<String> phrases = new ArrayList<>();
+    /** For each phrase id, the intents it triggers and its position in that intent's trigger list. */
+    private final int[][] triggeredIntents;
+    private final int[][] triggerPositions;
+    /** For each intent, the phrase ids of its keyword prefixes in removal order. */
+    private final int[][] prefixPhrases;
+
+    public IntentRouter() {
+        Map<String, Integer> phraseIds = new HashMap<>();
+        Map<Integer, List<int[]>> triggers = new HashMap<>();
+        prefixPhrases = new int[INTENTS.length][];
+
+        for (Intent intent : INTENTS) {
+            List<String> intentPhrases = intent.phrases();
+            for (int position = 0; position < intentPhrases.size(); position++) {
+                int id = phraseId(phraseIds, intentPhrases.get(position));
+                triggers.computeIfAbsent(id, k -> new ArrayList<>()).add(new int[]{intent.ordinal(), position});
+            }
+            List<String> prefixes = intent.keywordPrefixes();
+            prefixPhrases[intent.ordinal()] = new int[prefixes.size()];
+            for (int i = 0; i < prefixes.size(); i++) {
+                prefixPhrases[intent.ordinal()][i] = phraseId(phraseIds, prefixes.get(i));
+            }
+        }
+
+        triggeredIntents = new int[phrases.size()][];
+        triggerPositions = new int[phrases.size()][];
+        for (int id = 0; id < phrases.size(); id++) {
+            List<int[]> uses = triggers.getOrDefault(id, List.of());
+            triggeredIntents[id] = new int[uses.size()];
+            triggerPositions[id] = new int[uses.size()];
+            for (int i = 0; i < uses.size(); i++) {
+                triggeredIntents[id][i] = uses.get(i)[0];
+                triggerPositions[id][i] = uses.get(i)[1];
+            }
+        }
+        matcher = new PhraseMatcher(phrases);
+    }
+
+    /**
+     * Normalizes and routes a message, returning a new match. Callers answering many messages
+     * reuse one match per conversation with {@link #route(CharSequence, IntentMatch)} instead.
+     */
+    public IntentMatch route(CharSequence message) {
+        return route(message, newMatch());
+    }
+
+    /**
+     * Returns an empty match to pass to {@link #route(CharSequence, IntentMatch)}.
+     */
+    public IntentMatch newMatch() {
+        return new IntentMatch(this, INTENTS.length);
+    }
+
+    /**
+     * Normalizes the message into the match's token buffer and scans it once for the intents it
+     * triggers, replacing what the match held. Allocates nothing once the match has grown to the
+     * length of the messages routed through it.
+     */
+    public IntentMatch route(CharSequence message, IntentMatch match) {
+        TokenBuffer tokens = match.reset(message);
+        int length = tokens.length();
+        int state = PhraseMatcher.START;
+        for (int end = 1; end <= length; end++) {
+            state = matcher.next(state, tokens.charAt(end - 1));
+            for (int phraseId : matcher.outputs(state)) {
+                int start = end - matcher.phraseLength(phraseId);
+                match.addOccurrence(phraseId, start);
+                int[] intents = triggeredIntents[phraseId];
+                for (int i = 0; i < intents.length; i++) {
+                    Intent intent = INTENTS[intents[i]];
+                    boolean matches = switch (intent.trigger()) {
+                        case CONTAINS -> true;
+                        case STARTS_WITH -> start == 0;
+                        case EQUALS -> start == 0 && end == length;
+                        case LOOKUP -> false;
+                    };
+                    if (matches) {
+                        match.addTrigger(intent, triggerPositions[phraseId][i]);
+                    }
+                }
+            }
+        }
+        return match;
+    }
+
+    int phraseLength(int phraseId) {
+        return matcher.phraseLength(phraseId);
+    }
+
+    int[] prefixPhrases(Intent intent) {
+        return prefixPhrases[intent.ordinal()];
+    }
+
+    private int phraseId(Map<String, Integer> phraseIds, String phrase) {
+        return phraseIds.computeIfAbsent(phrase, p -> {
+            phrases.add(p);
+            return phrases.size() - 1;
+        });
+    }
+}
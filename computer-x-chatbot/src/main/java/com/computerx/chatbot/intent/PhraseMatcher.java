@@ -0,0 +1,152 @@
+package com.computerx.chatbot.intent;
+
+import java.util.*;
+
+/**
+ * Aho–Corasick automaton over a fixed set of phrases. The trie and its failure links are
+ * compiled into a dense transition table, so a scan costs one table lookup per input character
+ * no matter how many phrases there are, and every occurrence of every phrase is reported.
+ */
+final class PhraseMatcher {
+
+    static final int START = 0;
+
+    private static final int ASCII = 128;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final int[] asciiClasses = new int[ASCII];
+    private final char[] otherChars;
+    private final int[] otherClasses;
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final int[][] outputs;
+    private final int[] phraseLengths;
+
+    PhraseMatcher(List<String> phrases) {
+        SortedSet<Character> chars = new TreeSet<>();
+        for (String phrase : phrases) {
+            for (int i = 0; i < phrase.length(); i++) {
+                chars.add(phrase.charAt(i));
+            }
+        }
+        // Class 0 stands for every character that does not occur in any phrase.
+        List<Character> others = new ArrayList<>();
+        int nextClass = 1;
+        for (char c : chars) {
+            if (c < ASCII) {
+                asciiClasses[c] = nextClass++;
+            } else {
+                others.add(c);
+            }
+        }
+        otherChars = new char[others.size()];
+        otherClasses = new int[others.size()];
+        for (int i = 0; i < others.size(); i++) {
+            otherChars[i] = others.get(i);
+            otherClasses[i] = nextClass++;
+        }
+        alphabetSize = nextClass;
+
+        phraseLengths = new int[phrases.size()];
+        List<int[]> children = new ArrayList<>();
+        List<List<Integer>> terminal = new ArrayList<>();
+        children.add(newRow());
+        terminal.add(new ArrayList<>());
+        for (int id = 0; id < phrases.size(); id++) {
+            String phrase = phrases.get(id);
+            phraseLengths[id] = phrase.length();
+            int state = 0;
+            for (int i = 0; i < phrase.length(); i++) {
+                int cls = classOf(phrase.charAt(i));
+                if (children.get(state)[cls] < 0) {
+                    children.get(state)[cls] = children.size();
+                    children.add(newRow());
+                    terminal.add(new ArrayList<>());
+                }
+                state = children.get(state)[cls];
+            }
+            terminal.get(state).add(id);
+        }
+
+        int stateCount = children.size();
+        transitions = new int[stateCount * alphabetSize];
+        outputs = new int[stateCount][];
+        int[] failure = new int[stateCount];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        outputs[0] = toArray(terminal.get(0));
+        for (int cls = 0; cls < alphabetSize; cls++) {
+            int child = children.get(0)[cls];
+            if (child < 0) {
+                transitions[cls] = 0;
+            } else {
+                transitions[cls] = child;
+                failure[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            List<Integer> out = new ArrayList<>(terminal.get(state));
+            for (int id : outputs[failure[state]]) {
+                out.add(id);
+            }
+            outputs[state] = toArray(out);
+            for (int cls = 0; cls < alphabetSize; cls++) {
+                int child = children.get(state)[cls];
+                int fallback = transitions[failure[state] * alphabetSize + cls];
+                if (child < 0) {
+                    transitions[state * alphabetSize + cls] = fallback;
+                } else {
+                    transitions[state * alphabetSize + cls] = child;
+                    failure[child] = fallback;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances the automaton by one character. Callers drive the scan themselves with this and
+     * {@link #outputs(int)}, which lists the phrases ending at the new state.
+     */
+    int next(int state, char c) {
+        return transitions[state * alphabetSize + classOf(c)];
+    }
+
+    /**
+     * Returns the ids of the phrases that end in the given state.
+     */
+    int[] outputs(int state) {
+        return outputs[state];
+    }
+
+    int phraseLength(int phraseId) {
+        return phraseLengths[phraseId];
+    }
+
+    private int classOf(char c) {
+        if (c < ASCII) {
+            return asciiClasses[c];
+        }
+        int i = Arrays.binarySearch(otherChars, c);
+        return i >= 0 ? otherClasses[i] : 0;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        if (values.isEmpty()) {
+            return NO_OUTPUT;
+        }
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,14 @@
+package com.computerx.chatbot.learning;
+
+/**
+ * When the learned-response journal forces written batches to stable storage.
+ */
+public enum FsyncPolicy
+{
+    /** After every group-committed batch; nothing acknowledged by the writer is lost on power failure. */
+    ALWAYS,
+    /** At most once per configured interval; a crash loses at most that window. */
+    INTERVAL,
+    /** Never explicitly; the operating system decides when data reaches the disk. */
+    NEVER
+}
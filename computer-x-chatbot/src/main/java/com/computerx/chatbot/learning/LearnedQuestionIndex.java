@@ -0,0 +1,413 @@
+package com.computerx.chatbot.learning;
+
+import com.computerx.chatbot.text.TextTable;
+import com.computerx.chatbot.text.TokenBuffer;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Finds the learned question closest to what a user typed, so rephrasing, punctuation or extra
+ * spaces do not send them back to the learning dialog.
+ * <p>
+ * Questions are split into lowercase words, filler words such as "the" or "please" are dropped
+ * unless nothing else is left, and the rest are compared as TF-IDF vectors by cosine similarity,
+ * with {@code idf = ln((n + 1) / (df + 1)) + 1}. Each word keeps a posting list of the questions
+ * containing it, so adding a question only touches its own words; the idf is derived from the
+ * current counts at query time and is never rebuilt.
+ * <p>
+ * A query only gathers candidates from its rarest words: once the words left could not reach the
+ * threshold on their own (their share of the query vector's length is below it, which bounds the
+ * cosine by Cauchy-Schwarz), their postings are skipped. Common words like "what" or "is" are
+ * therefore never scanned when a question has anything more specific in it.
+ */
+public final class LearnedQuestionIndex {
+
+    private static final int[] NO_IDS = new int[0];
+    /** Words that say little about what is being asked; ignored unless a question has nothing else. */
+    private static final TextTable<Boolean> FILLER_WORDS = new TextTable<>();
+
+    static {
+        for (String word : List.of("a", "an", "the", "is", "are", "am", "was", "be", "do", "does", "did", "can",
+                "could", "would", "will", "i", "me", "my", "you", "your", "we", "us", "our", "it", "its", "s", "to",
+                "of", "for", "on", "in", "at", "and", "or", "what", "whats", "please", "tell")) {
+            FILLER_WORDS.put(word, Boolean.TRUE);
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** The learned question each id stands for, as given to {@link #add}. */
+    private final List<String> questions = new ArrayList<>();
+    /** The words of each question that are compared, joined by spaces. */
+    private final List<String> normalizedQuestions = new ArrayList<>();
+    private final List<int[]> questionWords = new ArrayList<>();
+    private final List<int[]> questionCounts = new ArrayList<>();
+    private final Map<String, Integer> idsByNormalized = new HashMap<>();
+    private final TextTable<Integer> wordIds = new TextTable<>();
+    private final List<Posting> postings = new ArrayList<>();
+    /** {@code ln(df + 1)} per word, updated as its posting list grows. */
+    private double[] logDocumentFrequency = new double[16];
+
+    /**
+     * Indexes a learned question. Adding a question that normalizes to one already indexed
+     * makes it stand for that entry from now on.
+     */
+    public void add(String question) {
+        List<String> words = tokenize(question);
+        String normalized = String.join(" ", words);
+        lock.writeLock().lock();
+        try {
+            Integer existing = idsByNormalized.get(normalized);
+            if (existing != null) {
+                questions.set(existing, question);
+                return;
+            }
+            int id = questions.size();
+            Map<String, Integer> counts = countWords(words);
+            int[] wordIdsOfQuestion = new int[counts.size()];
+            int[] countsOfQuestion = new int[counts.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> count : counts.entrySet()) {
+                Integer wordId = wordIds.get(count.getKey());
+                if (wordId == null) {
+                    postings.add(new Posting());
+                    wordId = postings.size() - 1;
+                    wordIds.put(count.getKey(), wordId);
+                }
+                Posting posting = postings.get(wordId);
+                posting.add(id);
+                if (wordId == logDocumentFrequency.length) {
+                    logDocumentFrequency = Arrays.copyOf(logDocumentFrequency, wordId * 2);
+                }
+                logDocumentFrequency[wordId] = Math.log(posting.size + 1);
+                wordIdsOfQuestion[i] = wordId;
+                countsOfQuestion[i++] = count.getValue();
+            }
+            questions.add(question);
+            normalizedQuestions.add(normalized);
+            questionWords.add(wordIdsOfQuestion);
+            questionCounts.add(countsOfQuestion);
+            idsByNormalized.put(normalized, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the learned question most similar to {@code text} with a cosine similarity of at
+     * least {@code threshold}, earlier learned questions winning ties, or null if there is none.
+     */
+    public String closest(String text, double threshold) {
+        return closest(new TokenBuffer().normalize(text), threshold);
+    }
+
+    /**
+     * Like {@link #closest(String, double)} for an already normalized message. Its words are
+     * looked up where they are in the buffer, so a query allocates no strings, and arrays the
+     * size of its word count only if some of its words occur in learned questions.
+     */
+    public String closest(TokenBuffer text, double threshold) {
+        int wordCount = 0;
+        int meaningfulCount = 0;
+        for (int start = wordStart(text, 0), end; start < text.length(); start = wordStart(text, end)) {
+            end = wordEnd(text, start);
+            wordCount++;
+            if (FILLER_WORDS.get(text, start, end) == null) {
+                meaningfulCount++;
+            }
+        }
+        if (wordCount == 0) {
+            return null;
+        }
+        boolean skipFiller = meaningfulCount > 0;
+        lock.readLock().lock();
+        try {
+            double logQuestionCount = Math.log(questions.size() + 1);
+            int[] queryWords = NO_IDS;
+            int[] queryCounts = NO_IDS;
+            int seenCount = 0;
+            // The length of the compared words joined by spaces, as the normalized questions are.
+            int comparedLength = -1;
+            boolean anyUnseen = false;
+            for (int start = wordStart(text, 0), end; start < text.length(); start = wordStart(text, end)) {
+                end = wordEnd(text, start);
+                if (skipFiller && FILLER_WORDS.get(text, start, end) != null) {
+                    continue;
+                }
+                comparedLength += end - start + 1;
+                Integer wordId = wordIds.get(text, start, end);
+                if (wordId == null) {
+                    anyUnseen = true;
+                    continue;
+                }
+                if (queryWords == NO_IDS) {
+                    queryWords = new int[skipFiller ? meaningfulCount : wordCount];
+                    queryCounts = new int[queryWords.length];
+                }
+                int seen = indexOf(queryWords, seenCount, wordId);
+                if (seen < 0) {
+                    queryWords[seenCount] = wordId;
+                    queryCounts[seenCount++] = 1;
+                } else {
+                    queryCounts[seen]++;
+                }
+            }
+            if (seenCount == 0) {
+                return null;
+            }
+            // Words the index has never seen have no postings, but still lengthen the query.
+            double unseenWeightSquared = anyUnseen ? unseenWeightSquared(text, skipFiller, logQuestionCount) : 0;
+            sortByPostingSize(queryWords, queryCounts, seenCount);
+
+            double[] queryWeights = new double[seenCount];
+            double seenWeightSquared = 0;
+            for (int i = 0; i < seenCount; i++) {
+                queryWeights[i] = queryCounts[i] * idf(queryWords[i], logQuestionCount);
+                seenWeightSquared += queryWeights[i] * queryWeights[i];
+            }
+            double queryNorm = Math.sqrt(seenWeightSquared + unseenWeightSquared);
+
+            int candidateCount = 0;
+            int scanned = 0;
+            double remainingWeightSquared = seenWeightSquared;
+            while (scanned < seenCount && Math.sqrt(remainingWeightSquared) >= threshold * queryNorm) {
+                candidateCount += postings.get(queryWords[scanned]).size;
+                remainingWeightSquared -= queryWeights[scanned] * queryWeights[scanned];
+                scanned++;
+            }
+            if (candidateCount == 0) {
+                return null;
+            }
+            int[] candidates = new int[candidateCount];
+            int filled = 0;
+            for (int i = 0; i < scanned; i++) {
+                Posting posting = postings.get(queryWords[i]);
+                System.arraycopy(posting.ids, 0, candidates, filled, posting.size);
+                filled += posting.size;
+            }
+            Arrays.sort(candidates);
+
+            int best = -1;
+            double bestSimilarity = threshold;
+            for (int i = 0; i < candidateCount; i++) {
+                if (i > 0 && candidates[i] == candidates[i - 1]) {
+                    continue;
+                }
+                String normalized = normalizedQuestions.get(candidates[i]);
+                if (!anyUnseen && normalized.length() == comparedLength && wordsEqual(normalized, text, skipFiller)) {
+                    return questions.get(candidates[i]);
+                }
+                double similarity = cosine(candidates[i], queryWords, queryWeights, queryNorm, logQuestionCount);
+                // Candidates are visited in ascending id order, so an equal score never displaces an earlier question.
+                if (similarity > bestSimilarity || best < 0 && similarity == bestSimilarity) {
+                    best = candidates[i];
+                    bestSimilarity = similarity;
+                }
+            }
+            return best < 0 ? null : questions.get(best);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return questions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double cosine(int id, int[] queryWords, double[] queryWeights, double queryNorm, double logQuestionCount) {
+        int[] words = questionWords.get(id);
+        int[] counts = questionCounts.get(id);
+        double dot = 0;
+        double weightSquared = 0;
+        for (int i = 0; i < words.length; i++) {
+            double weight = counts[i] * idf(words[i], logQuestionCount);
+            weightSquared += weight * weight;
+            for (int j = 0; j < queryWeights.length; j++) {
+                if (queryWords[j] == words[i]) {
+                    dot += weight * queryWeights[j];
+                    break;
+                }
+            }
+        }
+        return weightSquared == 0 ? 0 : dot / (queryNorm * Math.sqrt(weightSquared));
+    }
+
+    private double idf(int wordId, double logQuestionCount) {
+        return logQuestionCount - logDocumentFrequency[wordId] + 1;
+    }
+
+    /**
+     * Orders the query's words by ascending posting size, then id, so the rarest are scanned first.
+     */
+    private void sortByPostingSize(int[] words, int[] counts, int size) {
+        for (int i = 1; i < size; i++) {
+            int word = words[i];
+            int count = counts[i];
+            int j = i - 1;
+            while (j >= 0 && compareRarity(words[j], word) > 0) {
+                words[j + 1] = words[j];
+                counts[j + 1] = counts[j];
+                j--;
+            }
+            words[j + 1] = word;
+            counts[j + 1] = count;
+        }
+    }
+
+    private int compareRarity(int word, int other) {
+        int bySize = Integer.compare(postings.get(word).size, postings.get(other).size);
+        return bySize != 0 ? bySize : Integer.compare(word, other);
+    }
+
+    /**
+     * Returns whether the compared words of {@code text} are those of the normalized question, in order.
+     */
+    private static boolean wordsEqual(String normalized, CharSequence text, boolean skipFiller) {
+        int position = 0;
+        for (int start = wordStart(text, 0), end; start < text.length(); start = wordStart(text, end)) {
+            end = wordEnd(text, start);
+            if (skipFiller && FILLER_WORDS.get(text, start, end) != null) {
+                continue;
+            }
+            if (position > 0) {
+                if (position >= normalized.length() || normalized.charAt(position) != ' ') {
+                    return false;
+                }
+                position++;
+            }
+            int length = end - start;
+            if (position + length > normalized.length() || !regionEquals(normalized, position, text, start, length)) {
+                return false;
+            }
+            position += length;
+        }
+        return position == normalized.length();
+    }
+
+    /**
+     * Returns the squared length the compared words the index has never seen add to the query vector.
+     */
+    private double unseenWeightSquared(CharSequence text, boolean skipFiller, double logQuestionCount) {
+        double weightSquared = 0;
+        for (int start = wordStart(text, 0), end; start < text.length(); start = wordStart(text, end)) {
+            end = wordEnd(text, start);
+            if (skipFiller && FILLER_WORDS.get(text, start, end) != null || wordIds.get(text, start, end) != null
+                    || occursBefore(text, start, end, skipFiller)) {
+                continue;
+            }
+            double weight = occurrencesFrom(text, start, end) * (logQuestionCount + 1);
+            weightSquared += weight * weight;
+        }
+        return weightSquared;
+    }
+
+    /**
+     * Returns whether the word at {@code [start, end)} also occurs earlier among the compared words.
+     */
+    private static boolean occursBefore(CharSequence text, int start, int end, boolean skipFiller) {
+        for (int other = wordStart(text, 0), otherEnd; other < start; other = wordStart(text, otherEnd)) {
+            otherEnd = wordEnd(text, other);
+            if (otherEnd - other == end - start && regionEquals(text, other, text, start, end - start)
+                    && !(skipFiller && FILLER_WORDS.get(text, other, otherEnd) != null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the occurrences of the word at {@code [start, end)} from there to the end of the text.
+     */
+    private static int occurrencesFrom(CharSequence text, int start, int end) {
+        int count = 0;
+        for (int other = start, otherEnd; other < text.length(); other = wordStart(text, otherEnd)) {
+            otherEnd = wordEnd(text, other);
+            if (otherEnd - other == end - start && regionEquals(text, other, text, start, end - start)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean regionEquals(CharSequence a, int aStart, CharSequence b, int bStart, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a.charAt(aStart + i) != b.charAt(bStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int wordStart(CharSequence text, int from) {
+        while (from < text.length() && !isWordChar(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int wordEnd(CharSequence text, int from) {
+        while (from < text.length() && isWordChar(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    // Words are split out of normalized text, which has no uppercase letters.
+    private static boolean isWordChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c >= 128 && Character.isLetterOrDigit(c);
+    }
+
+    private static Map<String, Integer> countWords(List<String> words) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String word : words) {
+            counts.merge(word, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Normalizes text as messages are and splits it into runs of letters and digits, leaving out
+     * filler words.
+     */
+    static List<String> tokenize(String text) {
+        TokenBuffer normalized = new TokenBuffer().normalize(text);
+        List<String> words = new ArrayList<>();
+        for (int start = wordStart(normalized, 0), end; start < normalized.length(); start = wordStart(normalized, end)) {
+            end = wordEnd(normalized, start);
+            words.add(normalized.subSequence(start, end));
+        }
+        List<String> meaningful = words.stream().filter(word -> FILLER_WORDS.get(word) == null).toList();
+        return meaningful.isEmpty() ? words : meaningful;
+    }
+
+    /**
+     * Ids of the questions containing a word, in the order they were learned.
+     */
+    private static final class Posting {
+
+        private int[] ids = NO_IDS;
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+            }
+            ids[size++] = id;
+        }
+    }
+}
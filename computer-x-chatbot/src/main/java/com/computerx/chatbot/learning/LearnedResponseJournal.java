@@ -0,0 +1,519 @@
+package com.computerx.chatbot.learning;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of learned question/answer pairs.
+ * <p>
+ * {@link #append} only enqueues the pair, so teaching never waits for the disk. A background
+ * writer drains the queue and writes each batch with a single channel write (group commit),
+ * then forces it to disk according to the {@link FsyncPolicy}. When more than
+ * {@code compaction-threshold} of the records are overwritten answers, the writer rewrites the
+ * journal with only the latest answer per question and atomically replaces the old file.
+ * <p>
+ * The file starts with a magic number and version. Each record is
+ * {@code [int payload length][int CRC32C of payload][payload]}, with the payload holding the
+ * UTF-8 question and answer, each prefixed by its byte length. On {@link #open} the journal is
+ * replayed up to the first incomplete or corrupt record, which is where a crash tore the last
+ * write, and the file is truncated there. A batch whose write fails is cut off the file the same
+ * way before anything else is appended, so later records are never stranded behind torn bytes.
+ */
+@Component
+@Slf4j
+public class LearnedResponseJournal {
+
+    static final int MAGIC = 0x43584C4A; // "CXLJ"
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 8;
+    static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    private static final Entry SHUTDOWN = new Entry("", "");
+
+    private record Entry(String question, String answer) {}
+
+    private final Path path;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final int maxBatch;
+    private final long compactionIntervalNanos;
+    private final double compactionThreshold;
+    private final Timer writeLatency;
+    private final Counter lostEntries;
+
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    /** Latest answer per question as written to the journal; only touched by the writer after open. */
+    private final Map<String, String> live = new LinkedHashMap<>();
+    private long recordCount;
+    /** Length the file must be cut back to before the next append, after a failed write; -1 if none. */
+    private long tornAt = -1;
+    private volatile Thread writer;
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    @Autowired
+    public LearnedResponseJournal(@Value("${chatbot.learned.journal.path:data/learned.journal}") Path path,
+                                  @Value("${chatbot.learned.journal.fsync:interval}") FsyncPolicy fsyncPolicy,
+                                  @Value("${chatbot.learned.journal.fsync-interval:1s}") Duration fsyncInterval,
+                                  @Value("${chatbot.learned.journal.max-batch:512}") int maxBatch,
+                                  @Value("${chatbot.learned.journal.compaction-interval:10m}") Duration compactionInterval,
+                                  @Value("${chatbot.learned.journal.compaction-threshold:0.5}") double compactionThreshold,
+                                  MeterRegistry meterRegistry) {
+        this.path = path;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.maxBatch = maxBatch;
+        this.compactionIntervalNanos = compactionInterval.toNanos();
+        this.compactionThreshold = compactionThreshold;
+        this.writeLatency = Timer.builder("chatbot.learned.journal.write")
+                .description("Time to write a batch of learned responses, including forcing it to disk when due")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.lostEntries = Counter.builder("chatbot.learned.journal.failures")
+                .description("Learned responses that could not be written to the journal")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.learned.journal.queued", queue, BlockingQueue::size)
+                .description("Learned responses waiting for the journal writer")
+                .register(meterRegistry);
+    }
+
+    private LearnedResponseJournal(LearnedResponseJournal settings, Path path) {
+        this.path = path;
+        this.fsyncPolicy = settings.fsyncPolicy;
+        this.fsyncIntervalNanos = settings.fsyncIntervalNanos;
+        this.maxBatch = settings.maxBatch;
+        this.compactionIntervalNanos = settings.compactionIntervalNanos;
+        this.compactionThreshold = settings.compactionThreshold;
+        this.writeLatency = settings.writeLatency;
+        this.lostEntries = settings.lostEntries;
+    }
+
+    /**
+     * Returns a journal at {@code path}, not yet open, with the fsync, batching and compaction
+     * settings of this one, such as for a tenant's answers. Its writes and failures are recorded
+     * in this journal's meters; only this journal's queue is in the queued gauge.
+     */
+    public LearnedResponseJournal withPath(Path path) {
+        return new LearnedResponseJournal(this, path);
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public boolean isOpen() {
+        return writer != null;
+    }
+
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    /**
+     * Replays the journal, truncating a torn last record, and starts the background writer.
+     * The file itself is only created when the first pair is written.
+     * @return The latest answer for every question in the journal, in first-learned order.
+     */
+    public synchronized Map<String, String> open() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("Journal already open: " + path);
+        }
+        Files.deleteIfExists(compactionPath());
+        if (Files.exists(path)) {
+            recover();
+        }
+        writer = new Thread(this::runWriter, "learned-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        return new LinkedHashMap<>(live);
+    }
+
+    /**
+     * Queues a pair for writing and returns immediately.
+     * @throws IllegalArgumentException If the pair does not {@linkplain #fits fit} in one record.
+     */
+    public void append(String question, String answer) {
+        if (!isOpen()) {
+            throw new IllegalStateException("Journal not open: " + path);
+        }
+        if (!fits(question, answer)) {
+            throw new IllegalArgumentException("Learned response too large for " + path + ": over "
+                    + MAX_RECORD_BYTES + " bytes");
+        }
+        queue.add(new Entry(question, answer));
+    }
+
+    /**
+     * Whether the pair fits in one record. Recovery takes a longer record for corruption and cuts
+     * the journal off before it, so larger pairs must never be written.
+     */
+    public static boolean fits(String question, String answer) {
+        return 4L + utf8Length(question) + 4L + utf8Length(answer) <= MAX_RECORD_BYTES;
+    }
+
+    private static long utf8Length(String text) {
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes everything queued so far, forces it to disk and stops the writer.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        queue.add(SHUTDOWN);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    private void recover() throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+            if (size < FILE_HEADER_BYTES || readFully(in, header, 0) < FILE_HEADER_BYTES
+                    || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a learned-response journal (bad header): " + path);
+            }
+            long position = FILE_HEADER_BYTES;
+            CRC32C crc = new CRC32C();
+            while (position < size) {
+                header.clear();
+                if (readFully(in, header, position) < RECORD_HEADER_BYTES) {
+                    break;
+                }
+                int length = header.getInt(0);
+                int checksum = header.getInt(4);
+                if (length < 8 || length > MAX_RECORD_BYTES || position + RECORD_HEADER_BYTES + length > size) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(in, payload, position + RECORD_HEADER_BYTES);
+                crc.reset();
+                crc.update(payload.array(), 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                Entry entry = decode(payload);
+                if (entry == null) {
+                    break;
+                }
+                live.put(entry.question(), entry.answer());
+                recordCount++;
+                position += RECORD_HEADER_BYTES + length;
+            }
+            if (position < size) {
+                log.warn("Truncating torn or corrupt tail of {} at byte {} ({} bytes dropped).", path, position, size - position);
+                in.truncate(position);
+                in.force(true);
+            }
+        }
+        log.info("Recovered {} learned responses from {} records in {}", live.size(), recordCount, path.toAbsolutePath());
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(maxBatch);
+        long lastForce = System.nanoTime();
+        long lastCompactionCheck = System.nanoTime();
+        boolean dirty = false;
+        boolean running = true;
+        while (running) {
+            try {
+                Entry first = queue.poll(pollTimeoutNanos(), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                }
+                if (batch.removeIf(entry -> entry == SHUTDOWN)) {
+                    running = false;
+                    queue.drainTo(batch);
+                    batch.removeIf(entry -> entry == SHUTDOWN);
+                }
+                long writeStart = System.nanoTime();
+                boolean wrote = !batch.isEmpty();
+                if (wrote) {
+                    write(batch);
+                    batch.clear();
+                    dirty = true;
+                }
+                long now = System.nanoTime();
+                if (dirty && channel != null && (!running || fsyncPolicy == FsyncPolicy.ALWAYS
+                        || (fsyncPolicy == FsyncPolicy.INTERVAL && now - lastForce >= fsyncIntervalNanos))) {
+                    channel.force(false);
+                    lastForce = now;
+                    dirty = false;
+                }
+                if (wrote) {
+                    writeLatency.record(System.nanoTime() - writeStart, TimeUnit.NANOSECONDS);
+                }
+                if (running && now - lastCompactionCheck >= compactionIntervalNanos) {
+                    lastCompactionCheck = now;
+                    if (shouldCompact()) {
+                        compact();
+                        dirty = false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to write {} learned responses to {}.", batch.size(), path.toAbsolutePath(), e);
+                lostEntries.increment(batch.size());
+                batch.clear();
+                if (dirty) {
+                    forceWritten();
+                    dirty = false;
+                }
+                closeChannel();
+            }
+        }
+        closeChannel();
+    }
+
+    private long pollTimeoutNanos() {
+        long timeout = compactionIntervalNanos;
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            timeout = Math.min(timeout, fsyncIntervalNanos);
+        }
+        return Math.max(timeout, TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    private void write(List<Entry> batch) throws IOException {
+        FileChannel out = channel();
+        long end = out.size();
+        buffer.clear();
+        for (Entry entry : batch) {
+            encode(entry);
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        } catch (IOException | RuntimeException e) {
+            discardTail(end);
+            throw e;
+        }
+        for (Entry entry : batch) {
+            live.put(entry.question(), entry.answer());
+        }
+        recordCount += batch.size();
+    }
+
+    /**
+     * Forces the batches written before a failure to disk, reopening the file if the failure
+     * closed the channel, so they are not left unforced until the next append.
+     */
+    private void forceWritten() {
+        try {
+            if (channel != null) {
+                channel.force(false);
+            } else if (Files.exists(path)) {
+                try (FileChannel out = openChannel(path, StandardOpenOption.WRITE)) {
+                    out.force(false);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to force the learned responses written to {} to disk.", path.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Cuts off whatever part of a failed batch reached the file. If that fails too, the file is
+     * cut when the channel is next opened, and nothing is appended until it is.
+     */
+    private void discardTail(long end) {
+        closeChannel();
+        tornAt = end;
+        try (FileChannel out = openChannel(path, StandardOpenOption.WRITE)) {
+            truncateTorn(out);
+        } catch (IOException e) {
+            log.error("Failed to cut the torn tail off {} at byte {}. Retrying before the next write.", path, end, e);
+        }
+    }
+
+    private void truncateTorn(FileChannel out) throws IOException {
+        if (tornAt >= 0) {
+            if (out.size() > tornAt) {
+                out.truncate(tornAt);
+                out.force(true);
+            }
+            tornAt = -1;
+        }
+    }
+
+    private boolean shouldCompact() {
+        long garbage = recordCount - live.size();
+        return garbage > 0 && garbage >= compactionThreshold * recordCount;
+    }
+
+    private void compact() throws IOException {
+        long before = recordCount;
+        Path temporary = compactionPath();
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.clear();
+            buffer.putInt(MAGIC).putInt(VERSION);
+            for (Map.Entry<String, String> entry : live.entrySet()) {
+                encode(new Entry(entry.getKey(), entry.getValue()));
+                if (buffer.position() > buffer.capacity() / 2) {
+                    flushTo(out);
+                }
+            }
+            flushTo(out);
+            out.force(true);
+        }
+        closeChannel();
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        recordCount = live.size();
+        log.info("Compacted {} from {} to {} records.", path, before, recordCount);
+    }
+
+    private void flushTo(FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void encode(Entry entry) {
+        byte[] question = entry.question().getBytes(StandardCharsets.UTF_8);
+        byte[] answer = entry.answer().getBytes(StandardCharsets.UTF_8);
+        int length = 4 + question.length + 4 + answer.length;
+        ensureCapacity(RECORD_HEADER_BYTES + length);
+        int start = buffer.position();
+        buffer.putInt(length).putInt(0)
+                .putInt(question.length).put(question)
+                .putInt(answer.length).put(answer);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), start + RECORD_HEADER_BYTES, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    private static Entry decode(ByteBuffer payload) {
+        payload.flip();
+        int questionLength = payload.getInt();
+        if (questionLength < 0 || questionLength > payload.remaining() - 4) {
+            return null;
+        }
+        String question = new String(payload.array(), payload.position(), questionLength, StandardCharsets.UTF_8);
+        payload.position(payload.position() + questionLength);
+        int answerLength = payload.getInt();
+        if (answerLength != payload.remaining()) {
+            return null;
+        }
+        String answer = new String(payload.array(), payload.position(), answerLength, StandardCharsets.UTF_8);
+        return new Entry(question, answer);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            FileChannel out = openChannel(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            try {
+                truncateTorn(out);
+                if (out.size() == 0) {
+                    tornAt = 0;
+                    ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+                    while (header.hasRemaining()) {
+                        out.write(header);
+                    }
+                    tornAt = -1;
+                }
+            } catch (IOException | RuntimeException e) {
+                out.close();
+                throw e;
+            }
+            channel = out;
+        }
+        return channel;
+    }
+
+    /**
+     * Opens the channel appends go through. Tests override it to inject write failures.
+     */
+    FileChannel openChannel(Path path, OpenOption... options) throws IOException {
+        return FileChannel.open(path, options);
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close {}: {}", path, e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private Path compactionPath() {
+        return path.resolveSibling(path.getFileName() + ".compact");
+    }
+
+    private static int readFully(FileChannel in, ByteBuffer target, long position) throws IOException {
+        int total = 0;
+        while (target.hasRemaining()) {
+            int read = in.read(target, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+}
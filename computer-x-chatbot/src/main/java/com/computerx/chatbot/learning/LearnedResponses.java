@@ -0,0 +1,88 @@
+package com.computerx.chatbot.learning;
+
+import com.computerx.chatbot.text.TextTable;
+import com.computerx.chatbot.text.TokenBuffer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * The answers taught to one knowledge base: the latest answer per question, an index of the
+ * questions for finding the one closest to a question that was not taught word for word, and
+ * the journal they are kept in.
+ */
+public final class LearnedResponses {
+
+    private final LearnedResponseJournal journal;
+    /**
+     * The latest answer per normalized question. Every message is looked up here, so lookups go by
+     * the span of the normalized message without creating a string; the rare writes replace the
+     * table with a changed copy instead of locking readers out.
+     */
+    private volatile TextTable<String> answers = new TextTable<>();
+    private final LearnedQuestionIndex questions = new LearnedQuestionIndex();
+
+    public LearnedResponses(LearnedResponseJournal journal) {
+        this.journal = journal;
+    }
+
+    public LearnedResponseJournal journal() {
+        return journal;
+    }
+
+    /**
+     * Replays the journal into memory and starts its writer.
+     */
+    public void open() throws IOException {
+        Map<String, String> recovered = journal.open();
+        synchronized (this) {
+            TextTable<String> changed = answers.copy();
+            recovered.forEach(changed::put);
+            answers = changed;
+        }
+        recovered.keySet().forEach(questions::add);
+    }
+
+    /**
+     * Remembers an answer and queues it for the journal; never waits for the disk.
+     * @return Whether the journal took the answer; if it is not open, the answer is kept in memory only.
+     * @throws IllegalArgumentException If the pair is too large for the journal; nothing is remembered.
+     */
+    public boolean put(String question, String answer) {
+        if (!LearnedResponseJournal.fits(question, answer)) {
+            throw new IllegalArgumentException("Learned response too large: over "
+                    + LearnedResponseJournal.MAX_RECORD_BYTES + " bytes");
+        }
+        synchronized (this) {
+            TextTable<String> changed = answers.copy();
+            changed.put(question, answer);
+            answers = changed;
+        }
+        questions.add(question);
+        if (!journal.isOpen()) {
+            return false;
+        }
+        journal.append(question, answer);
+        return true;
+    }
+
+    /**
+     * Returns the answer taught for exactly this normalized question, or null.
+     */
+    public String exact(TokenBuffer normalizedInput) {
+        return answers.get(normalizedInput);
+    }
+
+    /**
+     * Returns the answer of the learned question most similar to the normalized input with a
+     * cosine similarity of at least {@code threshold}, or null.
+     */
+    public String similar(TokenBuffer normalizedInput, double threshold) {
+        String question = questions.closest(normalizedInput, threshold);
+        return question == null ? null : answers.get(question);
+    }
+
+    public int size() {
+        return answers.size();
+    }
+}
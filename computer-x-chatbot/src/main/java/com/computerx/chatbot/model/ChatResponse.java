@@ -1,15 +1,23 @@
-package com.computerx.chatbot.model;
-
-/**
- * Represents a response from the chatbot.
- * @param message The text content of the response.
- * @param endConversation If true, the application should close.
- * @param botState The emotional state of the bot for this response.
- * @param isPersonalizable If true, the user's name can be appended to this message.
- */
-public record ChatResponse(
-        String message,
-        boolean endConversation,
-        BotState botState,
-        boolean isPersonalizable
-) {}
\ No newline at end of file
+package com.computerx.chatbot.model;
+
+/**
+ * Represents a response from the chatbot.
+ * @param message The text content of the response.
+ * @param endConversation If true, the application should close.
+ * @param botState The emotional state of the bot for this response.
+ * @param isPersonalizable If true, the user's name can be appended to this message.
+ * @param page The product listing shown by this response, or null. Its text is already part of
+ *             {@code message}; front ends that render results one by one can use it instead.
+ */
+public record ChatResponse(
+        String message,
+        boolean endConversation,
+        BotState botState,
+        boolean isPersonalizable,
+        ProductPage page
+) {
+
+    public ChatResponse(String message, boolean endConversation, BotState botState, boolean isPersonalizable) {
+        this(message, endConversation, botState, isPersonalizable, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.computerx.chatbot.model;
+
+import java.util.List;
+
+/**
+ * One page of a product listing.
+ * @param heading The line introducing the results, ending with a line break.
+ * @param items The rendered product cards on this page, in catalog order.
+ * @param page The 1-based number of this page.
+ * @param pageCount How many pages the listing has.
+ * @param totalResults How many products the listing has across all pages.
+ * @param footer How to reach the other pages, or empty when there is only one.
+ */
+public record ProductPage(
+        String heading,
+        List<String> items,
+        int page,
+        int pageCount,
+        int totalResults,
+        String footer
+) {
+
+    public static final String ITEM_SEPARATOR = "\n---\n";
+
+    public boolean hasNext() {
+        return page < pageCount;
+    }
+
+    /**
+     * Renders the page as a single chat message.
+     */
+    public String toText() {
+        String text = heading + String.join(ITEM_SEPARATOR, items);
+        return footer.isEmpty() ? text : text + "\n\n" + footer;
+    }
+}
@@ -0,0 +1,219 @@
+package com.computerx.chatbot.search;
+
+import com.computerx.chatbot.model.Product;
+
+import java.util.*;
+
+/**
+ * Per-facet indexes for {@link ProductFilter} queries: product ids sorted by price for range
+ * lookups, and an id set per category, brand, stock status and attribute value. A filter is
+ * answered by OR-ing the sets of the values within each facet and AND-ing the facets together,
+ * without looking at individual products.
+ */
+public final class FacetIndex {
+
+    private final int size;
+    private final double[] sortedPrices;
+    private final int[] idsByPrice;
+    private final Map<String, IdSet> categories;
+    private final Map<String, IdSet> brands;
+    private final Map<String, IdSet> attributeValues;
+    private final IdSet inStock;
+
+    private FacetIndex(int size, double[] sortedPrices, int[] idsByPrice, Map<String, IdSet> categories,
+                       Map<String, IdSet> brands, Map<String, IdSet> attributeValues, IdSet inStock) {
+        this.size = size;
+        this.sortedPrices = sortedPrices;
+        this.idsByPrice = idsByPrice;
+        this.categories = categories;
+        this.brands = brands;
+        this.attributeValues = attributeValues;
+        this.inStock = inStock;
+    }
+
+    public static FacetIndex build(List<Product> products) {
+        int size = products.size();
+        Map<String, IntArrayBuilder> categoryBuilders = new HashMap<>();
+        Map<String, IntArrayBuilder> brandBuilders = new HashMap<>();
+        Map<String, IntArrayBuilder> attributeBuilders = new HashMap<>();
+        IntArrayBuilder inStockBuilder = new IntArrayBuilder();
+        double[] prices = new double[size];
+        for (int id = 0; id < size; id++) {
+            Product product = products.get(id);
+            prices[id] = product.price();
+            categoryBuilders.computeIfAbsent(product.category().toLowerCase(Locale.ROOT), k -> new IntArrayBuilder()).add(id);
+            brandBuilders.computeIfAbsent(normalize(product.brand()), k -> new IntArrayBuilder()).add(id);
+            for (String value : product.attributes().values()) {
+                attributeBuilders.computeIfAbsent(normalize(value), k -> new IntArrayBuilder()).addIfNotLast(id);
+            }
+            if (product.stock().equalsIgnoreCase("in stock")) {
+                inStockBuilder.add(id);
+            }
+        }
+
+        // Sorts (price rank, id) pairs packed into longs rather than boxed ids with a comparator,
+        // which took most of the build time; equal prices stay in catalog order.
+        double[] sortedPrices = prices.clone();
+        Arrays.sort(sortedPrices);
+        long[] byPrice = new long[size];
+        for (int id = 0; id < size; id++) {
+            byPrice[id] = (long) firstIndexOf(sortedPrices, prices[id]) << 32 | id;
+        }
+        Arrays.sort(byPrice);
+        int[] idsByPrice = new int[size];
+        for (int i = 0; i < size; i++) {
+            idsByPrice[i] = (int) byPrice[i];
+        }
+        return new FacetIndex(size, sortedPrices, idsByPrice, freeze(categoryBuilders, size),
+                freeze(brandBuilders, size), freeze(attributeBuilders, size), IdSet.of(inStockBuilder.toArray(), size));
+    }
+
+    /**
+     * Reduces a brand or attribute value to its lowercase letters and digits, so "G.Skill" and
+     * "g skill" or {@code 24"} and "24" compare equal.
+     */
+    public static String normalize(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    boolean hasCategory(String category) {
+        return categories.containsKey(category);
+    }
+
+    boolean hasBrand(String normalizedBrand) {
+        return brands.containsKey(normalizedBrand);
+    }
+
+    boolean hasAttributeValue(String normalizedValue) {
+        return attributeValues.containsKey(normalizedValue);
+    }
+
+    /**
+     * Returns the ids, in catalog order, of the products satisfying every constraint of the filter.
+     */
+    public int[] filter(ProductFilter filter) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        if (filter.hasPriceRange()) {
+            result.and(priceRange(filter.minPrice(), filter.maxPrice()));
+        }
+        if (!filter.categories().isEmpty()) {
+            result.and(anyOf(categories, filter.categories()));
+        }
+        if (!filter.brands().isEmpty()) {
+            result.and(anyOf(brands, filter.brands()));
+        }
+        for (String value : filter.attributeValues()) {
+            result.and(anyOf(attributeValues, Set.of(value)));
+        }
+        if (filter.inStock() != null) {
+            BitSet stocked = new BitSet(size);
+            inStock.orInto(stocked);
+            if (filter.inStock()) {
+                result.and(stocked);
+            } else {
+                result.andNot(stocked);
+            }
+        }
+        return result.stream().toArray();
+    }
+
+    private BitSet priceRange(double min, double max) {
+        BitSet bits = new BitSet(size);
+        for (int i = lowerBound(min); i < size && sortedPrices[i] <= max; i++) {
+            bits.set(idsByPrice[i]);
+        }
+        return bits;
+    }
+
+    private int lowerBound(double price) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] < price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code price} in {@code sorted}, ordered as by {@link Arrays#sort(double[])}.
+     */
+    private static int firstIndexOf(double[] sorted, double price) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(sorted[mid], price) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private BitSet anyOf(Map<String, IdSet> facet, Set<String> values) {
+        BitSet bits = new BitSet(size);
+        for (String value : values) {
+            IdSet ids = facet.get(value);
+            if (ids != null) {
+                ids.orInto(bits);
+            }
+        }
+        return bits;
+    }
+
+    private static Map<String, IdSet> freeze(Map<String, IntArrayBuilder> builders, int size) {
+        Map<String, IdSet> frozen = new HashMap<>(builders.size() * 4 / 3 + 1);
+        builders.forEach((value, builder) -> frozen.put(value, IdSet.of(builder.toArray(), size)));
+        return frozen;
+    }
+
+    /**
+     * The products having one facet value: a bitmap when the value is common, or the sorted ids
+     * when a bitmap over the whole catalog would be larger than the ids themselves.
+     */
+    private static final class IdSet {
+
+        private final BitSet bits;
+        private final int[] ids;
+
+        private IdSet(BitSet bits, int[] ids) {
+            this.bits = bits;
+            this.ids = ids;
+        }
+
+        static IdSet of(int[] ids, int universe) {
+            if ((long) ids.length * Integer.SIZE < universe) {
+                return new IdSet(null, ids);
+            }
+            BitSet bits = new BitSet(universe);
+            for (int id : ids) {
+                bits.set(id);
+            }
+            return new IdSet(bits, null);
+        }
+
+        void orInto(BitSet target) {
+            if (bits != null) {
+                target.or(bits);
+            } else {
+                for (int id : ids) {
+                    target.set(id);
+                }
+            }
+        }
+    }
+}
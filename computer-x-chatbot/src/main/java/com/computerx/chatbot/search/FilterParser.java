@@ -0,0 +1,165 @@
+package com.computerx.chatbot.search;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads product filters out of a normalized chat message, e.g. "gpus under $800 with 16gb vram in
+ * stock". Price bounds and stock status are recognized by phrase; categories, brands and
+ * attribute values by looking up the message's words and runs of up to three words in the
+ * catalog's {@link FacetIndex}, so only values the catalog actually has are picked up.
+ * <p>
+ * A bound is only read as a price when its amount has a "$" or the message talks about prices
+ * ("price", "cost", "budget", ...), and never when a unit follows the amount, so "waiting for
+ * over 20 minutes" and "i &lt;3 you" are not price filters.
+ */
+public final class FilterParser {
+
+    private static final String UNIT = "(?:seconds?|secs?|minutes?|mins?|hours?|hrs?|days?|weeks?|months?|years?"
+            + "|times|people|items|products|percent|%|gb|tb|mb|ghz|mhz|hz|watts?|fps|inch(?:es)?|cores?|threads)";
+    private static final String AMOUNT = "\\$?(\\d+(?:\\.\\d+)?)(k?)(?![a-z\\d])(?!\\s*" + UNIT + "(?![a-z]))";
+    private static final Pattern BETWEEN = Pattern.compile(
+            "\\b(?:between|from)\\s+" + AMOUNT + "\\s+(?:and|to)\\s+" + AMOUNT);
+    private static final Pattern RANGE = Pattern.compile("\\$(\\d+(?:\\.\\d+)?)(k?)\\s*-\\s*" + AMOUNT);
+    private static final Pattern AT_MOST = Pattern.compile(
+            "(?:\\b(under|below|less than|cheaper than|up to|at most|max|maximum)\\s+|(<=?)\\s*)" + AMOUNT);
+    private static final Pattern AT_LEAST = Pattern.compile(
+            "(?:\\b(over|above|more than|at least|min|minimum)\\s+|(>=?)\\s*)" + AMOUNT);
+    private static final Pattern PRICE_CONTEXT = Pattern.compile(
+            "\\b(?:prices?|priced|costs?|costing|budget|dollars?|bucks|usd|cheap|cheaper|cheapest|expensive)\\b");
+    private static final Set<String> EXCLUSIVE_BOUNDS = Set.of("under", "below", "less than", "cheaper than", "<",
+            "over", "above", "more than", ">");
+    private static final Pattern OUT_OF_STOCK = Pattern.compile("\\b(?:out of stock|sold out|unavailable)\\b");
+    private static final Pattern IN_STOCK = Pattern.compile("\\b(?:in stock|available)\\b");
+    private static final int MAX_PHRASE_WORDS = 3;
+
+    private FilterParser() {
+    }
+
+    public static ProductFilter parse(String message, FacetIndex facets) {
+        StringBuilder rest = new StringBuilder(message.toLowerCase(Locale.ROOT));
+        double minPrice = Double.NEGATIVE_INFINITY;
+        double maxPrice = Double.POSITIVE_INFINITY;
+
+        boolean aboutPrices = PRICE_CONTEXT.matcher(rest).find();
+        Matcher between = findPrice(BETWEEN, rest, aboutPrices);
+        Matcher range = between == null ? find(RANGE, rest) : null;
+        Matcher twoSided = between != null ? between : range;
+        if (twoSided != null) {
+            double low = amount(twoSided.group(1), twoSided.group(2));
+            double high = amount(twoSided.group(3), twoSided.group(4));
+            minPrice = Math.min(low, high);
+            maxPrice = Math.max(low, high);
+            blank(rest, twoSided);
+        } else {
+            Matcher atMost = findPrice(AT_MOST, rest, aboutPrices);
+            if (atMost != null) {
+                maxPrice = amount(atMost.group(3), atMost.group(4));
+                if (isExclusive(atMost)) {
+                    maxPrice = Math.nextDown(maxPrice);
+                }
+                blank(rest, atMost);
+            }
+            Matcher atLeast = findPrice(AT_LEAST, rest, aboutPrices);
+            if (atLeast != null) {
+                minPrice = amount(atLeast.group(3), atLeast.group(4));
+                if (isExclusive(atLeast)) {
+                    minPrice = Math.nextUp(minPrice);
+                }
+                blank(rest, atLeast);
+            }
+        }
+
+        Boolean inStock = null;
+        Matcher outOfStock = find(OUT_OF_STOCK, rest);
+        if (outOfStock != null) {
+            inStock = false;
+            blank(rest, outOfStock);
+        } else {
+            Matcher stocked = find(IN_STOCK, rest);
+            if (stocked != null) {
+                inStock = true;
+                blank(rest, stocked);
+            }
+        }
+
+        Set<String> categories = new LinkedHashSet<>();
+        Set<String> brands = new LinkedHashSet<>();
+        Set<String> attributeValues = new LinkedHashSet<>();
+        List<String> words = new ArrayList<>();
+        FuzzyIndex.tokenize(rest.toString(), words);
+        for (int start = 0; start < words.size(); start++) {
+            String category = category(words.get(start), facets);
+            if (category != null) {
+                categories.add(category);
+            }
+            StringBuilder phrase = new StringBuilder();
+            for (int end = start; end < Math.min(words.size(), start + MAX_PHRASE_WORDS); end++) {
+                phrase.append(words.get(end));
+                String value = phrase.toString();
+                if (facets.hasBrand(value)) {
+                    brands.add(value);
+                }
+                if (facets.hasAttributeValue(value)) {
+                    attributeValues.add(value);
+                }
+            }
+        }
+        return new ProductFilter(Set.copyOf(categories), Set.copyOf(brands), Set.copyOf(attributeValues),
+                inStock, minPrice, maxPrice);
+    }
+
+    /**
+     * Returns the catalog category a word names, accepting simple plurals ("gpus", "casings").
+     */
+    private static String category(String word, FacetIndex facets) {
+        if (facets.hasCategory(word)) {
+            return word;
+        }
+        if (word.endsWith("es") && facets.hasCategory(word.substring(0, word.length() - 2))) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("s") && facets.hasCategory(word.substring(0, word.length() - 1))) {
+            return word.substring(0, word.length() - 1);
+        }
+        return null;
+    }
+
+    private static Matcher find(Pattern pattern, CharSequence text) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher : null;
+    }
+
+    /**
+     * Finds the first bound that is a price: its amount has a "$", or the message is about prices.
+     */
+    private static Matcher findPrice(Pattern pattern, CharSequence text, boolean aboutPrices) {
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            if (aboutPrices || matcher.group().indexOf('$') >= 0) {
+                return matcher;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isExclusive(Matcher bound) {
+        String phrase = bound.group(1) != null ? bound.group(1) : bound.group(2);
+        return EXCLUSIVE_BOUNDS.contains(phrase);
+    }
+
+    private static double amount(String number, String thousands) {
+        double value = Double.parseDouble(number);
+        return thousands.isEmpty() ? value : value * 1000;
+    }
+
+    /**
+     * Blanks out a recognized phrase so its words are not read again as facet values.
+     */
+    private static void blank(StringBuilder text, Matcher matcher) {
+        for (int i = matcher.start(); i < matcher.end(); i++) {
+            text.setCharAt(i, ' ');
+        }
+    }
+}
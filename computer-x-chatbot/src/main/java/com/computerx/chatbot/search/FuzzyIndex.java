@@ -0,0 +1,304 @@
+package com.computerx.chatbot.search;
+
+import com.computerx.chatbot.model.Product;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Typo-tolerant lookup over product names, brands and attribute values.
+ * <p>
+ * Each of those fields is split into alphanumeric tokens, and every run of one to three adjacent
+ * tokens is stored as a term with its spaces and punctuation removed, so "RTX 4090" yields
+ * {@code rtx}, {@code 4090} and {@code rtx4090}. Terms are indexed by their character trigrams,
+ * partitioned by term length so a query only reads the postings of lengths it could match.
+ * A query is compacted the same way; terms sharing enough trigrams with it to be within the
+ * allowed edit distance are verified with a bounded Levenshtein check. Only the products with a
+ * term at the smallest distance found are kept, those whose term is closest in length first.
+ * If the whole query matches nothing, each of its words is matched on its own and products are
+ * ranked by how many words they match.
+ * <p>
+ * Every query runs against a deadline: once it passes, the products ranked so far are returned.
+ */
+public final class FuzzyIndex {
+
+    static final int GRAM = 3;
+    static final int MAX_TERM_TOKENS = 3;
+    private static final int DEADLINE_CHECK_MASK = 0x3F;
+    private static final int[] NO_IDS = new int[0];
+
+    private final String[] terms;
+    private final int[][] termProducts;
+    private final Map<String, int[]> grams;
+
+    private FuzzyIndex(String[] terms, int[][] termProducts, Map<String, int[]> grams) {
+        this.terms = terms;
+        this.termProducts = termProducts;
+        this.grams = grams;
+    }
+
+    public static FuzzyIndex build(List<Product> products) {
+        Map<String, Integer> termIds = new HashMap<>();
+        List<IntArrayBuilder> termProductBuilders = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+
+        for (int id = 0; id < products.size(); id++) {
+            Product product = products.get(id);
+            addTerms(product.name(), id, tokens, termIds, termProductBuilders);
+            addTerms(product.brand(), id, tokens, termIds, termProductBuilders);
+            for (String value : product.attributes().values()) {
+                addTerms(value, id, tokens, termIds, termProductBuilders);
+            }
+        }
+
+        String[] terms = new String[termIds.size()];
+        termIds.forEach((term, termId) -> terms[termId] = term);
+        int[][] termProducts = new int[terms.length][];
+        Map<String, IntArrayBuilder> gramBuilders = new HashMap<>();
+        for (int termId = 0; termId < terms.length; termId++) {
+            termProducts[termId] = termProductBuilders.get(termId).toArray();
+            String term = terms[termId];
+            for (int i = 0; i + GRAM <= term.length(); i++) {
+                gramBuilders.computeIfAbsent(gramKey(term.substring(i, i + GRAM), term.length()), k -> new IntArrayBuilder())
+                        .addIfNotLast(termId);
+            }
+        }
+        Map<String, int[]> grams = new HashMap<>(gramBuilders.size() * 4 / 3 + 1);
+        gramBuilders.forEach((gram, builder) -> grams.put(gram, builder.toArray()));
+        return new FuzzyIndex(terms, termProducts, grams);
+    }
+
+    /**
+     * Writes the terms, their products and the trigram postings, which {@link #readFrom} reads back.
+     */
+    public void writeTo(IndexOutput out) throws IOException {
+        out.writeInt(terms.length);
+        for (int termId = 0; termId < terms.length; termId++) {
+            out.writeString(terms[termId]);
+            out.writeInts(termProducts[termId]);
+        }
+        out.writePostings(grams);
+    }
+
+    public static FuzzyIndex readFrom(IndexInput in) throws IOException {
+        int termCount = in.readLength(2 * Integer.BYTES);
+        String[] terms = new String[termCount];
+        int[][] termProducts = new int[termCount][];
+        for (int termId = 0; termId < termCount; termId++) {
+            terms[termId] = in.readString();
+            termProducts[termId] = in.readInts();
+        }
+        return new FuzzyIndex(terms, termProducts, in.readPostings());
+    }
+
+    private static void addTerms(String field, int productId, List<String> tokens,
+                                 Map<String, Integer> termIds, List<IntArrayBuilder> termProductBuilders) {
+        tokenize(field, tokens);
+        for (int start = 0; start < tokens.size(); start++) {
+            StringBuilder term = new StringBuilder();
+            for (int end = start; end < Math.min(tokens.size(), start + MAX_TERM_TOKENS); end++) {
+                term.append(tokens.get(end));
+                if (term.length() < GRAM) {
+                    continue;
+                }
+                int termId = termIds.computeIfAbsent(term.toString(), k -> {
+                    termProductBuilders.add(new IntArrayBuilder(1));
+                    return termProductBuilders.size() - 1;
+                });
+                termProductBuilders.get(termId).addIfNotLast(productId);
+            }
+        }
+    }
+
+    /**
+     * Splits text into lowercase runs of letters and digits.
+     */
+    static void tokenize(String text, List<String> tokens) {
+        tokens.clear();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Edits tolerated for a compacted query of the given length: none for very short queries,
+     * one for up to six characters, two beyond that.
+     */
+    static int maxEdits(int length) {
+        return length <= 3 ? 0 : length <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Returns the ids of up to {@code limit} products similar to the keyword, best match first,
+     * giving up on further candidates once {@code budgetNanos} has elapsed.
+     */
+    public int[] search(String keyword, int limit, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        List<String> words = new ArrayList<>();
+        tokenize(keyword, words);
+        if (words.isEmpty() || limit <= 0) {
+            return NO_IDS;
+        }
+
+        Set<Integer> ranked = new LinkedHashSet<>();
+        for (int termId : closestTerms(String.join("", words), deadline)) {
+            for (int productId : termProducts[termId]) {
+                ranked.add(productId);
+                if (ranked.size() == limit) {
+                    return ranked.stream().mapToInt(Integer::intValue).toArray();
+                }
+            }
+        }
+        if (!ranked.isEmpty() || words.size() == 1) {
+            return ranked.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        IntArrayBuilder wordHits = new IntArrayBuilder();
+        for (String word : words) {
+            if (System.nanoTime() - deadline > 0) {
+                break;
+            }
+            IntArrayBuilder products = new IntArrayBuilder();
+            for (int termId : closestTerms(word, deadline)) {
+                for (int productId : termProducts[termId]) {
+                    products.add(productId);
+                }
+            }
+            int[] distinct = products.toArray();
+            Arrays.sort(distinct);
+            for (int i = 0; i < distinct.length; i++) {
+                if (i == 0 || distinct[i] != distinct[i - 1]) {
+                    wordHits.add(distinct[i]);
+                }
+            }
+        }
+        return mostFrequent(wordHits.toArray(), limit);
+    }
+
+    /**
+     * Returns the terms at the smallest edit distance from {@code query} found within the allowed
+     * edits, those closest in length first, so an exact term match is never diluted by near misses.
+     */
+    private int[] closestTerms(String query, long deadline) {
+        if (query.length() < GRAM) {
+            return NO_IDS;
+        }
+        int maxEdits = maxEdits(query.length());
+        // q-gram lemma: each edit destroys at most GRAM of the query's trigrams.
+        int required = Math.max(1, query.length() - GRAM + 1 - GRAM * maxEdits);
+
+        IntArrayBuilder occurrences = new IntArrayBuilder();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i + GRAM <= query.length() && System.nanoTime() - deadline <= 0; i++) {
+            String gram = query.substring(i, i + GRAM);
+            if (!seen.add(gram)) {
+                continue;
+            }
+            for (int length = query.length() - maxEdits; length <= query.length() + maxEdits; length++) {
+                int[] posting = grams.get(gramKey(gram, length));
+                if (posting != null) {
+                    for (int termId : posting) {
+                        occurrences.add(termId);
+                    }
+                }
+            }
+        }
+        int[] candidates = occurrences.toArray();
+        Arrays.sort(candidates);
+
+        IntArrayBuilder closest = new IntArrayBuilder();
+        int closestDistance = maxEdits + 1;
+        int verified = 0;
+        for (int runStart = 0, runEnd; runStart < candidates.length; runStart = runEnd) {
+            runEnd = runStart + 1;
+            while (runEnd < candidates.length && candidates[runEnd] == candidates[runStart]) {
+                runEnd++;
+            }
+            if (runEnd - runStart < required) {
+                continue;
+            }
+            if ((++verified & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() - deadline > 0) {
+                break;
+            }
+            int distance = boundedDistance(query, terms[candidates[runStart]], Math.min(maxEdits, closestDistance));
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closest = new IntArrayBuilder();
+            }
+            if (distance == closestDistance && distance <= maxEdits) {
+                closest.add(candidates[runStart]);
+            }
+        }
+        return Arrays.stream(closest.toArray()).boxed()
+                .sorted(Comparator.comparingInt((Integer termId) -> Math.abs(terms[termId].length() - query.length()))
+                        .thenComparingInt(termId -> termId))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Returns up to {@code limit} distinct ids, the most frequent first and ties in ascending order.
+     */
+    private static int[] mostFrequent(int[] ids, int limit) {
+        Arrays.sort(ids);
+        List<int[]> counted = new ArrayList<>();
+        for (int runStart = 0, runEnd; runStart < ids.length; runStart = runEnd) {
+            runEnd = runStart + 1;
+            while (runEnd < ids.length && ids[runEnd] == ids[runStart]) {
+                runEnd++;
+            }
+            counted.add(new int[]{ids[runStart], runEnd - runStart});
+        }
+        return counted.stream()
+                .sorted(Comparator.comparingInt((int[] entry) -> -entry[1]).thenComparingInt(entry -> entry[0]))
+                .limit(limit)
+                .mapToInt(entry -> entry[0])
+                .toArray();
+    }
+
+    private static String gramKey(String gram, int termLength) {
+        return gram + (char) termLength;
+    }
+
+    /**
+     * Returns the Levenshtein distance between the strings, or {@code max + 1} once it is
+     * known to exceed {@code max}.
+     */
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+}
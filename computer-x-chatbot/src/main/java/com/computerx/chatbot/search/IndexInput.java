@@ -0,0 +1,94 @@
+package com.computerx.chatbot.search;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads what {@link IndexOutput} wrote from a buffer, typically a memory-mapped snapshot file.
+ * Lengths are checked against the bytes left, so a truncated or corrupt file fails with an
+ * {@link IOException} instead of a huge allocation.
+ */
+public final class IndexInput {
+
+    private static final int BULK_THRESHOLD = 16;
+
+    private final ByteBuffer buffer;
+
+    public IndexInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public int readInt() throws IOException {
+        try {
+            return buffer.getInt();
+        } catch (BufferUnderflowException e) {
+            throw truncated();
+        }
+    }
+
+    public long readLong() throws IOException {
+        try {
+            return buffer.getLong();
+        } catch (BufferUnderflowException e) {
+            throw truncated();
+        }
+    }
+
+    public double readDouble() throws IOException {
+        try {
+            return buffer.getDouble();
+        } catch (BufferUnderflowException e) {
+            throw truncated();
+        }
+    }
+
+    public String readString() throws IOException {
+        int length = readLength(1);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int[] readInts() throws IOException {
+        int length = readLength(Integer.BYTES);
+        int[] values = new int[length];
+        if (length < BULK_THRESHOLD) {
+            for (int i = 0; i < length; i++) {
+                values[i] = buffer.getInt();
+            }
+        } else {
+            buffer.asIntBuffer().get(values);
+            buffer.position(buffer.position() + length * Integer.BYTES);
+        }
+        return values;
+    }
+
+    public Map<String, int[]> readPostings() throws IOException {
+        int size = readLength(2 * Integer.BYTES);
+        Map<String, int[]> postings = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            postings.put(readString(), readInts());
+        }
+        return postings;
+    }
+
+    /**
+     * Reads a count of elements taking at least {@code minBytes} each, failing if they cannot all fit.
+     */
+    public int readLength(int minBytes) throws IOException {
+        int length = readInt();
+        if (length < 0 || length > buffer.remaining() / minBytes) {
+            throw new IOException("Corrupt snapshot: length " + length + " at offset " + (buffer.position() - Integer.BYTES)
+                    + " exceeds the " + buffer.remaining() + " bytes left");
+        }
+        return length;
+    }
+
+    private IOException truncated() {
+        return new IOException("Corrupt snapshot: truncated at offset " + buffer.position());
+    }
+}
@@ -0,0 +1,97 @@
+package com.computerx.chatbot.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Buffered writer of the binary catalog snapshot. Values are big-endian; strings are written as
+ * their UTF-8 length and bytes, and {@code int[]} posting lists as their length and values, copied
+ * in bulk. {@link IndexInput} reads the same layout back.
+ */
+public final class IndexOutput {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    /** Shorter arrays are copied value by value rather than through an {@code IntBuffer} view. */
+    private static final int BULK_THRESHOLD = 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    public IndexOutput(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public void writeInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    public void writeLong(long value) throws IOException {
+        ensureRemaining(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    public void writeDouble(double value) throws IOException {
+        ensureRemaining(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    public void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        for (int offset = 0; offset < bytes.length; ) {
+            ensureRemaining(1);
+            int count = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, count);
+            offset += count;
+        }
+    }
+
+    public void writeInts(int[] values) throws IOException {
+        writeInt(values.length);
+        if (values.length < BULK_THRESHOLD) {
+            for (int value : values) {
+                writeInt(value);
+            }
+            return;
+        }
+        for (int offset = 0; offset < values.length; ) {
+            ensureRemaining(Integer.BYTES);
+            int count = Math.min(buffer.remaining() / Integer.BYTES, values.length - offset);
+            buffer.asIntBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+        }
+    }
+
+    /**
+     * Writes a map of posting lists, e.g. n-gram to ids, as its size followed by key and list pairs.
+     */
+    public void writePostings(Map<String, int[]> postings) throws IOException {
+        writeInt(postings.size());
+        for (Map.Entry<String, int[]> posting : postings.entrySet()) {
+            writeString(posting.getKey());
+            writeInts(posting.getValue());
+        }
+    }
+
+    /**
+     * Writes out everything buffered. The channel is left open.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
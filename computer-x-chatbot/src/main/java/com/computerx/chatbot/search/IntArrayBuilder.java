@@ -0,0 +1,45 @@
+package com.computerx.chatbot.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable {@code int[]} used while building posting lists, so ids are not boxed.
+ */
+final class IntArrayBuilder {
+
+    private int[] values;
+    private int size;
+
+    IntArrayBuilder() {
+        this(4);
+    }
+
+    IntArrayBuilder(int initialCapacity) {
+        this.values = new int[Math.max(1, initialCapacity)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Appends the value unless it equals the last one added. Ids are visited in ascending
+     * order during index builds, so this keeps posting lists sorted and duplicate-free.
+     */
+    void addIfNotLast(int value) {
+        if (size == 0 || values[size - 1] != value) {
+            add(value);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
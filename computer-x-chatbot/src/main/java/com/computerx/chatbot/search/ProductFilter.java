@@ -0,0 +1,67 @@
+package com.computerx.chatbot.search;
+
+import com.computerx.chatbot.model.Product;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Structured constraints on products, as parsed from a message by {@link FilterParser}. Values
+ * within one facet are alternatives; different facets must all hold.
+ * @param categories Lowercase categories, any of which matches; empty for no constraint.
+ * @param brands Brands in {@link FacetIndex#normalize normalized} form, any of which matches.
+ * @param attributeValues Normalized attribute values, all of which the product must have.
+ * @param inStock Whether the product must be in stock or out of stock; null for either.
+ * @param minPrice Lowest accepted price, inclusive.
+ * @param maxPrice Highest accepted price, inclusive.
+ */
+public record ProductFilter(
+        Set<String> categories,
+        Set<String> brands,
+        Set<String> attributeValues,
+        Boolean inStock,
+        double minPrice,
+        double maxPrice
+) {
+
+    public boolean hasPriceRange() {
+        return minPrice > Double.NEGATIVE_INFINITY || maxPrice < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns whether the filter says more than a keyword search would: it bounds the price, or it
+     * names a category together with a brand, stock status or attribute value. "show me gpus" alone
+     * is left to the keyword search, while "gpus under $800" or "gpus in stock" are filters.
+     */
+    public boolean isStructured() {
+        boolean refinesCategory = !brands.isEmpty() || !attributeValues.isEmpty() || inStock != null;
+        return hasPriceRange() || (!categories.isEmpty() && refinesCategory);
+    }
+
+    /**
+     * Returns whether the product satisfies every constraint, as {@link FacetIndex#filter} decides
+     * for the products it indexes. Used for products whose values differ from the indexed ones.
+     */
+    public boolean matches(Product product) {
+        if (product.price() < minPrice || product.price() > maxPrice) {
+            return false;
+        }
+        if (!categories.isEmpty() && !categories.contains(product.category().toLowerCase(Locale.ROOT))) {
+            return false;
+        }
+        if (!brands.isEmpty() && !brands.contains(FacetIndex.normalize(product.brand()))) {
+            return false;
+        }
+        if (!attributeValues.isEmpty()) {
+            Set<String> values = new HashSet<>();
+            for (String value : product.attributes().values()) {
+                values.add(FacetIndex.normalize(value));
+            }
+            if (!values.containsAll(attributeValues)) {
+                return false;
+            }
+        }
+        return inStock == null || inStock == product.stock().equalsIgnoreCase("in stock");
+    }
+}
@@ -0,0 +1,311 @@
+package com.computerx.chatbot.search;
+
+import com.computerx.chatbot.model.Product;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Inverted index over the searchable text of every product.
+ * <p>
+ * Each product's category, name, brand, description and attribute values are lowercased once
+ * and joined with a separator that can never appear in a query. Every 1, 2 and 3 character
+ * n-gram of that text maps to a sorted posting list of product ids (positions in the catalog
+ * list). A keyword of up to three characters is answered by a single posting list; longer
+ * keywords intersect the postings of their trigrams and only the surviving candidates are
+ * verified with {@code contains}. Results are identical to the linear substring scan.
+ */
+public final class ProductIndex {
+
+    static final int MAX_GRAM = 3;
+    static final char SEPARATOR = '\u0000';
+
+    /*
+     * Relevance weights per field. Each is larger than all lower ones combined, so a name match
+     * always outranks any mix of brand, attribute, category and description matches.
+     */
+    static final int EXACT_NAME_WEIGHT = 32;
+    static final int NAME_WEIGHT = 16;
+    static final int BRAND_WEIGHT = 8;
+    static final int ATTRIBUTE_WEIGHT = 4;
+    static final int CATEGORY_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int CATEGORY_FIELD = 0;
+    private static final int NAME_FIELD = 1;
+    private static final int BRAND_FIELD = 2;
+    private static final int DESCRIPTION_FIELD = 3;
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final int size;
+    private final List<Product> products;
+    /** The searchable text of every product, or null to derive it from {@code products} when needed. */
+    private final String[] texts;
+    private final Map<String, int[]> grams;
+    private final Map<String, int[]> categories;
+
+    private ProductIndex(int size, List<Product> products, String[] texts, Map<String, int[]> grams,
+                         Map<String, int[]> categories) {
+        this.size = size;
+        this.products = products;
+        this.texts = texts;
+        this.grams = grams;
+        this.categories = categories;
+    }
+
+    public static ProductIndex build(List<Product> products) {
+        return build(products, true);
+    }
+
+    /**
+     * Builds the index. With {@code retainTexts} false, the searchable texts are not kept but
+     * recomputed from {@code products} for the few candidates each query verifies, trading query
+     * time for memory when the list itself is compact.
+     */
+    public static ProductIndex build(List<Product> products, boolean retainTexts) {
+        int size = products.size();
+        String[] texts = retainTexts ? new String[size] : null;
+        Map<String, IntArrayBuilder> gramBuilders = new HashMap<>();
+        Map<String, IntArrayBuilder> categoryBuilders = new HashMap<>();
+
+        for (int id = 0; id < size; id++) {
+            Product product = products.get(id);
+            String text = searchableText(product);
+            if (texts != null) {
+                texts[id] = text;
+            }
+            addGrams(gramBuilders, text, id);
+            categoryBuilders.computeIfAbsent(product.category().toLowerCase(Locale.ROOT), k -> new IntArrayBuilder())
+                    .add(id);
+        }
+        return new ProductIndex(size, products, texts, freeze(gramBuilders), freeze(categoryBuilders));
+    }
+
+    /**
+     * Writes the posting lists, which {@link #readFrom} turns back into an index over the same products.
+     */
+    public void writeTo(IndexOutput out) throws IOException {
+        out.writeInt(size);
+        out.writePostings(grams);
+        out.writePostings(categories);
+    }
+
+    /**
+     * Reads an index written by {@link #writeTo} for {@code products}; the searchable texts, if
+     * retained, are recomputed from the products rather than stored.
+     */
+    public static ProductIndex readFrom(IndexInput in, List<Product> products, boolean retainTexts) throws IOException {
+        int size = in.readInt();
+        if (size != products.size()) {
+            throw new IOException("Keyword index covers " + size + " products but the catalog has " + products.size());
+        }
+        Map<String, int[]> grams = in.readPostings();
+        Map<String, int[]> categories = in.readPostings();
+        String[] texts = null;
+        if (retainTexts) {
+            texts = new String[size];
+            for (int id = 0; id < size; id++) {
+                texts[id] = searchableText(products.get(id));
+            }
+        }
+        return new ProductIndex(size, products, texts, grams, categories);
+    }
+
+    /**
+     * Returns the lowercased text a product is searched by, with one field per separator-delimited segment.
+     */
+    public static String searchableText(Product product) {
+        StringBuilder sb = new StringBuilder(128)
+                .append(product.category()).append(SEPARATOR)
+                .append(product.name()).append(SEPARATOR)
+                .append(product.brand()).append(SEPARATOR)
+                .append(product.description());
+        for (String value : product.attributes().values()) {
+            sb.append(SEPARATOR).append(value);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private String text(int id) {
+        return texts != null ? texts[id] : searchableText(products.get(id));
+    }
+
+    /**
+     * Returns the ids, in catalog order, of products whose searchable text contains the keyword
+     * or whose category is contained in the keyword.
+     */
+    public int[] search(String keyword) {
+        String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
+        if (lowerKeyword.isEmpty()) {
+            return allIds();
+        }
+
+        BitSet matches = new BitSet(size);
+        if (lowerKeyword.indexOf(SEPARATOR) < 0) {
+            for (int id : textMatches(lowerKeyword)) {
+                matches.set(id);
+            }
+        }
+        for (Map.Entry<String, int[]> category : categories.entrySet()) {
+            if (lowerKeyword.contains(category.getKey())) {
+                for (int id : category.getValue()) {
+                    matches.set(id);
+                }
+            }
+        }
+        return matches.stream().toArray();
+    }
+
+    /**
+     * Returns up to {@code limit} of the given ids ordered by relevance to the keyword, most relevant
+     * first and ties in catalog order. A product scores the weight of every field containing the
+     * keyword (attributes count once), plus a bonus when its name is exactly the keyword; a
+     * category contained in the keyword counts as a category match.
+     */
+    public int[] rank(int[] ids, String keyword, int limit) {
+        String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
+        TopK top = new TopK(Math.min(ids.length, limit));
+        for (int id : ids) {
+            top.offer(score(text(id), lowerKeyword), id);
+        }
+        return top.idsByScore();
+    }
+
+    /**
+     * Returns the relevance of one product to the keyword, the score {@link #rank} orders by.
+     */
+    public int score(int id, String keyword) {
+        return score(text(id), keyword.toLowerCase(Locale.ROOT));
+    }
+
+    static int score(String text, String lowerKeyword) {
+        int score = 0;
+        boolean attributeMatched = false;
+        int field = 0;
+        for (int start = 0; start <= text.length(); field++) {
+            int end = text.indexOf(SEPARATOR, start);
+            if (end < 0) {
+                end = text.length();
+            }
+            boolean contains = lowerKeyword.isEmpty() || containsWithin(text, lowerKeyword, start, end);
+            switch (field) {
+                case CATEGORY_FIELD -> {
+                    if (contains || containsRegion(lowerKeyword, text, start, end)) {
+                        score += CATEGORY_WEIGHT;
+                    }
+                }
+                case NAME_FIELD -> {
+                    if (contains) {
+                        score += NAME_WEIGHT;
+                        if (end - start == lowerKeyword.length()) {
+                            score += EXACT_NAME_WEIGHT;
+                        }
+                    }
+                }
+                case BRAND_FIELD -> score += contains ? BRAND_WEIGHT : 0;
+                case DESCRIPTION_FIELD -> score += contains ? DESCRIPTION_WEIGHT : 0;
+                default -> attributeMatched |= contains;
+            }
+            start = end + 1;
+        }
+        return attributeMatched ? score + ATTRIBUTE_WEIGHT : score;
+    }
+
+    private static boolean containsWithin(String text, String keyword, int start, int end) {
+        int found = text.indexOf(keyword, start);
+        return found >= 0 && found + keyword.length() <= end;
+    }
+
+    /**
+     * Returns whether {@code keyword} contains {@code text[start, end)}, without copying the region.
+     */
+    private static boolean containsRegion(String keyword, String text, int start, int end) {
+        int length = end - start;
+        for (int i = 0; i + length <= keyword.length(); i++) {
+            if (keyword.regionMatches(i, text, start, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] textMatches(String lowerKeyword) {
+        if (lowerKeyword.length() <= MAX_GRAM) {
+            return grams.getOrDefault(lowerKeyword, NO_IDS);
+        }
+
+        int gramCount = lowerKeyword.length() - MAX_GRAM + 1;
+        int[][] postings = new int[gramCount][];
+        for (int i = 0; i < gramCount; i++) {
+            int[] posting = grams.get(lowerKeyword.substring(i, i + MAX_GRAM));
+            if (posting == null) {
+                return NO_IDS;
+            }
+            postings[i] = posting;
+        }
+        Arrays.sort(postings, Comparator.comparingInt(p -> p.length));
+
+        int[] candidates = postings[0];
+        for (int i = 1; i < postings.length && candidates.length > 0; i++) {
+            candidates = intersect(candidates, postings[i]);
+        }
+
+        IntArrayBuilder verified = new IntArrayBuilder(candidates.length);
+        for (int id : candidates) {
+            if (text(id).contains(lowerKeyword)) {
+                verified.add(id);
+            }
+        }
+        return verified.toArray();
+    }
+
+    private int[] allIds() {
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+        }
+        return ids;
+    }
+
+    private static void addGrams(Map<String, IntArrayBuilder> builders, String text, int id) {
+        int length = text.length();
+        for (int start = 0; start < length; start++) {
+            for (int end = start + 1; end <= Math.min(length, start + MAX_GRAM); end++) {
+                if (text.charAt(end - 1) == SEPARATOR) {
+                    break;
+                }
+                builders.computeIfAbsent(text.substring(start, end), k -> new IntArrayBuilder())
+                        .addIfNotLast(id);
+            }
+        }
+    }
+
+    private static Map<String, int[]> freeze(Map<String, IntArrayBuilder> builders) {
+        Map<String, int[]> frozen = new HashMap<>(builders.size() * 4 / 3 + 1);
+        builders.forEach((key, builder) -> frozen.put(key, builder.toArray()));
+        return frozen;
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        IntArrayBuilder result = new IntArrayBuilder(Math.min(a.length, b.length));
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result.add(a[i]);
+                i++;
+                j++;
+            }
+        }
+        return result.toArray();
+    }
+}
@@ -0,0 +1,9 @@
+package com.computerx.chatbot.search;
+
+public enum SearchMode
+{
+    /** Look up candidates in the prebuilt {@link ProductIndex}. */
+    INDEX,
+    /** Lowercase and substring-scan every product on each query. */
+    SCAN
+}
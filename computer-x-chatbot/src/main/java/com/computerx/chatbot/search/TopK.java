@@ -0,0 +1,72 @@
+package com.computerx.chatbot.search;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the {@code k} highest-scoring ids offered to it in a bounded min-heap, so selecting the
+ * best few of {@code n} matches costs O(n log k) instead of sorting all of them. Equal scores
+ * prefer the lower id, which keeps results in catalog order among ties.
+ */
+final class TopK {
+
+    private final long[] heap;
+    private int size;
+
+    TopK(int k) {
+        this.heap = new long[Math.max(1, k)];
+    }
+
+    void offer(int score, int id) {
+        long key = ((long) score << 32) | (Integer.MAX_VALUE - id);
+        if (size < heap.length) {
+            heap[size] = key;
+            siftUp(size++);
+        } else if (key > heap[0]) {
+            heap[0] = key;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the retained ids, highest score first.
+     */
+    int[] idsByScore() {
+        long[] keys = Arrays.copyOf(heap, size);
+        Arrays.sort(keys);
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = Integer.MAX_VALUE - (int) keys[size - 1 - i];
+        }
+        return ids;
+    }
+
+    private void siftUp(int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private void siftDown(int index) {
+        long key = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (key <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+}
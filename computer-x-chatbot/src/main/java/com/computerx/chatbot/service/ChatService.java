@@ -1,15 +1,39 @@
 package com.computerx.chatbot.service;
 
+import com.computerx.chatbot.StartupTimings;
+import com.computerx.chatbot.catalog.CatalogSnapshot;
+import com.computerx.chatbot.catalog.CatalogViews;
+import com.computerx.chatbot.intent.Intent;
+import com.computerx.chatbot.intent.IntentMatch;
+import com.computerx.chatbot.intent.IntentRouter;
 import com.computerx.chatbot.model.BotState;
 import com.computerx.chatbot.model.ChatResponse;
 import com.computerx.chatbot.model.Product;
+import com.computerx.chatbot.model.ProductPage;
+import com.computerx.chatbot.search.ProductFilter;
+import com.computerx.chatbot.session.ConversationSession;
+import com.computerx.chatbot.session.ListingCursor;
+import com.computerx.chatbot.session.SessionStore;
+import com.computerx.chatbot.tenant.Tenant;
+import com.computerx.chatbot.tenant.TenantRegistry;
+import com.computerx.chatbot.text.TokenBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,126 +41,242 @@ import java.util.stream.Collectors;
 public class ChatService {
 
     private final KnowledgeBaseService knowledgeBase;
-    private final Random random = new Random();
+    private final SessionStore sessions;
+    private final TenantRegistry tenants;
+    private final IntentRouter intentRouter;
+    private final ResponseCache responseCache;
+    private final MeterRegistry meterRegistry;
+    private final StartupTimings startupTimings;
+    private static final Intent[] INTENTS = Intent.values();
+    private static final int MAX_SUGGESTIONS = 5;
     private static final Set<String> ALL_KEYWORDS = Set.of("all", "all items", "all products", "everything");
 
-    private String lastQuestion = "";
-    private int repetitionCount = 0;
-    private String userName = null;
-    private boolean isWaitingForUserName = false;
+    /** Most products shown in one reply; longer listings are split into pages. */
+    @Value("${chatbot.listing.page-size:20}")
+    private int pageSize = 20;
 
-    public ChatResponse getResponse(String userInput) {
-        String normalizedInput = userInput.toLowerCase().trim();
+    private Timer responseTimer;
+    private final Map<Intent, Timer> answeredTimers = new EnumMap<>(Intent.class);
+    private final Map<Intent, Timer> declinedTimers = new EnumMap<>(Intent.class);
+    private Counter repetitionReminders;
+    private Counter annoyedResponses;
 
-        if (isWaitingForUserName) {
-            this.userName = capitalize(userInput.trim());
-            isWaitingForUserName = false;
-            return new ChatResponse("It's a pleasure to meet you, " + this.userName + "!", false, BotState.NORMAL, false);
+    /**
+     * Registers the response metrics. Each intent handler is timed with an {@code outcome} of
+     * {@code answered} or {@code declined} (it passed the message on to the next intent), so the
+     * counts of the two give an intent's hit rate.
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        responseTimer = Timer.builder("chatbot.response")
+                .description("Time to answer a message, including waiting for its session")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        for (Intent intent : INTENTS) {
+            answeredTimers.put(intent, intentTimer(intent, "answered"));
+            declinedTimers.put(intent, intentTimer(intent, "declined"));
         }
+        repetitionReminders = Counter.builder("chatbot.repetitions")
+                .description("Replies to a repeated question, by how the bot reacted")
+                .tag("reaction", "reminder")
+                .register(meterRegistry);
+        annoyedResponses = Counter.builder("chatbot.repetitions")
+                .description("Replies to a repeated question, by how the bot reacted")
+                .tag("reaction", "annoyed")
+                .register(meterRegistry);
+    }
+
+    private Timer intentTimer(Intent intent, String outcome) {
+        return Timer.builder("chatbot.intent")
+                .description("Time spent in each intent handler")
+                .tag("intent", intent.name().toLowerCase())
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Answers one message of the conversation identified by {@code sessionId}. Messages of the same
+     * session are processed one at a time; different sessions never block each other.
+     */
+    public ChatResponse getResponse(String sessionId, String userInput) {
+        return getResponse(tenants.defaultTenant(), sessionId, userInput);
+    }
+
+    /**
+     * Answers one message of a conversation with the tenant's storefront, from its small talk,
+     * learned answers and prices on top of the shared ones. Session ids are scoped to the tenant.
+     */
+    public ChatResponse getResponse(Tenant tenant, String sessionId, String userInput) {
+        long start = System.nanoTime();
+        String sessionKey = tenant.sessionKey(sessionId);
+        ConversationSession session = sessions.acquire(sessionKey);
+        ChatResponse response = null;
+        try {
+            synchronized (session) {
+                response = respond(tenant, session, userInput);
+            }
+        } finally {
+            if (response != null && response.endConversation()) {
+                sessions.releaseAndRemove(session);
+            } else {
+                sessions.release(session);
+            }
+        }
+        responseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        startupTimings.responded();
+        return response;
+    }
+
+    /**
+     * Discards the state of a conversation, e.g. when its connection closes.
+     */
+    public void endSession(String sessionId) {
+        endSession(tenants.defaultTenant(), sessionId);
+    }
+
+    public void endSession(Tenant tenant, String sessionId) {
+        sessions.remove(tenant.sessionKey(sessionId));
+    }
+
+    private ChatResponse respond(Tenant tenant, ConversationSession session, String userInput) {
+        if (session.isWaitingForUserName()) {
+            session.setUserName(capitalize(userInput.trim()));
+            session.setWaitingForUserName(false);
+            return new ChatResponse("It's a pleasure to meet you, " + session.getUserName() + "!", false, BotState.NORMAL, false);
+        }
+
+        IntentMatch match = session.getIntentMatch();
+        if (match == null) {
+            match = intentRouter.newMatch();
+            session.setIntentMatch(match);
+        }
+        TokenBuffer tokens = intentRouter.route(userInput, match).tokens();
 
-        if (normalizedInput.equals(lastQuestion) && !normalizedInput.isEmpty()) {
-            repetitionCount++;
+        if (tokens.contentEquals(session.getLastQuestion()) && tokens.length() > 0) {
+            session.setRepetitionCount(session.getRepetitionCount() + 1);
         } else {
-            lastQuestion = normalizedInput;
-            repetitionCount = 1;
+            session.setLastQuestion(tokens.toString());
+            session.setRepetitionCount(1);
         }
 
-        if (normalizedInput.equalsIgnoreCase("sorry")) {
-            repetitionCount = 0;
-            lastQuestion = "";
+        if (tokens.contentEquals("sorry")) {
+            session.setRepetitionCount(0);
+            session.setLastQuestion("");
             return new ChatResponse(getRandomResponse("It's okay. No problem.", "Apology accepted."), false, BotState.NORMAL, true);
         }
 
-        ChatResponse baseResponse = processQuery(normalizedInput);
+        ChatResponse baseResponse = processQuery(tenant, session, match);
         String finalMessage = baseResponse.message();
         BotState finalState = baseResponse.botState();
+        String userName = session.getUserName();
+        int repetitionCount = session.getRepetitionCount();
 
-        if (baseResponse.isPersonalizable() && this.userName != null && random.nextInt(10) < 7) {
+        if (baseResponse.isPersonalizable() && userName != null && ThreadLocalRandom.current().nextInt(10) < 7) {
             if (finalMessage.endsWith(".") || finalMessage.endsWith("!") || finalMessage.endsWith("?")) {
                 finalMessage = finalMessage.substring(0, finalMessage.length() - 1);
             }
-            finalMessage = finalMessage + ", " + this.userName + ".";
+            finalMessage = finalMessage + ", " + userName + ".";
         }
 
         if (repetitionCount > 3 && !baseResponse.endConversation()) {
             finalMessage = getRandomResponse("I've already answered that. Please ask a different question.", "Why do you keep asking the same thing? Let's move on.");
             finalState = BotState.ANNOYED;
+            annoyedResponses.increment();
         } else if (repetitionCount == 3 && !baseResponse.endConversation()) {
+            repetitionReminders.increment();
             finalMessage += getRandomResponse("\n\n(By the way, you've asked me that a few times now.)", "\n\n(Just letting you know, I believe I've answered this already.)");
         }
 
-        return new ChatResponse(finalMessage, baseResponse.endConversation(), finalState, false);
+        ProductPage page = finalMessage.equals(baseResponse.message()) ? baseResponse.page() : null;
+        return new ChatResponse(finalMessage, baseResponse.endConversation(), finalState, false, page);
     }
 
-    private ChatResponse processQuery(String normalizedInput) {
-        ChatResponse timeResponse = handleTimeBasedGreeting(normalizedInput);
-        if (timeResponse != null) {
-            return timeResponse;
-        }
-
-        if (normalizedInput.contains("who are you") || normalizedInput.contains("what is your name")) {
-            if (this.userName != null) {
-                return new ChatResponse("My name is Nayana. It's nice chatting with you, " + this.userName + "!", false, BotState.NORMAL, false);
-            } else {
-                isWaitingForUserName = true;
-                return new ChatResponse("I am Nayana, a virtual assistant for Computer X. What's your name?", false, BotState.NORMAL, false);
+    private ChatResponse processQuery(Tenant tenant, ConversationSession session, IntentMatch match) {
+        for (Intent intent : INTENTS) {
+            if (!match.matches(intent)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            ChatResponse response = handleIntent(intent, match, tenant, session);
+            (response != null ? answeredTimers : declinedTimers).get(intent)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (response != null) {
+                return response;
             }
         }
+        throw new IllegalStateException("No intent answered: " + match.input());
+    }
 
-        if (normalizedInput.equals("hi") || normalizedInput.equals("hello")) {
-            return new ChatResponse(getRandomResponse("Hello!", "Hi there!", "Greetings!"), false, BotState.NORMAL, true);
-        }
-        if (normalizedInput.equals("thanks") || normalizedInput.equals("thank you")) {
-            return new ChatResponse(getRandomResponse("You're welcome!", "No problem!", "Happy to help!"), false, BotState.NORMAL, true);
-        }
-        if (normalizedInput.equals("bye") || normalizedInput.equals("exit") || normalizedInput.equals("quit")) {
-            return new ChatResponse(getRandomResponse("Goodbye!", "See you later!", "Have a great day!"), true, BotState.NORMAL, true);
-        }
-        if (normalizedInput.contains("how are you")) {
-            return new ChatResponse(getRandomResponse("I'm doing great, thanks for asking!", "I'm a bot, so I'm always running at 100%!", "I'm fine, ready to help!"), false, BotState.NORMAL, true);
-        }
-
-        if (normalizedInput.contains("categor")) {
-            Set<String> categories = knowledgeBase.getUniqueCategories();
-            String categoryList = String.join(", ", categories);
-            return new ChatResponse("We have the following product categories: " + categoryList + ".", false, BotState.NORMAL, false);
-        }
-        if (normalizedInput.contains("product names") || normalizedInput.contains("item names")) {
-            List<String> names = knowledgeBase.getAllProductNames();
-            String nameList = String.join(", ", names);
-            return new ChatResponse("Here are all the product names we have: " + nameList + ".", false, BotState.NORMAL, false);
-        }
-
-        String smallTalkResponse = knowledgeBase.getSmallTalk().getProperty(normalizedInput.replace(" ", "."));
-        if (smallTalkResponse != null) {
-            return new ChatResponse(smallTalkResponse, false, BotState.NORMAL, false);
-        }
-        String learnedResponse = knowledgeBase.getLearnedResponses().get(normalizedInput);
-        if (learnedResponse != null) {
-            return new ChatResponse(learnedResponse, false, BotState.NORMAL, false);
-        }
-
-        if (normalizedInput.contains("show") || normalizedInput.contains("list") || normalizedInput.contains("see")) {
-            String keyword = extractKeyword(normalizedInput, "show me", "list all", "see all", "show", "list", "see");
-            return findAndListProducts(keyword);
-        }
-        if (normalizedInput.startsWith("price of") || normalizedInput.startsWith("what is the price of")) {
-            String keyword = extractKeyword(normalizedInput, "price of", "what is the price of");
-            return findProductPrice(keyword);
-        }
-        if (normalizedInput.contains("in stock") || normalizedInput.contains("available")) {
-            String keyword = extractKeyword(normalizedInput, "is", "are", "in stock", "available");
-            return checkStock(keyword);
-        }
-        if (normalizedInput.contains("do you have") || normalizedInput.contains("any")) {
-            String keyword = extractKeyword(normalizedInput, "do you have", "any");
-            return findAndListProducts(keyword);
-        }
+    private ChatResponse handleIntent(Intent intent, IntentMatch match, Tenant tenant, ConversationSession session) {
+        return switch (intent) {
+            case TIME_GREETING -> handleTimeBasedGreeting(match.matchedPhrase(intent));
+            case IDENTITY -> {
+                if (session.getUserName() != null) {
+                    yield new ChatResponse("My name is Nayana. It's nice chatting with you, " + session.getUserName() + "!", false, BotState.NORMAL, false);
+                }
+                session.setWaitingForUserName(true);
+                yield new ChatResponse("I am Nayana, a virtual assistant for Computer X. What's your name?", false, BotState.NORMAL, false);
+            }
+            case GREETING -> new ChatResponse(getRandomResponse("Hello!", "Hi there!", "Greetings!"), false, BotState.NORMAL, true);
+            case THANKS -> new ChatResponse(getRandomResponse("You're welcome!", "No problem!", "Happy to help!"), false, BotState.NORMAL, true);
+            case FAREWELL -> new ChatResponse(getRandomResponse("Goodbye!", "See you later!", "Have a great day!"), true, BotState.NORMAL, true);
+            case WELLBEING -> new ChatResponse(getRandomResponse("I'm doing great, thanks for asking!", "I'm a bot, so I'm always running at 100%!", "I'm fine, ready to help!"), false, BotState.NORMAL, true);
+            case CATEGORIES -> {
+                CatalogViews views = knowledgeBase.getCatalog().views();
+                String reply = views.memoize("categories-reply", () ->
+                        "We have the following product categories: " + String.join(", ", views.categories()) + ".");
+                yield new ChatResponse(reply, false, BotState.NORMAL, false);
+            }
+            case PRODUCT_NAMES -> {
+                CatalogViews views = knowledgeBase.getCatalog().views();
+                String reply = views.memoize("product-names-reply", () ->
+                        "Here are all the product names we have: " + String.join(", ", views.productNames()) + ".");
+                yield new ChatResponse(reply, false, BotState.NORMAL, false);
+            }
+            case SMALL_TALK -> {
+                String smallTalkResponse = knowledgeBase.getSmallTalkResponse(tenant, match.tokens());
+                yield smallTalkResponse == null ? null : new ChatResponse(smallTalkResponse, false, BotState.NORMAL, false);
+            }
+            case LEARNED -> {
+                String learnedResponse = knowledgeBase.getLearnedResponse(tenant, match.tokens());
+                yield learnedResponse == null ? null : new ChatResponse(learnedResponse, false, BotState.NORMAL, false);
+            }
+            case MORE_RESULTS -> {
+                ListingCursor cursor = session.getListingCursor();
+                if (cursor == null) {
+                    yield null;
+                }
+                // Each "show more" moves on to different results, so it is not a repeated question.
+                session.setRepetitionCount(1);
+                yield showListingPage(tenant, session, cursor.withPage(cursor.page() + 1));
+            }
+            case PAGE -> {
+                ListingCursor cursor = session.getListingCursor();
+                int pageNumber = parsePageNumber(match.keyword(intent));
+                yield cursor == null || pageNumber < 1 ? null : showListingPage(tenant, session, cursor.withPage(pageNumber));
+            }
+            case FILTER -> {
+                // Filters read prices like "$500-$800" and "<= 300", whose symbols normalization drops.
+                ProductFilter filter = knowledgeBase.parseFilter(knowledgeBase.getCatalog(), match.message().toString());
+                // Product intents declared after FILTER keep their messages unless a price bound is
+                // given, so "price of corsair ram" and "is the ram in stock" are answered as before.
+                boolean answers = filter.isStructured() && (filter.hasPriceRange() || !triggersProductIntent(match));
+                yield answers ? showListingPage(tenant, session, new ListingCursor(match.input(), false, 1, filter)) : null;
+            }
+            case LIST_PRODUCTS, SEARCH_PRODUCTS -> findAndListProducts(tenant, intent, match.keyword(intent), session);
+            case PRICE -> cached(tenant, intent, match.keyword(intent), () -> findProductPrice(tenant, match.keyword(intent)));
+            case STOCK -> cached(tenant, intent, match.keyword(intent), () -> checkStock(tenant, match.keyword(intent)));
+            case FALLBACK -> new ChatResponse("I'm not sure how to answer that. Could you please tell me the correct response?", false, BotState.LEARNING, false);
+        };
+    }
 
-        return new ChatResponse("I'm not sure how to answer that. Could you please tell me the correct response?", false, BotState.LEARNING, false);
+    private static boolean triggersProductIntent(IntentMatch match) {
+        return match.matches(Intent.LIST_PRODUCTS) || match.matches(Intent.PRICE) || match.matches(Intent.STOCK)
+                || match.matches(Intent.SEARCH_PRODUCTS);
     }
 
-    private ChatResponse handleTimeBasedGreeting(String normalizedInput) {
+    private ChatResponse handleTimeBasedGreeting(String userGreeting) {
         int currentHour = LocalTime.now().getHour();
         String actualTimeOfDay;
         if (currentHour >= 5 && currentHour < 12) actualTimeOfDay = "morning";
@@ -144,28 +284,27 @@ public class ChatService {
         else if (currentHour >= 17 && currentHour < 22) actualTimeOfDay = "evening";
         else actualTimeOfDay = "night";
 
-        String userGreeting = null;
-        if (normalizedInput.contains("morning")) userGreeting = "morning";
-        else if (normalizedInput.contains("afternoon")) userGreeting = "afternoon";
-        else if (normalizedInput.contains("evening")) userGreeting = "evening";
-        else if (normalizedInput.contains("night")) userGreeting = "night";
-
-        if (userGreeting != null) {
-            if (userGreeting.equals(actualTimeOfDay)) {
-                return new ChatResponse("Good " + actualTimeOfDay + " to you too!", false, BotState.NORMAL, true);
-            } else {
-                return new ChatResponse("Actually, it's " + actualTimeOfDay + " here, but good " + userGreeting + " to you anyway!", false, BotState.NORMAL, true);
-            }
+        if (userGreeting.equals(actualTimeOfDay)) {
+            return new ChatResponse("Good " + actualTimeOfDay + " to you too!", false, BotState.NORMAL, true);
+        } else {
+            return new ChatResponse("Actually, it's " + actualTimeOfDay + " here, but good " + userGreeting + " to you anyway!", false, BotState.NORMAL, true);
         }
-        return null;
     }
 
     public void learn(String question, String answer) {
-        knowledgeBase.saveLearnedResponse(question, answer);
+        learn(tenants.defaultTenant(), question, answer);
+    }
+
+    /**
+     * Teaches the tenant an answer. Answers taught to the default tenant are shared with all tenants.
+     * @throws IllegalArgumentException If the pair is too large to be kept.
+     */
+    public void learn(Tenant tenant, String question, String answer) {
+        knowledgeBase.saveLearnedResponse(tenant, question, answer);
     }
 
     private String getRandomResponse(String... responses) {
-        return responses[random.nextInt(responses.length)];
+        return responses[ThreadLocalRandom.current().nextInt(responses.length)];
     }
 
     private String capitalize(String str) {
@@ -173,58 +312,115 @@ public class ChatService {
         return str.substring(0, 1).toUpperCase() + str.substring(1).toLowerCase();
     }
 
-    private ChatResponse findAndListProducts(String keyword) {
+    /**
+     * Returns the base response to a catalog question from the response cache, building it on a miss.
+     */
+    private ChatResponse cached(Tenant tenant, Intent intent, String keyword, Supplier<ChatResponse> builder) {
+        ResponseCache.Key key = new ResponseCache.Key(tenant.catalogKey(), intent, keyword, knowledgeBase.getCatalog().version());
+        return responseCache.get(key, builder);
+    }
+
+    private ChatResponse findAndListProducts(Tenant tenant, Intent intent, String keyword, ConversationSession session) {
         if (keyword.isBlank()) {
             return new ChatResponse("What kind of products are you looking for? For example: 'show me laptops'.", false, BotState.NORMAL, false);
         }
-        List<Product> foundProducts;
-        if (ALL_KEYWORDS.contains(keyword.toLowerCase())) {
-            foundProducts = knowledgeBase.getProducts();
-        } else {
-            foundProducts = knowledgeBase.findProductsByKeyword(keyword);
+        ListingCursor cursor = new ListingCursor(keyword, ALL_KEYWORDS.contains(keyword.toLowerCase()), 1);
+        ChatResponse response = cached(tenant, intent, keyword, () -> showListingPage(tenant, session, cursor));
+        // A cached first page skips showListingPage, so leave the session where it would have.
+        session.setListingCursor(response.page() != null ? cursor : null);
+        return response;
+    }
+
+    /**
+     * Shows one page of a product listing and remembers it as the session's place in the listing.
+     * Pages past the end leave the session where it was.
+     */
+    private ChatResponse showListingPage(Tenant tenant, ConversationSession session, ListingCursor cursor) {
+        CatalogSnapshot catalog = knowledgeBase.getCatalog();
+        int[] ids = null;
+        List<Product> found = null;
+        if (cursor.filter() != null) {
+            ids = tenant.overlay().filter(catalog, cursor.filter(), knowledgeBase.findProductIds(catalog, cursor.filter()));
+        } else if (!cursor.all()) {
+            // Through the catalog backend, which may scatter the lookup over shards.
+            found = knowledgeBase.findProductsByKeyword(cursor.keyword());
         }
-        if (foundProducts.isEmpty()) {
-            return new ChatResponse("Sorry, I couldn't find any products matching '" + keyword + "'.", false, BotState.NORMAL, false);
+        int total = cursor.all() ? catalog.size() : ids != null ? ids.length : found.size();
+        if (total == 0) {
+            session.setListingCursor(null);
+            return new ChatResponse("Sorry, I couldn't find any products matching '" + cursor.keyword() + "'.", false, BotState.NORMAL, false);
+        }
+        int rowsPerPage = Math.max(1, pageSize);
+        int pageCount = (total + rowsPerPage - 1) / rowsPerPage;
+        if (cursor.page() > pageCount) {
+            String message = pageCount == 1
+                    ? "That's everything I found for '" + cursor.keyword() + "'."
+                    : "There are only " + pageCount + " pages of results for '" + cursor.keyword() + "'.";
+            return new ChatResponse(message, false, BotState.NORMAL, false);
+        }
+        int from = (cursor.page() - 1) * rowsPerPage;
+        int to = Math.min(total, from + rowsPerPage);
+        List<String> items = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            items.add(found != null ? tenant.overlay().card(found.get(i)) : tenant.overlay().card(catalog, cursor.all() ? i : ids[i]));
+        }
+        String heading = cursor.all()
+                ? "Here are all the products we have"
+                : "Here's what I found for '" + cursor.keyword() + "'";
+        heading += cursor.page() > 1 ? " (page " + cursor.page() + " of " + pageCount + "):\n" : ":\n";
+        String footer = "";
+        if (pageCount > 1) {
+            footer = "Showing " + (from + 1) + "-" + to + " of " + total + ".";
+            if (to < total) {
+                footer += " Say 'show more' for the next " + Math.min(rowsPerPage, total - to) + " or 'page N' to jump to a page.";
+            }
         }
-        String productList = foundProducts.stream().map(Product::toString).collect(Collectors.joining("\n---\n"));
-        String responseHeader = ALL_KEYWORDS.contains(keyword.toLowerCase())
-                ? "Here are all the products we have:\n"
-                : "Here's what I found for '" + keyword + "':\n";
-        return new ChatResponse(responseHeader + productList, false, BotState.NORMAL, false);
+        session.setListingCursor(cursor);
+        ProductPage page = new ProductPage(heading, List.copyOf(items), cursor.page(), pageCount, total, footer);
+        return new ChatResponse(page.toText(), false, BotState.NORMAL, false, page);
     }
 
-    private ChatResponse findProductPrice(String keyword) {
-        List<Product> foundProducts = knowledgeBase.findProductsByKeyword(keyword);
+    private static int parsePageNumber(String text) {
+        if (text.isEmpty() || text.length() > 6 || !text.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        return Integer.parseInt(text);
+    }
+
+    /**
+     * Finds the most relevant products by exact keyword, falling back to typo-tolerant matching
+     * when nothing matches, with the tenant's prices and stock. Only enough products to pick one
+     * or suggest a few are returned.
+     */
+    private List<Product> findProductsTolerantly(Tenant tenant, String keyword) {
+        List<Product> foundProducts = knowledgeBase.search(keyword, MAX_SUGGESTIONS);
+        return tenant.overlay().apply(foundProducts.isEmpty() ? knowledgeBase.findSimilarProducts(keyword) : foundProducts);
+    }
+
+    private ChatResponse findProductPrice(Tenant tenant, String keyword) {
+        List<Product> foundProducts = findProductsTolerantly(tenant, keyword);
         if (foundProducts.isEmpty()) {
             return new ChatResponse("Sorry, I couldn't find a product named '" + keyword + "'.", false, BotState.NORMAL, false);
         }
         if (foundProducts.size() > 1) {
-            String suggestions = foundProducts.stream().map(Product::name).limit(5).collect(Collectors.joining(", "));
+            String suggestions = foundProducts.stream().map(Product::name).limit(MAX_SUGGESTIONS).collect(Collectors.joining(", "));
             return new ChatResponse("I found multiple products matching '" + keyword + "': " + suggestions + "... Can you be more specific?", false, BotState.NORMAL, false);
         }
         Product p = foundProducts.get(0);
         return new ChatResponse(String.format("The price of the %s is $%.2f.", p.name(), p.price()), false, BotState.NORMAL, false);
     }
 
-    private ChatResponse checkStock(String keyword) {
-        List<Product> foundProducts = knowledgeBase.findProductsByKeyword(keyword);
+    private ChatResponse checkStock(Tenant tenant, String keyword) {
+        List<Product> foundProducts = findProductsTolerantly(tenant, keyword);
         if (foundProducts.isEmpty()) {
             return new ChatResponse("Sorry, I couldn't find a product named '" + keyword + "'.", false, BotState.NORMAL, false);
         }
         if (foundProducts.size() > 1) {
-            String suggestions = foundProducts.stream().map(Product::name).limit(5).collect(Collectors.joining(", "));
+            String suggestions = foundProducts.stream().map(Product::name).limit(MAX_SUGGESTIONS).collect(Collectors.joining(", "));
             return new ChatResponse("I found multiple products matching '" + keyword + "': " + suggestions + "... Can you be more specific?", false, BotState.NORMAL, false);
         }
         Product p = foundProducts.get(0);
         String stockStatus = p.stock().equalsIgnoreCase("in stock") ? "is in stock" : "is currently out of stock";
         return new ChatResponse(String.format("The %s %s.", p.name(), stockStatus), false, BotState.NORMAL, false);
     }
-
-    private String extractKeyword(String input, String... prefixes) {
-        String result = input;
-        for (String prefix : prefixes) {
-            result = result.replace(prefix, "");
-        }
-        return result.replace("?", "").trim();
-    }
 }
\ No newline at end of file
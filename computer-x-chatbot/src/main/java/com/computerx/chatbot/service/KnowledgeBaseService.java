@@ -1,93 +1,428 @@
 package com.computerx.chatbot.service;
 
+import com.computerx.chatbot.StartupTimings;
+import com.computerx.chatbot.catalog.CatalogReloadedEvent;
+import com.computerx.chatbot.catalog.CatalogSnapshot;
+import com.computerx.chatbot.catalog.CatalogSnapshotFile;
+import com.computerx.chatbot.catalog.CatalogStore;
+import com.computerx.chatbot.catalog.ProductCsvParser;
+import com.computerx.chatbot.learning.LearnedResponseJournal;
+import com.computerx.chatbot.learning.LearnedResponses;
 import com.computerx.chatbot.model.Product;
+import com.computerx.chatbot.search.FilterParser;
+import com.computerx.chatbot.search.ProductFilter;
+import com.computerx.chatbot.search.SearchMode;
+import com.computerx.chatbot.shard.CatalogBackend;
+import com.computerx.chatbot.tenant.Tenant;
+import com.computerx.chatbot.text.TextTable;
+import com.computerx.chatbot.text.TokenBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
 
 @Service
 @Slf4j
 @Getter
+@RequiredArgsConstructor
 public class KnowledgeBaseService {
 
-    private final List<Product> products = new ArrayList<>();
-    private final Map<String, String> learnedResponses = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final LearnedResponseJournal learnedJournal;
+    @Getter(AccessLevel.NONE)
+    private final MeterRegistry meterRegistry;
+    @Getter(AccessLevel.NONE)
+    private final ApplicationEventPublisher eventPublisher;
+    @Getter(AccessLevel.NONE)
+    private final StartupTimings startupTimings;
+    @Getter(AccessLevel.NONE)
+    private final CatalogBackend catalogBackend;
+
+    private volatile CatalogSnapshot catalog = CatalogSnapshot.EMPTY;
+    /** The shared learned answers, which are also the default tenant's. */
+    private LearnedResponses learned;
     private final Properties smallTalk = new Properties();
+    @Getter(AccessLevel.NONE)
+    private volatile TextTable<String> smallTalkByPhrase = new TextTable<>();
+    @Getter(AccessLevel.NONE)
+    private Timer reloadTimer;
+    @Getter(AccessLevel.NONE)
+    private Timer parseTimer;
+    @Getter(AccessLevel.NONE)
+    private final Map<SearchStage, StageMeters> searchMeters = new EnumMap<>(SearchStage.class);
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Counter> learnedLookups = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final Lock snapshotWriteLock = new ReentrantLock();
+
+    @Value("${chatbot.search.mode:index}")
+    private SearchMode searchMode = SearchMode.INDEX;
+
+    @Getter(AccessLevel.NONE)
+    @Value("${chatbot.search.fuzzy.enabled:true}")
+    private boolean fuzzyEnabled = true;
+
+    @Getter(AccessLevel.NONE)
+    @Value("${chatbot.search.fuzzy.budget:20ms}")
+    private Duration fuzzyBudget = Duration.ofMillis(20);
+
+    @Getter(AccessLevel.NONE)
+    @Value("${chatbot.search.fuzzy.max-results:10}")
+    private int fuzzyMaxResults = 10;
+
+    @Getter(AccessLevel.NONE)
+    @Value("${chatbot.learned.match-threshold:0.8}")
+    private double learnedMatchThreshold = 0.8;
+
+    @Getter(AccessLevel.NONE)
+    @Value("${chatbot.catalog.store:heap}")
+    private CatalogStore catalogStore = CatalogStore.HEAP;
+
+    @Getter(AccessLevel.NONE)
+    @Value("${chatbot.catalog.location:classpath:" + PRODUCTS_FILE + "}")
+    private Resource catalogLocation = new ClassPathResource(PRODUCTS_FILE);
+
+    @Getter(AccessLevel.NONE)
+    @Value("${chatbot.catalog.snapshot.path:}")
+    private String snapshotPath = "";
+
+    /** The line-based answers file used before the journal; imported once if the journal does not exist yet. */
+    @Getter(AccessLevel.NONE)
+    @Value("${chatbot.learned.legacy-file:" + LEARNED_FILE + "}")
+    private Path legacyLearnedFile = Paths.get(LEARNED_FILE);
+
+    /** A reload yielding fewer than this share of the current products is taken for a half-written file. */
+    @Getter(AccessLevel.NONE)
+    @Value("${chatbot.catalog.reload.min-retained-ratio:0.5}")
+    private double minRetainedRatio = 0.5;
 
     private static final String PRODUCTS_FILE = "data/products.csv";
     private static final String LEARNED_FILE = "data/learned.txt";
     private static final String SMALLTALK_FILE = "data/smalltalk.properties";
     private static final String LEARNED_DELIMITER = ":::";
+    private static final int MAX_LOGGED_ROW_ERRORS = 20;
+
+    /** The steps of a product search, each timed with its result count. */
+    private enum SearchStage {
+        KEYWORD, RANK, FILTER, FUZZY
+    }
+
+    /**
+     * @param latency How long a search stage took.
+     * @param results How many products it returned.
+     */
+    private record StageMeters(Timer latency, DistributionSummary results) {
+
+        int[] record(long startNanos, int[] ids) {
+            latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            results.record(ids.length);
+            return ids;
+        }
+
+        List<Product> record(long startNanos, List<Product> products) {
+            latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            results.record(products.size());
+            return products;
+        }
+    }
 
     @PostConstruct
     public void initialize() {
-        loadProducts();
-        loadSmallTalk();
-        loadLearnedResponses();
+        learned = new LearnedResponses(learnedJournal);
+        registerMetrics();
+        startupTimings.time("catalog", this::loadCatalog);
+        startupTimings.time("small talk", this::loadSmallTalk);
+        startupTimings.time("learned responses", this::loadLearnedResponses);
     }
 
-    public Set<String> getUniqueCategories() {
-        return products.stream()
-                .map(Product::category)
-                .map(this::capitalize)
-                .collect(Collectors.toSet());
+    /**
+     * Returns the products of the current catalog snapshot. The list is immutable.
+     */
+    public List<Product> getProducts() {
+        return catalog.products();
     }
 
-    public List<String> getAllProductNames() {
-        return products.stream()
-                .map(Product::name)
-                .collect(Collectors.toList());
-    }
-
-    private void loadProducts() {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ClassPathResource(PRODUCTS_FILE).getInputStream()))) {
-            reader.readLine();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
-                if (parts.length >= 6) {
-                    String category = parts[0].trim();
-                    String name = parts[1].trim().replace("\"", "");
-                    String brand = parts[2].trim();
-                    double price = Double.parseDouble(parts[3].trim());
-                    String stock = parts[4].trim();
-                    String description = parts[5].trim().replace("\"", "");
-                    Map<String, String> attributes = new HashMap<>();
-                    if (parts.length > 6 && !parts[6].trim().isEmpty()) {
-                        String[] attrs = parts[6].trim().replace("\"", "").split(";");
-                        for (String attr : attrs) {
-                            String[] kv = attr.split(":");
-                            if (kv.length == 2) {
-                                attributes.put(kv[0].trim(), kv[1].trim());
-                            }
-                        }
-                    }
-                    products.add(new Product(category, name, brand, price, stock, description, attributes));
+    /**
+     * Returns the file backing the catalog, if it is on the file system rather than the classpath.
+     */
+    public Optional<Path> getCatalogFile() {
+        try {
+            boolean external = catalogLocation.isFile() && !(catalogLocation instanceof ClassPathResource);
+            return external ? Optional.of(catalogLocation.getFile().toPath()) : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Serves the catalog from its binary snapshot when one was written for the current catalog file,
+     * and otherwise parses the file as a reload does.
+     */
+    private synchronized void loadCatalog() {
+        Path snapshotFile = snapshotFile();
+        String source = catalogSource();
+        if (snapshotFile != null && source != null) {
+            long start = System.nanoTime();
+            try {
+                Optional<CatalogSnapshot> restored = CatalogSnapshotFile.read(snapshotFile, source,
+                        catalog.version() + 1, catalogStore);
+                if (restored.isPresent()) {
+                    swapIn(restored.get(), start, "mapped from " + snapshotFile);
+                    return;
+                }
+                log.info("No catalog snapshot for {} in {}; parsing the catalog.", catalogLocation.getDescription(),
+                        snapshotFile);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring catalog snapshot {}: {}", snapshotFile, e.toString());
+            }
+        }
+        reloadCatalog();
+    }
+
+    /**
+     * Re-reads the catalog, builds a new snapshot with its index on the calling thread and swaps it
+     * in atomically, then writes the snapshot file in the background if one is configured. Reloads
+     * are serialized. The current snapshot stays if the file cannot be read, or if it yields no
+     * products or fewer than {@code chatbot.catalog.reload.min-retained-ratio} of the current ones,
+     * as a file caught while being written or truncated does.
+     * @return The snapshot being served after the call.
+     */
+    public synchronized CatalogSnapshot reloadCatalog() {
+        long start = System.nanoTime();
+        String source = catalogSource();
+        List<Product> loaded;
+        try {
+            loaded = parseCatalog(catalogLocation);
+        } catch (IOException e) {
+            meterRegistry.counter("chatbot.catalog.reload.failures").increment();
+            log.error("Failed to load products file: {}. Keeping catalog version {}. Check chatbot.catalog.location.",
+                    catalogLocation.getDescription(), catalog.version(), e);
+            return catalog;
+        }
+        if (loaded.isEmpty() || loaded.size() < catalog.size() * minRetainedRatio) {
+            meterRegistry.counter("chatbot.catalog.reload.rejected").increment();
+            log.error("Rejected {}: it has {} products where catalog version {} has {}, below "
+                            + "chatbot.catalog.reload.min-retained-ratio={}. Keeping the current catalog; "
+                            + "write the file elsewhere and rename it into place to replace it atomically.",
+                    catalogLocation.getDescription(), loaded.size(), catalog.version(), catalog.size(), minRetainedRatio);
+            return catalog;
+        }
+        CatalogSnapshot next = CatalogSnapshot.build(catalog.version() + 1, loaded, indexesLocally());
+        swapIn(next, start, "loaded and indexed");
+        writeSnapshotInBackground(next, source);
+        return next;
+    }
+
+    private void swapIn(CatalogSnapshot next, long startNanos, String how) {
+        CatalogSnapshot previous = catalog;
+        catalogBackend.load(next);
+        catalog = next;
+        long elapsed = System.nanoTime() - startNanos;
+        reloadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Catalog version {}: {} products {} in {} ms (search mode: {})",
+                next.version(), next.size(), how, elapsed / 1_000_000, searchMode);
+        eventPublisher.publishEvent(new CatalogReloadedEvent(previous, next));
+    }
+
+    /**
+     * Writes the snapshot file on a virtual thread, unless a newer catalog has been swapped in by
+     * the time the previous write finishes.
+     * @param source The catalog description taken before the catalog was read, so an edit made
+     *               while it was parsed makes the file stale rather than wrongly current.
+     */
+    private void writeSnapshotInBackground(CatalogSnapshot snapshot, String source) {
+        Path snapshotFile = snapshotFile();
+        if (snapshotFile == null || source == null) {
+            return;
+        }
+        Thread.ofVirtual().name("catalog-snapshot-writer").start(() -> {
+            snapshotWriteLock.lock();
+            try {
+                if (catalog != snapshot) {
+                    return;
                 }
+                long start = System.nanoTime();
+                CatalogSnapshotFile.write(snapshotFile, source, snapshot);
+                log.info("Wrote catalog version {} to snapshot {} ({} bytes) in {} ms", snapshot.version(),
+                        snapshotFile, Files.size(snapshotFile), (System.nanoTime() - start) / 1_000_000);
+            } catch (IOException | RuntimeException e) {
+                meterRegistry.counter("chatbot.catalog.snapshot.failures").increment();
+                log.warn("Failed to write catalog snapshot {}: {}", snapshotFile, e.toString());
+            } finally {
+                snapshotWriteLock.unlock();
             }
-            log.info("Loaded {} products from {}", products.size(), PRODUCTS_FILE);
-        } catch (IOException | NumberFormatException e) {
-            log.error("Failed to load or parse products file: {}. Make sure it's in src/main/resources/data/", PRODUCTS_FILE, e);
+        });
+    }
+
+    /**
+     * Returns the snapshot file, or null if none is configured or the snapshots are not indexed
+     * here: the file exists to skip rebuilding the indexes, which shards then build themselves.
+     */
+    private Path snapshotFile() {
+        return snapshotPath == null || snapshotPath.isBlank() || !indexesLocally() ? null : Paths.get(snapshotPath.trim());
+    }
+
+    /**
+     * Returns whether snapshots get keyword and fuzzy indexes: when the backend answers lookups
+     * from them, or the scan mode ranks its results with them.
+     */
+    private boolean indexesLocally() {
+        return catalogBackend.usesSnapshotIndexes() || searchMode == SearchMode.SCAN;
+    }
+
+    /**
+     * Identifies the current content of the catalog: its location, size and modification time.
+     * Returns null when those cannot be read, and no snapshot is then used or written.
+     */
+    private String catalogSource() {
+        try {
+            return catalogLocation.getDescription() + " " + catalogLocation.contentLength() + " "
+                    + catalogLocation.lastModified();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void registerMetrics() {
+        reloadTimer = Timer.builder("chatbot.catalog.reload")
+                .description("Time to read, index and swap in a catalog snapshot")
+                .register(meterRegistry);
+        parseTimer = Timer.builder("chatbot.catalog.parse")
+                .description("Time to read and parse the catalog file, the rest of a reload being indexing")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.catalog.version", this, kb -> kb.catalog.version())
+                .description("Version of the catalog snapshot being served")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.catalog.products", this, kb -> kb.catalog.size())
+                .description("Products in the catalog snapshot being served")
+                .register(meterRegistry);
+        for (SearchStage stage : SearchStage.values()) {
+            String tag = stage.name().toLowerCase(Locale.ROOT);
+            searchMeters.put(stage, new StageMeters(
+                    Timer.builder("chatbot.search")
+                            .description("Time spent in each stage of a product search")
+                            .tag("stage", tag)
+                            .publishPercentiles(0.5, 0.99)
+                            .register(meterRegistry),
+                    DistributionSummary.builder("chatbot.search.results")
+                            .description("Products returned by each stage of a product search")
+                            .tag("stage", tag)
+                            .register(meterRegistry)));
+        }
+        for (String match : List.of("exact", "similar", "none")) {
+            learnedLookups.put(match, Counter.builder("chatbot.learned.lookups")
+                    .description("Learned-response lookups by how the question was matched")
+                    .tag("match", match)
+                    .register(meterRegistry));
+        }
+    }
+
+    public Set<String> getUniqueCategories() {
+        return catalog.views().categories();
+    }
+
+    public List<String> getAllProductNames() {
+        return catalog.views().productNames();
+    }
+
+    /**
+     * Returns the small talk answer for a normalized message, matching property keys with their
+     * dots read as spaces (so {@code tell.me.a.joke} answers "tell me a joke"), or null.
+     */
+    public String getSmallTalkResponse(CharSequence normalizedInput) {
+        return smallTalkByPhrase.get(normalizedInput);
+    }
+
+    /**
+     * Returns the tenant's small talk answer for a normalized message, or the shared one if the
+     * tenant has none for it, or null.
+     */
+    public String getSmallTalkResponse(Tenant tenant, CharSequence normalizedInput) {
+        String answer = tenant.smallTalk().get(normalizedInput);
+        return answer != null ? answer : smallTalkByPhrase.get(normalizedInput);
+    }
+
+    /**
+     * Indexes small talk properties by the normalized phrase each key stands for.
+     */
+    public static TextTable<String> indexSmallTalk(Properties properties) {
+        TextTable<String> byPhrase = new TextTable<>();
+        TokenBuffer phrase = new TokenBuffer();
+        properties.forEach((key, value) ->
+                byPhrase.put(phrase.normalize(key.toString().replace('.', ' ')).toString(), value.toString()));
+        return byPhrase;
+    }
+
+    /**
+     * Parses a product catalog CSV. Malformed rows are logged with their line numbers and skipped;
+     * an I/O failure is logged and yields an empty list.
+     */
+    public List<Product> readCatalog(Resource resource) {
+        try {
+            return parseCatalog(resource);
+        } catch (IOException e) {
+            log.error("Failed to load products file: {}. Check chatbot.catalog.location.", resource.getDescription(), e);
+            return List.of();
+        }
+    }
+
+    private List<Product> parseCatalog(Resource resource) throws IOException {
+        CatalogStore.Collector collector = catalogStore.collector();
+        List<ProductCsvParser.RowError> errors = new ArrayList<>();
+        long start = System.nanoTime();
+        try (ReadableByteChannel channel = resource.isFile()
+                ? FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)
+                : Channels.newChannel(resource.getInputStream())) {
+            ProductCsvParser.parse(channel, collector, errors::add);
         }
+        List<Product> products = collector.finish();
+        long elapsed = System.nanoTime() - start;
+        parseTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Read {} products from {} into the {} store in {} ms", products.size(), resource.getDescription(),
+                catalogStore, elapsed / 1_000_000);
+        if (!errors.isEmpty()) {
+            meterRegistry.counter("chatbot.catalog.rows.skipped").increment(errors.size());
+            errors.stream().limit(MAX_LOGGED_ROW_ERRORS)
+                    .forEach(error -> log.warn("Skipped product row at line {}: {}", error.line(), error.message()));
+            log.warn("Skipped {} malformed product rows in {}", errors.size(), resource.getDescription());
+        }
+        return products;
     }
 
     private void loadSmallTalk() {
         try {
             smallTalk.load(new ClassPathResource(SMALLTALK_FILE).getInputStream());
+            smallTalkByPhrase = indexSmallTalk(smallTalk);
             log.info("Loaded {} small talk entries.", smallTalk.size());
         } catch (IOException e) {
             log.error("Failed to load small talk properties: {}", SMALLTALK_FILE, e);
@@ -95,55 +430,206 @@ public class KnowledgeBaseService {
     }
 
     private void loadLearnedResponses() {
-        Path externalPath = Paths.get(LEARNED_FILE);
+        boolean journalExists = learnedJournal.exists();
         try {
-            if (Files.exists(externalPath)) {
-                Files.lines(externalPath).forEach(this::parseAndStoreLearnedLine);
-                log.info("Loaded {} learned responses from external file: {}", learnedResponses.size(), externalPath.toAbsolutePath());
-            } else {
-                Resource resource = new ClassPathResource(LEARNED_FILE);
-                if (resource.exists()) {
-                    Files.lines(Paths.get(resource.getURI())).forEach(this::parseAndStoreLearnedLine);
-                    log.info("Loaded {} default learned responses from classpath.", learnedResponses.size());
-                } else {
-                    log.warn("No default or external learned.txt found. Will be created on first learn.");
-                }
-            }
+            learned.open();
         } catch (IOException e) {
-            log.error("Failed to load learned responses: {}", e.getMessage());
+            log.error("Failed to open learned-response journal {}. New answers will not be saved.",
+                    learnedJournal.path().toAbsolutePath(), e);
+            return;
+        }
+        if (!journalExists) {
+            importLegacyLearnedResponses();
+        }
+    }
+
+    /**
+     * Moves answers from the line-based learned.txt used before the journal existed into the journal.
+     */
+    private void importLegacyLearnedResponses() {
+        Resource resource = Files.exists(legacyLearnedFile) ? new FileSystemResource(legacyLearnedFile) : new ClassPathResource(LEARNED_FILE);
+        if (!resource.exists()) {
+            return;
+        }
+        int before = learned.size();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            reader.lines().forEach(this::parseAndStoreLearnedLine);
+        } catch (IOException e) {
+            log.error("Failed to import learned responses from {}: {}", resource.getDescription(), e.getMessage());
+        }
+        if (learned.size() > before) {
+            log.info("Imported {} learned responses from {} into {}", learned.size() - before,
+                    resource.getDescription(), learnedJournal.path().toAbsolutePath());
         }
     }
 
     private void parseAndStoreLearnedLine(String line) {
         String[] parts = line.split(LEARNED_DELIMITER, 2);
         if (parts.length == 2) {
-            learnedResponses.put(parts[0].trim(), parts[1].trim());
+            // Normalized like taught questions, since lookups compare normalized messages.
+            String question = new TokenBuffer().normalize(parts[0]).toString();
+            String answer = parts[1].trim();
+            if (question.isEmpty() || answer.isEmpty()) {
+                return;
+            }
+            if (!LearnedResponseJournal.fits(question, answer)) {
+                log.warn("Skipped learned response for '{}': too large for the journal.", question);
+                return;
+            }
+            learned.put(question, answer);
         }
     }
 
+    /**
+     * Remembers a shared answer and queues it for the journal; never waits for the disk.
+     * @throws IllegalArgumentException If the pair is too large for the journal.
+     */
     public void saveLearnedResponse(String question, String answer) {
-        String cleanQuestion = question.toLowerCase().trim();
-        learnedResponses.put(cleanQuestion, answer);
-        Path path = Paths.get(LEARNED_FILE);
-        try {
-            Path parentDir = path.getParent();
-            if (parentDir != null && !Files.exists(parentDir)) {
-                Files.createDirectories(parentDir);
-                log.info("Created directory for learned data at: {}", parentDir.toAbsolutePath());
-            }
+        saveLearnedResponse(learned, question, answer);
+    }
 
-            String lineToAppend = cleanQuestion + LEARNED_DELIMITER + answer + System.lineSeparator();
-            Files.write(path, lineToAppend.getBytes(), StandardOpenOption.APPEND, StandardOpenOption.CREATE);
-            log.info("Saved new learned response to external file: {}", path.toAbsolutePath());
-        } catch (IOException e) {
-            log.error("Failed to save learned response to file. Check write permissions for the application directory.", e);
+    /**
+     * Remembers an answer taught to the tenant, which only it will give; never waits for the disk.
+     * @throws IllegalArgumentException If the pair is too large for the journal.
+     */
+    public void saveLearnedResponse(Tenant tenant, String question, String answer) {
+        saveLearnedResponse(tenant.learned(), question, answer);
+    }
+
+    private void saveLearnedResponse(LearnedResponses target, String question, String answer) {
+        String cleanQuestion = new TokenBuffer().normalize(question).toString();
+        if (!target.put(cleanQuestion, answer)) {
+            meterRegistry.counter("chatbot.learned.journal.failures").increment();
+            log.warn("Learned response for '{}' is kept in memory only; the journal is not open.", cleanQuestion);
+        }
+    }
+
+    /**
+     * Returns the shared answer taught for this question, or for the learned question most similar
+     * to it above {@code chatbot.learned.match-threshold}, or null if nothing close was taught.
+     */
+    public String getLearnedResponse(TokenBuffer normalizedInput) {
+        return findLearnedResponse(learned, normalizedInput);
+    }
+
+    /**
+     * Like {@link #getLearnedResponse(TokenBuffer)}, looking in the tenant's answers before the
+     * shared ones. A question taught word for word wins over a similar one, wherever it was taught.
+     */
+    public String getLearnedResponse(Tenant tenant, TokenBuffer normalizedInput) {
+        return findLearnedResponse(tenant.learned(), normalizedInput);
+    }
+
+    private String findLearnedResponse(LearnedResponses own, TokenBuffer normalizedInput) {
+        String answer = own.exact(normalizedInput);
+        if (answer == null && own != learned) {
+            answer = learned.exact(normalizedInput);
         }
+        if (answer != null) {
+            learnedLookups.get("exact").increment();
+            return answer;
+        }
+        answer = own.similar(normalizedInput, learnedMatchThreshold);
+        if (answer == null && own != learned) {
+            answer = learned.similar(normalizedInput, learnedMatchThreshold);
+        }
+        learnedLookups.get(answer == null ? "none" : "similar").increment();
+        return answer;
     }
 
     public List<Product> findProductsByKeyword(String keyword) {
+        return findProductsByKeyword(keyword, searchMode);
+    }
+
+    /**
+     * Finds products by keyword using the given mode, so the indexed lookup, answered by the
+     * {@link CatalogBackend}, can be compared side by side with the original linear scan of the
+     * local snapshot.
+     */
+    public List<Product> findProductsByKeyword(String keyword, SearchMode mode) {
+        if (mode == SearchMode.INDEX) {
+            long start = System.nanoTime();
+            return searchMeters.get(SearchStage.KEYWORD).record(start, catalogBackend.findProductsByKeyword(keyword));
+        }
+        CatalogSnapshot snapshot = catalog;
+        return products(snapshot, findProductIdsByKeyword(snapshot, keyword, mode));
+    }
+
+    /**
+     * Finds the products matching the keyword, most relevant first: name matches outrank brand,
+     * attribute, category and description matches, in that order.
+     */
+    public List<Product> search(String keyword) {
+        return search(keyword, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the {@code limit} most relevant products matching the keyword, without sorting the
+     * rest of the matches.
+     */
+    public List<Product> search(String keyword, int limit) {
+        if (searchMode == SearchMode.INDEX) {
+            long start = System.nanoTime();
+            return searchMeters.get(SearchStage.RANK).record(start, catalogBackend.search(keyword, limit));
+        }
+        CatalogSnapshot snapshot = catalog;
+        int[] ids = findProductIdsByKeyword(snapshot, keyword, searchMode);
+        long start = System.nanoTime();
+        int[] ranked = searchMeters.get(SearchStage.RANK).record(start, snapshot.index().rank(ids, keyword, limit));
+        return products(snapshot, ranked);
+    }
+
+    private static List<Product> products(CatalogSnapshot snapshot, int[] ids) {
+        List<Product> found = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            found.add(snapshot.products().get(id));
+        }
+        return found;
+    }
+
+    /**
+     * Reads price, stock, category, brand and attribute constraints out of a message, recognizing
+     * only categories, brands and attribute values that {@code snapshot} contains.
+     */
+    public ProductFilter parseFilter(CatalogSnapshot snapshot, String message) {
+        return FilterParser.parse(message, snapshot.facets());
+    }
+
+    /**
+     * Finds the ids of the products in {@code snapshot} satisfying the filter, in catalog order.
+     */
+    public int[] findProductIds(CatalogSnapshot snapshot, ProductFilter filter) {
+        long start = System.nanoTime();
+        return searchMeters.get(SearchStage.FILTER).record(start, snapshot.facets().filter(filter));
+    }
+
+    /**
+     * Finds products whose name, brand or an attribute value is within a few typos of the keyword,
+     * best match first, for when the exact search finds nothing. The lookup stops at
+     * {@code chatbot.search.fuzzy.budget}; an empty list is returned when fuzzy matching is disabled.
+     */
+    public List<Product> findSimilarProducts(String keyword) {
+        if (!fuzzyEnabled) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        return searchMeters.get(SearchStage.FUZZY)
+                .record(start, catalogBackend.findSimilarProducts(keyword, fuzzyMaxResults, fuzzyBudget.toNanos()));
+    }
+
+    private int[] findProductIdsByKeyword(CatalogSnapshot snapshot, String keyword, SearchMode mode) {
+        long start = System.nanoTime();
+        int[] ids = mode == SearchMode.SCAN
+                ? scanProductsByKeyword(snapshot.products(), keyword)
+                : snapshot.index().search(keyword);
+        return searchMeters.get(SearchStage.KEYWORD).record(start, ids);
+    }
+
+    private int[] scanProductsByKeyword(List<Product> products, String keyword) {
         String lowerKeyword = keyword.toLowerCase();
-        return products.stream()
-                .filter(p -> {
+        return IntStream.range(0, products.size())
+                .filter(id -> {
+                    Product p = products.get(id);
                     String category = p.category().toLowerCase();
                     boolean categoryMatch = category.contains(lowerKeyword) || lowerKeyword.contains(category);
                     return p.name().toLowerCase().contains(lowerKeyword) ||
@@ -152,13 +638,6 @@ public class KnowledgeBaseService {
                             p.description().toLowerCase().contains(lowerKeyword) ||
                             p.attributes().values().stream().anyMatch(v -> v.toLowerCase().contains(lowerKeyword));
                 })
-                .collect(Collectors.toList());
-    }
-
-    private String capitalize(String str) {
-        if (str == null || str.isEmpty()) {
-            return str;
-        }
-        return str.substring(0, 1).toUpperCase() + str.substring(1).toLowerCase();
+                .toArray();
     }
 }
\ No newline at end of file
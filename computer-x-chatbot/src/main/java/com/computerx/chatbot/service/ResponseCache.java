@@ -0,0 +1,166 @@
+package com.computerx.chatbot.service;
+
+import com.computerx.chatbot.catalog.CatalogReloadedEvent;
+import com.computerx.chatbot.intent.Intent;
+import com.computerx.chatbot.model.ChatResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of the base responses to catalog questions ("show me gpus", "price of rtx 4090"),
+ * before personalization and the repetition check are applied.
+ * <p>
+ * Entries are keyed by tenant, intent, keyword and catalog version and spread over segments by
+ * key hash, each segment evicting its least recently used entry once it holds its share of
+ * {@code max-entries}, so eviction is LRU per segment rather than globally. Entries also expire
+ * after {@code ttl}, which bounds how long a fuzzy answer cut short by its time budget is served.
+ * The cache is cleared when a new catalog is swapped in; the version in the key keeps a response
+ * built from the old catalog while the swap happened from ever being returned for the new one.
+ */
+@Component
+@Slf4j
+public class ResponseCache {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * @param tenant The {@link com.computerx.chatbot.tenant.Tenant#catalogKey() catalog} of the
+     *               tenant asking, which differs from the shared one only if it overrides prices or stock.
+     * @param intent The intent that answered.
+     * @param keyword The keyword the intent extracted from the message.
+     * @param catalogVersion The version of the catalog snapshot the response was built from.
+     */
+    public record Key(String tenant, Intent intent, String keyword, long catalogVersion) {}
+
+    private record Entry(ChatResponse response, long expiresAtNanos) {}
+
+    private final Segment[] segments;
+    private final long ttlNanos;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ResponseCache(@Value("${chatbot.cache.responses.max-entries:10000}") int maxEntries,
+                         @Value("${chatbot.cache.responses.ttl:5m}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        int segmentCount = Math.max(1, Math.min(MAX_SEGMENTS, maxEntries));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = Math.max(0, maxEntries) / segmentCount + (i < Math.max(0, maxEntries) % segmentCount ? 1 : 0);
+            segments[i] = new Segment(capacity);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.hits = Counter.builder("chatbot.cache.responses")
+                .description("Response cache lookups by result")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("chatbot.cache.responses")
+                .description("Response cache lookups by result")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("chatbot.cache.responses.evictions")
+                .description("Responses dropped from the cache to make room")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.cache.responses.size", this, ResponseCache::size)
+                .description("Responses currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached response for the key, or builds it with {@code loader} and caches it.
+     * A null response is returned as is and not cached. Two threads missing on the same key
+     * may both build the response; builders must depend only on the key.
+     */
+    public ChatResponse get(Key key, Supplier<ChatResponse> loader) {
+        Segment segment = segmentFor(key);
+        long now = System.nanoTime();
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (entry != null) {
+                if (now - entry.expiresAtNanos() < 0) {
+                    hits.increment();
+                    return entry.response();
+                }
+                segment.remove(key);
+            }
+        }
+        misses.increment();
+        ChatResponse response = loader.get();
+        if (response != null && segment.capacity > 0) {
+            synchronized (segment) {
+                segment.put(key, new Entry(response, System.nanoTime() + ttlNanos));
+            }
+        }
+        return response;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        int dropped = size();
+        clear();
+        log.debug("Cleared {} cached responses for catalog version {}.", dropped, event.current().version());
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return (long) hits.count();
+    }
+
+    public long missCount() {
+        return (long) misses.count();
+    }
+
+    private Segment segmentFor(Key key) {
+        int hash = key.hashCode();
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    /**
+     * An access-ordered map holding at most {@code capacity} entries; guarded by its own monitor.
+     */
+    private final class Segment extends LinkedHashMap<Key, Entry> {
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
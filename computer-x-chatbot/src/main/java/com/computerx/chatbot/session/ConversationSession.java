@@ -0,0 +1,55 @@
+package com.computerx.chatbot.session;
+
+import com.computerx.chatbot.intent.IntentMatch;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Per-user conversation state. Callers must synchronize on the session while reading or
+ * updating it, so a single conversation is processed one message at a time while different
+ * conversations proceed in parallel.
+ */
+@Getter
+@Setter
+public class ConversationSession {
+
+    private final String id;
+    private String lastQuestion = "";
+    private int repetitionCount = 0;
+    private String userName = null;
+    private boolean waitingForUserName = false;
+    private ListingCursor listingCursor = null;
+    /** Reused to route each message of the conversation, so routing does not allocate per message. */
+    private IntentMatch intentMatch = null;
+
+    @Setter(AccessLevel.NONE)
+    private volatile long lastAccessNanos;
+    /** Requests holding the session; guarded by its {@link SessionStore} segment. */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int users;
+
+    public ConversationSession(String id) {
+        this.id = id;
+        touch();
+    }
+
+    void acquired() {
+        users++;
+        touch();
+    }
+
+    void released() {
+        users--;
+        touch();
+    }
+
+    boolean inUse() {
+        return users > 0;
+    }
+
+    private void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,22 @@
+package com.computerx.chatbot.session;
+
+import com.computerx.chatbot.search.ProductFilter;
+
+/**
+ * Where a conversation is in the product listing it asked for last. Only the query is kept, not
+ * the results: each page is looked up again, so a catalog reload is picked up by the next page.
+ * @param keyword The keyword the user listed products by, or the message a filter was read from.
+ * @param all If true, the listing covers the whole catalog rather than a keyword search.
+ * @param page The 1-based page shown last.
+ * @param filter The structured filter the listing applies instead of a keyword search, or null.
+ */
+public record ListingCursor(String keyword, boolean all, int page, ProductFilter filter) {
+
+    public ListingCursor(String keyword, boolean all, int page) {
+        this(keyword, all, page, null);
+    }
+
+    public ListingCursor withPage(int page) {
+        return new ListingCursor(keyword, all, page, filter);
+    }
+}
@@ -0,0 +1,178 @@
+package com.computerx.chatbot.session;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent store of conversation sessions keyed by session id.
+ * <p>
+ * Sessions are spread over segments by id hash, each an access-ordered map guarded by its own
+ * monitor. Once a segment holds its share of {@code chatbot.session.max-sessions}, creating a
+ * session drops the least recently used one in that segment, so eviction is LRU per segment and
+ * costs nothing like a scan of all sessions. Sessions idle for longer than
+ * {@code chatbot.session.idle-timeout} are dropped by a background sweep, which walks each segment
+ * from its oldest session and stops at the first one still fresh.
+ * <p>
+ * A session is in use from {@link #acquire} until {@link #release}, and neither eviction touches
+ * it meanwhile, so a conversation never ends up split over two session objects. A segment may
+ * briefly exceed its share when all its sessions are in use.
+ */
+@Component
+@Slf4j
+public class SessionStore {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final long idleTimeoutNanos;
+    private final ScheduledExecutorService sweeper;
+
+    public SessionStore(@Value("${chatbot.session.idle-timeout:30m}") Duration idleTimeout,
+                        @Value("${chatbot.session.max-sessions:10000}") int maxSessions) {
+        int segmentCount = Math.max(1, Math.min(MAX_SEGMENTS, maxSessions));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = Math.max(1, maxSessions / segmentCount + (i < maxSessions % segmentCount ? 1 : 0));
+            segments[i] = new Segment(capacity);
+        }
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1_000, idleTimeout.toMillis() / 4);
+        sweeper.scheduleAtFixedRate(this::evictIdleSessions, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the session for the given id, creating it if needed, marks it as recently used and
+     * keeps it from being evicted until it is {@link #release released}.
+     */
+    public ConversationSession acquire(String sessionId) {
+        Segment segment = segmentFor(sessionId);
+        synchronized (segment) {
+            ConversationSession session = segment.get(sessionId);
+            if (session == null) {
+                session = new ConversationSession(sessionId);
+                segment.put(sessionId, session);
+                session.acquired();
+                segment.evictLeastRecentlyUsed();
+            } else {
+                session.acquired();
+            }
+            return session;
+        }
+    }
+
+    /**
+     * Ends one use of a session returned by {@link #acquire}.
+     */
+    public void release(ConversationSession session) {
+        Segment segment = segmentFor(session.getId());
+        synchronized (segment) {
+            session.released();
+            // Moves the session to the young end of the segment, as its last access now is.
+            segment.get(session.getId());
+        }
+    }
+
+    /**
+     * Ends one use of a session returned by {@link #acquire} and removes the session, unless it has
+     * been acquired again meanwhile: the conversation then carries on in it rather than losing the
+     * state the other use is building.
+     */
+    public void releaseAndRemove(ConversationSession session) {
+        Segment segment = segmentFor(session.getId());
+        synchronized (segment) {
+            session.released();
+            if (!session.inUse()) {
+                segment.remove(session.getId(), session);
+            }
+        }
+    }
+
+    public void remove(String sessionId) {
+        Segment segment = segmentFor(sessionId);
+        synchronized (segment) {
+            segment.remove(sessionId);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    void evictIdleSessions() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                Iterator<ConversationSession> oldestFirst = segment.values().iterator();
+                while (oldestFirst.hasNext()) {
+                    ConversationSession session = oldestFirst.next();
+                    if (now - session.getLastAccessNanos() <= idleTimeoutNanos) {
+                        break;
+                    }
+                    if (!session.inUse()) {
+                        oldestFirst.remove();
+                        evicted++;
+                    }
+                }
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle sessions, {} remaining.", evicted, size());
+        }
+    }
+
+    private Segment segmentFor(String sessionId) {
+        int hash = sessionId.hashCode();
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * An access-ordered map holding about {@code capacity} sessions; guarded by its own monitor.
+     */
+    private static final class Segment extends LinkedHashMap<String, ConversationSession> {
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        /**
+         * Drops the least recently used sessions not in use until the segment is back to capacity.
+         */
+        void evictLeastRecentlyUsed() {
+            Iterator<ConversationSession> oldestFirst = values().iterator();
+            while (size() > capacity && oldestFirst.hasNext()) {
+                if (!oldestFirst.next().inUse()) {
+                    oldestFirst.remove();
+                }
+            }
+        }
+    }
+}
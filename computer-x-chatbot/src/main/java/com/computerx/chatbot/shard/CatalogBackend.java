@@ -0,0 +1,46 @@
+package com.computerx.chatbot.shard;
+
+import com.computerx.chatbot.catalog.CatalogSnapshot;
+import com.computerx.chatbot.model.Product;
+
+import java.util.List;
+
+/**
+ * Answers keyword and typo-tolerant product lookups for {@code KnowledgeBaseService}, either from
+ * the catalog snapshot held in this process ({@link LocalCatalogBackend}) or by fanning out to
+ * several shards ({@link PartitionedCatalogBackend}). Implementations must be thread-safe.
+ */
+public interface CatalogBackend {
+
+    /**
+     * Called with every catalog snapshot swapped in, before queries see it.
+     */
+    void load(CatalogSnapshot snapshot);
+
+    /**
+     * Returns the products whose searchable text contains the keyword or whose category is
+     * contained in it, in catalog order.
+     */
+    List<Product> findProductsByKeyword(String keyword);
+
+    /**
+     * Returns up to {@code limit} products matching the keyword, most relevant first and ties in
+     * catalog order.
+     */
+    List<Product> search(String keyword, int limit);
+
+    /**
+     * Returns up to {@code limit} products within a few typos of the keyword, best match first,
+     * giving up on further candidates after {@code budgetNanos}.
+     */
+    List<Product> findSimilarProducts(String keyword, int limit, long budgetNanos);
+
+    /**
+     * Returns whether lookups are answered from the keyword and fuzzy indexes of the snapshots
+     * passed to {@link #load}. If not, snapshots are built without them, so the catalog is only
+     * indexed where the lookups are answered.
+     */
+    default boolean usesSnapshotIndexes() {
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.computerx.chatbot.shard;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Chooses the {@link CatalogBackend}: the {@link CatalogShard} beans if any are declared, otherwise
+ * {@code chatbot.catalog.shards.count} in-process shards when that is more than one, otherwise the
+ * local snapshot. Declaring a {@link CatalogBackend} bean replaces the choice altogether.
+ */
+@Configuration
+@Slf4j
+public class CatalogBackendConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(CatalogBackend.class)
+    public CatalogBackend catalogBackend(ObjectProvider<CatalogShard> declaredShards,
+                                         @Value("${chatbot.catalog.shards.count:1}") int shardCount,
+                                         @Value("${chatbot.catalog.shards.key:category}") ShardKey shardKey,
+                                         @Value("${chatbot.catalog.shards.timeout:2s}") Duration timeout,
+                                         MeterRegistry meterRegistry) {
+        List<CatalogShard> shards = declaredShards.orderedStream().toList();
+        if (!shards.isEmpty()) {
+            log.info("Querying {} declared catalog shards: {}", shards.size(),
+                    shards.stream().map(CatalogShard::name).toList());
+            return PartitionedCatalogBackend.of(shards, timeout, meterRegistry);
+        }
+        if (shardCount > 1) {
+            log.info("Splitting the catalog into {} in-process shards by {}", shardCount, shardKey);
+            return PartitionedCatalogBackend.inProcess(shardCount, shardKey, timeout, meterRegistry);
+        }
+        return new LocalCatalogBackend();
+    }
+}
@@ -0,0 +1,52 @@
+package com.computerx.chatbot.shard;
+
+import java.util.List;
+
+/**
+ * One partition of the catalog, queried by {@link PartitionedCatalogBackend}.
+ * <p>
+ * {@link InProcessShard} indexes its partition in this JVM. To move the search indexes, the bulk of
+ * a large catalog's memory, out of this heap, implement this interface as a client of a shard
+ * running elsewhere and declare the clients as Spring beans of this type; the partitioned backend
+ * then queries them instead of building shards in process. This process still keeps the products
+ * for filters and category views, which a columnar {@code chatbot.catalog.store} keeps compact.
+ * A remote implementation must:
+ * <ul>
+ *   <li>hold a disjoint part of the catalog, loaded and reloaded by the shard itself: the backend
+ *       does not push catalog snapshots to remote shards;</li>
+ *   <li>report every product with its {@link ShardHit#position() position} in the whole catalog,
+ *       the same on every shard, since results are merged and tie-broken by position;</li>
+ *   <li>order and score results as documented on each method, computing scores as
+ *       {@link com.computerx.chatbot.search.ProductIndex#score} does, so merged results equal those
+ *       of a single index;</li>
+ *   <li>be thread-safe, and return rather than block indefinitely: a shard that throws or misses
+ *       {@code chatbot.catalog.shards.timeout} is left out of that query's results, is logged and
+ *       counted in {@code chatbot.catalog.shard.failures}, and does not fail the query.</li>
+ * </ul>
+ * Calls are made from a pool of at least one thread per shard, so a blocking network client is fine.
+ */
+public interface CatalogShard {
+
+    /**
+     * Names the shard in logs and metrics.
+     */
+    String name();
+
+    /**
+     * Returns the products whose searchable text contains the keyword or whose category is
+     * contained in it, in position order.
+     */
+    List<ShardHit> findByKeyword(String keyword);
+
+    /**
+     * Returns the {@code limit} matches of {@link #findByKeyword} with the highest scores, by
+     * descending score and then position, with their scores.
+     */
+    List<ShardHit> search(String keyword, int limit);
+
+    /**
+     * Returns up to {@code limit} products within a few typos of the keyword, best match first.
+     * Stops looking after {@code budgetNanos}, returning what it found so far.
+     */
+    List<ShardHit> findSimilar(String keyword, int limit, long budgetNanos);
+}
@@ -0,0 +1,77 @@
+package com.computerx.chatbot.shard;
+
+import com.computerx.chatbot.model.Product;
+import com.computerx.chatbot.search.FuzzyIndex;
+import com.computerx.chatbot.search.ProductIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A shard indexing its partition of the catalog in this JVM.
+ */
+public final class InProcessShard implements CatalogShard {
+
+    private final String name;
+    private final List<Product> products;
+    private final long[] positions;
+    private final ProductIndex index;
+    private final FuzzyIndex fuzzyIndex;
+
+    /**
+     * Builds the shard's keyword and fuzzy indexes.
+     * @param products The partition, in catalog order.
+     * @param positions The catalog position of each product of the partition, ascending.
+     * @param retainTexts Whether the keyword index keeps its own copy of the searchable texts;
+     *                    see {@link ProductIndex#build(List, boolean)}.
+     */
+    public InProcessShard(String name, List<Product> products, long[] positions, boolean retainTexts) {
+        if (products.size() != positions.length) {
+            throw new IllegalArgumentException(products.size() + " products but " + positions.length + " positions");
+        }
+        this.name = name;
+        this.products = products;
+        this.positions = positions;
+        this.index = ProductIndex.build(products, retainTexts);
+        this.fuzzyIndex = FuzzyIndex.build(products);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    @Override
+    public List<ShardHit> findByKeyword(String keyword) {
+        int[] ids = index.search(keyword);
+        List<ShardHit> hits = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            hits.add(new ShardHit(positions[id], 0, products.get(id)));
+        }
+        return hits;
+    }
+
+    @Override
+    public List<ShardHit> search(String keyword, int limit) {
+        int[] ids = index.rank(index.search(keyword), keyword, limit);
+        List<ShardHit> hits = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            hits.add(new ShardHit(positions[id], index.score(id, keyword), products.get(id)));
+        }
+        return hits;
+    }
+
+    @Override
+    public List<ShardHit> findSimilar(String keyword, int limit, long budgetNanos) {
+        int[] ids = fuzzyIndex.search(keyword, limit, budgetNanos);
+        List<ShardHit> hits = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            hits.add(new ShardHit(positions[id], 0, products.get(id)));
+        }
+        return hits;
+    }
+}
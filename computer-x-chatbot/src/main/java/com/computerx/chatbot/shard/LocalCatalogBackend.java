@@ -0,0 +1,46 @@
+package com.computerx.chatbot.shard;
+
+import com.computerx.chatbot.catalog.CatalogSnapshot;
+import com.computerx.chatbot.model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers lookups from the indexes of the whole catalog snapshot in this process.
+ */
+public class LocalCatalogBackend implements CatalogBackend {
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+
+    @Override
+    public void load(CatalogSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public List<Product> findProductsByKeyword(String keyword) {
+        CatalogSnapshot current = snapshot;
+        return products(current, current.index().search(keyword));
+    }
+
+    @Override
+    public List<Product> search(String keyword, int limit) {
+        CatalogSnapshot current = snapshot;
+        return products(current, current.index().rank(current.index().search(keyword), keyword, limit));
+    }
+
+    @Override
+    public List<Product> findSimilarProducts(String keyword, int limit, long budgetNanos) {
+        CatalogSnapshot current = snapshot;
+        return products(current, current.fuzzyIndex().search(keyword, limit, budgetNanos));
+    }
+
+    private static List<Product> products(CatalogSnapshot snapshot, int[] ids) {
+        List<Product> found = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            found.add(snapshot.products().get(id));
+        }
+        return found;
+    }
+}
@@ -0,0 +1,284 @@
+package com.computerx.chatbot.shard;
+
+import com.computerx.chatbot.catalog.CatalogSnapshot;
+import com.computerx.chatbot.catalog.ColumnarProductList;
+import com.computerx.chatbot.model.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Spreads the catalog over several {@link CatalogShard shards} and answers each lookup by querying
+ * all of them in parallel and merging their results.
+ * <p>
+ * Keyword matches are merged by catalog position and ranked results by score and then position,
+ * so both equal what one index over the whole catalog returns. Typo-tolerant results are ranked
+ * within each shard only and merged by taking each shard's best remaining match in turn.
+ * <p>
+ * In-process shards are rebuilt from every catalog snapshot loaded, partitioned by {@link ShardKey}
+ * and indexed in parallel; shards given to {@link #of} load their partitions themselves. A shard
+ * that fails or misses the timeout is left out of the results of that query.
+ */
+@Slf4j
+public class PartitionedCatalogBackend implements CatalogBackend, AutoCloseable {
+
+    private static final Comparator<ShardHit> BY_RELEVANCE = Comparator.comparingInt(ShardHit::score).reversed()
+            .thenComparingLong(ShardHit::position);
+
+    /** How in-process shards are partitioned, or null if the shards are given. */
+    private final ShardKey shardKey;
+    private final int shardCount;
+    private final long timeoutNanos;
+    private final MeterRegistry meterRegistry;
+    private final Timer scatterTimer;
+    private final ExecutorService executor;
+    private volatile List<CatalogShard> shards;
+
+    private PartitionedCatalogBackend(ShardKey shardKey, int shardCount, List<CatalogShard> shards, Duration timeout,
+                                      MeterRegistry meterRegistry) {
+        this.shardKey = shardKey;
+        this.shardCount = shardCount;
+        this.shards = shards;
+        this.timeoutNanos = timeout.toNanos();
+        this.meterRegistry = meterRegistry;
+        // Platform threads: callers such as ChatService query while holding a session's monitor,
+        // which pins a virtual caller to its carrier and could leave none to run virtual shard tasks.
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(shardCount, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread thread = new Thread(r, "catalog-shard-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scatterTimer = Timer.builder("chatbot.catalog.shards.query")
+                .description("Time to query every shard and merge their results")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates a backend that splits every loaded catalog into {@code shardCount} shards in this JVM.
+     */
+    public static PartitionedCatalogBackend inProcess(int shardCount, ShardKey shardKey, Duration timeout,
+                                                      MeterRegistry meterRegistry) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        return new PartitionedCatalogBackend(shardKey, shardCount, List.of(), timeout, meterRegistry);
+    }
+
+    /**
+     * Creates a backend over shards that hold and reload their own partitions, such as remote shards.
+     */
+    public static PartitionedCatalogBackend of(List<CatalogShard> shards, Duration timeout, MeterRegistry meterRegistry) {
+        return new PartitionedCatalogBackend(null, shards.size(), List.copyOf(shards), timeout, meterRegistry);
+    }
+
+    public List<CatalogShard> shards() {
+        return shards;
+    }
+
+    @Override
+    public void load(CatalogSnapshot snapshot) {
+        if (shardKey == null) {
+            return;
+        }
+        List<Product> products = snapshot.products();
+        int[] shardOf = new int[products.size()];
+        int[] sizes = new int[shardCount];
+        for (int position = 0; position < products.size(); position++) {
+            shardOf[position] = shardKey.shardOf(products.get(position), shardCount);
+            sizes[shardOf[position]]++;
+        }
+        long[][] positions = new long[shardCount][];
+        for (int shard = 0; shard < shardCount; shard++) {
+            positions[shard] = new long[sizes[shard]];
+        }
+        int[] filled = new int[shardCount];
+        for (int position = 0; position < shardOf.length; position++) {
+            int shard = shardOf[position];
+            positions[shard][filled[shard]++] = position;
+        }
+
+        // Columnar lists materialize products on access, so shards view them rather than copy.
+        boolean retainTexts = !(products instanceof ColumnarProductList);
+        List<Callable<CatalogShard>> builds = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            String name = "shard-" + shard;
+            long[] shardPositions = positions[shard];
+            builds.add(() -> new InProcessShard(name, new Partition(products, shardPositions), shardPositions, retainTexts));
+        }
+        List<CatalogShard> built = new ArrayList<>(shardCount);
+        try {
+            for (Future<CatalogShard> shard : executor.invokeAll(builds)) {
+                built.add(shard.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building catalog shards", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to build catalog shards", e.getCause());
+        }
+        shards = List.copyOf(built);
+        log.info("Catalog version {} split by {} into {} shards of {} products", snapshot.version(), shardKey,
+                shardCount, Arrays.toString(sizes));
+    }
+
+    /**
+     * Returns false: the shards index their own partitions.
+     */
+    @Override
+    public boolean usesSnapshotIndexes() {
+        return false;
+    }
+
+    @Override
+    public List<Product> findProductsByKeyword(String keyword) {
+        List<List<ShardHit>> results = scatter(shard -> shard.findByKeyword(keyword));
+        PriorityQueue<ListCursor> cursors = new PriorityQueue<>(Comparator.comparingLong(ListCursor::position));
+        int total = 0;
+        for (List<ShardHit> hits : results) {
+            if (!hits.isEmpty()) {
+                cursors.add(new ListCursor(hits));
+                total += hits.size();
+            }
+        }
+        List<Product> merged = new ArrayList<>(total);
+        while (!cursors.isEmpty()) {
+            ListCursor cursor = cursors.poll();
+            merged.add(cursor.next().product());
+            if (cursor.hasNext()) {
+                cursors.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public List<Product> search(String keyword, int limit) {
+        List<ShardHit> hits = new ArrayList<>();
+        scatter(shard -> shard.search(keyword, limit)).forEach(hits::addAll);
+        hits.sort(BY_RELEVANCE);
+        return hits.stream().limit(limit).map(ShardHit::product).toList();
+    }
+
+    @Override
+    public List<Product> findSimilarProducts(String keyword, int limit, long budgetNanos) {
+        List<List<ShardHit>> results = scatter(shard -> shard.findSimilar(keyword, limit, budgetNanos));
+        List<Product> merged = new ArrayList<>();
+        for (int rank = 0; merged.size() < limit; rank++) {
+            boolean any = false;
+            for (List<ShardHit> hits : results) {
+                if (rank < hits.size() && merged.size() < limit) {
+                    merged.add(hits.get(rank).product());
+                    any = true;
+                }
+            }
+            if (!any) {
+                break;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Runs the query on every shard in parallel and returns the results of those that answered in time.
+     */
+    private List<List<ShardHit>> scatter(Function<CatalogShard, List<ShardHit>> query) {
+        long start = System.nanoTime();
+        List<CatalogShard> current = shards;
+        List<Future<List<ShardHit>>> futures = new ArrayList<>(current.size());
+        for (CatalogShard shard : current) {
+            futures.add(executor.submit(() -> query.apply(shard)));
+        }
+        long deadline = start + timeoutNanos;
+        List<List<ShardHit>> results = new ArrayList<>(current.size());
+        for (int i = 0; i < futures.size(); i++) {
+            Future<List<ShardHit>> future = futures.get(i);
+            try {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (ExecutionException e) {
+                failed(current.get(i), e.getCause());
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                failed(current.get(i), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                break;
+            }
+        }
+        scatterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return results;
+    }
+
+    private void failed(CatalogShard shard, Throwable cause) {
+        Counter.builder("chatbot.catalog.shard.failures")
+                .description("Shard queries that failed or timed out and were left out of the results")
+                .tag("shard", shard.name())
+                .register(meterRegistry)
+                .increment();
+        log.warn("Catalog shard {} left out of a query: {}", shard.name(),
+                cause instanceof TimeoutException ? "no answer within " + timeoutNanos / 1_000_000 + " ms" : cause.toString());
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The products of one shard, read through from the catalog list.
+     */
+    private static final class Partition extends AbstractList<Product> implements RandomAccess {
+
+        private final List<Product> products;
+        private final long[] positions;
+
+        Partition(List<Product> products, long[] positions) {
+            this.products = products;
+            this.positions = positions;
+        }
+
+        @Override
+        public Product get(int index) {
+            return products.get((int) positions[index]);
+        }
+
+        @Override
+        public int size() {
+            return positions.length;
+        }
+    }
+
+    /**
+     * Reads one shard's keyword matches during the merge.
+     */
+    private static final class ListCursor {
+
+        private final List<ShardHit> hits;
+        private int next;
+
+        ListCursor(List<ShardHit> hits) {
+            this.hits = hits;
+        }
+
+        long position() {
+            return hits.get(next).position();
+        }
+
+        ShardHit next() {
+            return hits.get(next++);
+        }
+
+        boolean hasNext() {
+            return next < hits.size();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.computerx.chatbot.shard;
+
+import com.computerx.chatbot.model.Product;
+
+/**
+ * A product found by one shard.
+ * @param position The product's position in the whole catalog, which orders results across shards.
+ * @param score The product's relevance to the keyword; only meaningful in {@link CatalogShard#search} results.
+ * @param product The product.
+ */
+public record ShardHit(long position, int score, Product product) {}
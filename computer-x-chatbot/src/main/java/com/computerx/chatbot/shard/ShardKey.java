@@ -0,0 +1,23 @@
+package com.computerx.chatbot.shard;
+
+import com.computerx.chatbot.model.Product;
+
+import java.util.Locale;
+
+/**
+ * How products are assigned to in-process shards.
+ */
+public enum ShardKey
+{
+    /** Every product of a category on the same shard; shard sizes follow the category sizes. */
+    CATEGORY,
+    /** Products spread evenly by a hash of their name and brand. */
+    HASH;
+
+    public int shardOf(Product product, int shardCount) {
+        int hash = this == CATEGORY
+                ? product.category().toLowerCase(Locale.ROOT).hashCode()
+                : 31 * product.name().hashCode() + product.brand().hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+}
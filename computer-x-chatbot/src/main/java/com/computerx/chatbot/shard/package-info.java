@@ -0,0 +1,18 @@
+/**
+ * Pluggable backends for product lookups, so the catalog can be split over several shards.
+ * <p>
+ * {@link com.computerx.chatbot.shard.CatalogBackend} answers the keyword, ranked and typo-tolerant
+ * lookups behind product listings and price and stock questions. {@link com.computerx.chatbot.shard.LocalCatalogBackend}
+ * uses the catalog snapshot of this process; {@link com.computerx.chatbot.shard.PartitionedCatalogBackend}
+ * scatters each lookup over {@link com.computerx.chatbot.shard.CatalogShard shards} and gathers the
+ * results. Shards are either built in process ({@code chatbot.catalog.shards.count} greater than
+ * one, partitioned by {@code chatbot.catalog.shards.key}), which exercises the whole path on one
+ * machine, or declared as {@link com.computerx.chatbot.shard.CatalogShard} beans, the service
+ * provider interface for shards in other processes; its documentation lists what such a shard
+ * must guarantee.
+ * <p>
+ * Filters, category views and the listing of all products are still served from the local
+ * snapshot, which therefore keeps every product. With a partitioned backend it is built without
+ * keyword and fuzzy indexes, which are left to the shards, so the catalog is indexed once.
+ */
+package com.computerx.chatbot.shard;
@@ -0,0 +1,213 @@
+package com.computerx.chatbot.tenant;
+
+import com.computerx.chatbot.catalog.CatalogSnapshot;
+import com.computerx.chatbot.model.Product;
+import com.computerx.chatbot.search.ProductFilter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A tenant's prices and stock statuses that differ from the shared catalog, keyed by product name.
+ * Only the overridden products are stored: searches run on the shared snapshot's indexes, and the
+ * products they find are overlaid before they are shown, so an overlay costs memory in proportion
+ * to its rows rather than to the catalog.
+ * <p>
+ * The file has a {@code name,price,stock} header and one row per product. An empty price or stock
+ * keeps the catalog's, and names may contain commas, since price and stock are the last two fields.
+ */
+@Slf4j
+public final class CatalogOverlay {
+
+    public static final CatalogOverlay EMPTY = new CatalogOverlay(Map.of(), "no overlay");
+
+    /**
+     * @param price The price to show instead of the catalog's, or NaN to keep it.
+     * @param stock The stock status to show instead of the catalog's, or null to keep it.
+     */
+    private record Replacement(double price, String stock) {}
+
+    /**
+     * @param snapshot The catalog snapshot the ids are in.
+     * @param ids The ids of the overridden products in it, ascending.
+     */
+    private record Resolved(CatalogSnapshot snapshot, int[] ids) {}
+
+    private final Map<String, Replacement> byName;
+    private final String source;
+    private volatile Resolved resolved;
+
+    private CatalogOverlay(Map<String, Replacement> byName, String source) {
+        this.byName = byName;
+        this.source = source;
+    }
+
+    /**
+     * Reads an overlay file. Malformed rows are logged with their line numbers and skipped.
+     */
+    public static CatalogOverlay read(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader, file.toString());
+        }
+    }
+
+    static CatalogOverlay parse(BufferedReader reader, String source) throws IOException {
+        Map<String, Replacement> byName = new HashMap<>();
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || lineNumber == 1 && line.trim().toLowerCase(Locale.ROOT).startsWith("name,")) {
+                continue;
+            }
+            int stockComma = line.lastIndexOf(',');
+            int priceComma = stockComma <= 0 ? -1 : line.lastIndexOf(',', stockComma - 1);
+            String name = priceComma <= 0 ? "" : unquote(line.substring(0, priceComma));
+            if (name.isEmpty()) {
+                log.warn("Skipped catalog overlay row at line {} of {}: expected name,price,stock", lineNumber, source);
+                continue;
+            }
+            String price = line.substring(priceComma + 1, stockComma).trim();
+            String stock = unquote(line.substring(stockComma + 1));
+            try {
+                byName.put(name, new Replacement(price.isEmpty() ? Double.NaN : Double.parseDouble(price),
+                        stock.isEmpty() ? null : stock));
+            } catch (NumberFormatException e) {
+                log.warn("Skipped catalog overlay row at line {} of {}: bad price '{}'", lineNumber, source, price);
+            }
+        }
+        return byName.isEmpty() ? EMPTY : new CatalogOverlay(Map.copyOf(byName), source);
+    }
+
+    private static String unquote(String field) {
+        String trimmed = field.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).replace("\"\"", "\"").trim();
+        }
+        return trimmed;
+    }
+
+    public boolean isEmpty() {
+        return byName.isEmpty();
+    }
+
+    /**
+     * Returns how many products the overlay overrides.
+     */
+    public int size() {
+        return byName.size();
+    }
+
+    /**
+     * Returns the product as this tenant sells it: the same instance when it is not overridden.
+     */
+    public Product apply(Product product) {
+        Replacement replacement = byName.get(product.name());
+        if (replacement == null) {
+            return product;
+        }
+        return new Product(product.category(), product.name(), product.brand(),
+                Double.isNaN(replacement.price()) ? product.price() : replacement.price(),
+                replacement.stock() == null ? product.stock() : replacement.stock(),
+                product.description(), product.attributes());
+    }
+
+    public List<Product> apply(List<Product> products) {
+        if (isEmpty()) {
+            return products;
+        }
+        List<Product> applied = new ArrayList<>(products.size());
+        for (Product product : products) {
+            applied.add(apply(product));
+        }
+        return applied;
+    }
+
+    /**
+     * Returns the rendered card of the product, with its overridden values if any.
+     */
+    public String card(Product product) {
+        return apply(product).toString();
+    }
+
+    /**
+     * Returns the rendered card of the product with the given id: the snapshot's shared card,
+     * unless the product is overridden.
+     */
+    public String card(CatalogSnapshot snapshot, int id) {
+        if (isEmpty() || Arrays.binarySearch(ids(snapshot), id) < 0) {
+            return snapshot.views().card(id);
+        }
+        return apply(snapshot.products().get(id)).toString();
+    }
+
+    /**
+     * Corrects the ids the snapshot's indexes found for a filter to the overridden prices and stock
+     * statuses: overridden products are dropped from {@code matched} or added to it as their
+     * overridden values decide. Filters on neither are returned as they are.
+     * @param matched The ids satisfying the filter in the snapshot, in catalog order.
+     * @return The ids satisfying the filter for this tenant, in catalog order.
+     */
+    public int[] filter(CatalogSnapshot snapshot, ProductFilter filter, int[] matched) {
+        if (isEmpty() || !filter.hasPriceRange() && filter.inStock() == null) {
+            return matched;
+        }
+        int[] overridden = ids(snapshot);
+        int[] result = new int[matched.length + overridden.length];
+        int size = 0;
+        int i = 0;
+        for (int id : overridden) {
+            while (i < matched.length && matched[i] < id) {
+                result[size++] = matched[i++];
+            }
+            if (i < matched.length && matched[i] == id) {
+                i++;
+            }
+            if (filter.matches(apply(snapshot.products().get(id)))) {
+                result[size++] = id;
+            }
+        }
+        while (i < matched.length) {
+            result[size++] = matched[i++];
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Returns the ids of the overridden products in the snapshot, finding them by name once per snapshot.
+     */
+    private int[] ids(CatalogSnapshot snapshot) {
+        Resolved current = resolved;
+        if (current != null && current.snapshot() == snapshot) {
+            return current.ids();
+        }
+        List<String> names = snapshot.views().productNames();
+        // Sized for the overrides rather than the catalog; only grows if names repeat in the catalog.
+        int[] ids = new int[byName.size()];
+        int count = 0;
+        Set<String> found = new HashSet<>();
+        for (int id = 0; id < names.size(); id++) {
+            String name = names.get(id);
+            if (byName.containsKey(name)) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = id;
+                found.add(name);
+            }
+        }
+        if (found.size() < byName.size()) {
+            log.warn("{} of the {} products in {} are not in catalog version {}", byName.size() - found.size(),
+                    byName.size(), source, snapshot.version());
+        }
+        int[] resolvedIds = Arrays.copyOf(ids, count);
+        // Racing threads may both resolve the ids; they find equal arrays, so either may win.
+        resolved = new Resolved(snapshot, resolvedIds);
+        return resolvedIds;
+    }
+}
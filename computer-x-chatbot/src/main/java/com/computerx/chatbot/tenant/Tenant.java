@@ -0,0 +1,42 @@
+package com.computerx.chatbot.tenant;
+
+import com.computerx.chatbot.learning.LearnedResponses;
+import com.computerx.chatbot.text.TextTable;
+
+/**
+ * A storefront served by this bot, holding only what it adds to the shared knowledge base: the
+ * catalog snapshot with its indexes, the shared small talk and the shared learned answers are
+ * read through by every tenant.
+ * @param id The tenant id requests are routed by.
+ * @param smallTalk Small talk answers by normalized phrase, replacing or adding to the shared ones.
+ * @param learned The answers taught to this tenant, looked up before the shared ones. The default
+ *                tenant's are the shared ones.
+ * @param overlay The prices and stock statuses that differ from the shared catalog.
+ */
+public record Tenant(String id, TextTable<String> smallTalk, LearnedResponses learned, CatalogOverlay overlay) {
+
+    /** The tenant of requests that name none, which serves the shared knowledge base as is. */
+    public static final String DEFAULT_ID = "default";
+
+    public boolean isDefault() {
+        return id.equals(DEFAULT_ID);
+    }
+
+    /**
+     * Returns the key of the conversation {@code sessionId} of this tenant in the session store,
+     * so two tenants' clients never continue each other's conversations. Every tenant, the default
+     * one included, prefixes its id and a colon, which ids cannot contain, so no session id can
+     * reach into another tenant's keys.
+     */
+    public String sessionKey(String sessionId) {
+        return id + ':' + sessionId;
+    }
+
+    /**
+     * Identifies the catalog as this tenant sees it. Tenants without price or stock overrides see
+     * the shared catalog, and share the responses cached for it.
+     */
+    public String catalogKey() {
+        return overlay.isEmpty() ? DEFAULT_ID : id;
+    }
+}
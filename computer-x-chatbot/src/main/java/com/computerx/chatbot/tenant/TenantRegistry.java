@@ -0,0 +1,137 @@
+package com.computerx.chatbot.tenant;
+
+import com.computerx.chatbot.learning.LearnedResponseJournal;
+import com.computerx.chatbot.learning.LearnedResponses;
+import com.computerx.chatbot.service.KnowledgeBaseService;
+import com.computerx.chatbot.text.TextTable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the tenant a request is routed to.
+ * <p>
+ * Each tenant other than the default one is a directory under {@code chatbot.tenants.directory}
+ * named by its id, holding any of {@code smalltalk.properties}, {@code catalog-overlay.csv} and
+ * the {@code learned.journal} its taught answers are written to. A tenant is loaded on its first
+ * request and kept until shutdown; ids without a directory are unknown, so clients cannot make
+ * the bot load tenants that were never set up.
+ */
+@Component
+@Slf4j
+public class TenantRegistry {
+
+    static final String SMALLTALK_FILE = "smalltalk.properties";
+    static final String OVERLAY_FILE = "catalog-overlay.csv";
+    static final String JOURNAL_FILE = "learned.journal";
+    /** Ids are directory names, so they are kept to characters that cannot leave the directory. */
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9_-]{0,63}");
+
+    private final LearnedResponseJournal learnedJournal;
+    private final Path directory;
+    private final Tenant defaultTenant;
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+
+    public TenantRegistry(@Value("${chatbot.tenants.directory:}") String directory,
+                          KnowledgeBaseService knowledgeBase,
+                          LearnedResponseJournal learnedJournal,
+                          MeterRegistry meterRegistry) {
+        this.learnedJournal = learnedJournal;
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory.trim());
+        this.defaultTenant = new Tenant(Tenant.DEFAULT_ID, new TextTable<>(), knowledgeBase.getLearned(),
+                CatalogOverlay.EMPTY);
+        Gauge.builder("chatbot.tenants.loaded", tenants, Map::size)
+                .description("Tenants loaded besides the default one")
+                .register(meterRegistry);
+    }
+
+    public Tenant defaultTenant() {
+        return defaultTenant;
+    }
+
+    /**
+     * Returns the tenant with the given id, loading it on first use, or empty if there is no such
+     * tenant. A null or blank id names the default tenant.
+     */
+    public Optional<Tenant> find(String tenantId) {
+        if (tenantId == null || tenantId.isBlank() || tenantId.equals(Tenant.DEFAULT_ID)) {
+            return Optional.of(defaultTenant);
+        }
+        Tenant tenant = tenants.get(tenantId);
+        if (tenant != null) {
+            return Optional.of(tenant);
+        }
+        if (directory == null || !TENANT_ID.matcher(tenantId).matches()
+                || !Files.isDirectory(directory.resolve(tenantId))) {
+            return Optional.empty();
+        }
+        return Optional.of(tenants.computeIfAbsent(tenantId, this::load));
+    }
+
+    /**
+     * Returns how many tenants besides the default one are loaded.
+     */
+    public int size() {
+        return tenants.size();
+    }
+
+    private Tenant load(String tenantId) {
+        Path tenantDirectory = directory.resolve(tenantId);
+        TextTable<String> smallTalk = loadSmallTalk(tenantDirectory.resolve(SMALLTALK_FILE));
+        CatalogOverlay overlay = loadOverlay(tenantDirectory.resolve(OVERLAY_FILE));
+        LearnedResponses learned = new LearnedResponses(learnedJournal.withPath(tenantDirectory.resolve(JOURNAL_FILE)));
+        try {
+            learned.open();
+        } catch (IOException e) {
+            log.error("Failed to open learned-response journal of tenant {}. New answers will not be saved.",
+                    tenantId, e);
+        }
+        log.info("Loaded tenant {}: {} small talk answers, {} learned responses, {} price and stock overrides",
+                tenantId, smallTalk.size(), learned.size(), overlay.size());
+        return new Tenant(tenantId, smallTalk, learned, overlay);
+    }
+
+    private static TextTable<String> loadSmallTalk(Path file) {
+        if (!Files.exists(file)) {
+            return new TextTable<>();
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            log.error("Failed to load small talk properties: {}", file, e);
+            return new TextTable<>();
+        }
+        return KnowledgeBaseService.indexSmallTalk(properties);
+    }
+
+    private static CatalogOverlay loadOverlay(Path file) {
+        if (!Files.exists(file)) {
+            return CatalogOverlay.EMPTY;
+        }
+        try {
+            return CatalogOverlay.read(file);
+        } catch (IOException e) {
+            log.error("Failed to load catalog overlay {}. Serving the shared prices and stock.", file, e);
+            return CatalogOverlay.EMPTY;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        tenants.values().forEach(tenant -> tenant.learned().journal().close());
+    }
+}
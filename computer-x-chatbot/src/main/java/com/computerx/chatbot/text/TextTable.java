@@ -0,0 +1,124 @@
+package com.computerx.chatbot.text;
+
+/**
+ * A hash table from strings to values that can be looked up by any span of a
+ * {@link CharSequence}, such as one token of a {@link TokenBuffer}, without creating a string
+ * for the key. Keys are compared exactly, so callers store and look up normalized text.
+ * <p>
+ * Not thread-safe: build the table before sharing it, guard it with a lock, or change a
+ * {@link #copy} and publish that instead.
+ */
+public final class TextTable<V> {
+
+    private String[] keys = new String[16];
+    private Object[] values = new Object[16];
+    private int size;
+
+    /**
+     * Maps the key to the value and returns the value it replaced, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(String key, V value) {
+        int slot = slot(key, 0, key.length());
+        if (keys[slot] != null) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return null;
+    }
+
+    public V get(CharSequence text) {
+        return get(text, 0, text.length());
+    }
+
+    /**
+     * Returns the value of the key equal to {@code text[start, end)}, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(CharSequence text, int start, int end) {
+        return (V) values[slot(text, start, end)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a table with the same mappings, which can be changed without affecting this one.
+     */
+    public TextTable<V> copy() {
+        TextTable<V> copy = new TextTable<>();
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Returns the slot holding the key equal to the span, or the empty slot where it would go.
+     */
+    private int slot(CharSequence text, int start, int end) {
+        int mask = keys.length - 1;
+        int slot = mix(hash(text, start, end)) & mask;
+        String key;
+        while ((key = keys[slot]) != null && !equals(key, text, start, end)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new String[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slot(oldKeys[i], 0, oldKeys[i].length());
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Hashes the span as {@link String#hashCode} hashes the equal string.
+     */
+    static int hash(CharSequence text, int start, int end) {
+        if (text instanceof String string && start == 0 && end == string.length()) {
+            return string.hashCode();
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Spreads the hash over the table. Short words and numbers have string hashes close to each
+     * other, which would otherwise fill runs of neighbouring slots and lengthen every probe.
+     */
+    private static int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    private static boolean equals(String key, CharSequence text, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
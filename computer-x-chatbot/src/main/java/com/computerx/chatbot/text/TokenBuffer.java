@@ -0,0 +1,136 @@
+package com.computerx.chatbot.text;
+
+import java.util.Arrays;
+
+/**
+ * A message normalized for matching, kept in reusable arrays.
+ * <p>
+ * {@link #normalize} makes one pass over the input: letters are lowercased, runs of whitespace
+ * and punctuation become single spaces, and leading and trailing ones are dropped. Punctuation
+ * between two letters or digits is kept, so "G.Skill", "i7-13700K" and "don't" stay one token.
+ * The result is read as a {@link CharSequence} and through the bounds of its tokens, the
+ * space-separated words. Normalizing again reuses the arrays, so a buffer kept per conversation
+ * normalizes its messages without allocating once it has grown to their length.
+ * <p>
+ * Not thread-safe.
+ */
+public final class TokenBuffer implements CharSequence {
+
+    private char[] text = new char[64];
+    private int length;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int tokenCount;
+    /** The text as a string, created on first use after each {@link #normalize}. */
+    private String string;
+
+    /**
+     * Replaces the contents with the normalized form of {@code input} and returns this buffer.
+     */
+    public TokenBuffer normalize(CharSequence input) {
+        length = 0;
+        tokenCount = 0;
+        string = null;
+        int inputLength = input.length();
+        if (text.length < inputLength) {
+            text = new char[Math.max(inputLength, text.length * 2)];
+        }
+        boolean inToken = false;
+        for (int i = 0; i < inputLength; i++) {
+            char c = input.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (!inToken) {
+                    if (length > 0) {
+                        text[length++] = ' ';
+                    }
+                    startToken();
+                    inToken = true;
+                }
+                text[length++] = c < 128 ? (c >= 'A' && c <= 'Z' ? (char) (c + 32) : c) : Character.toLowerCase(c);
+            } else if (inToken && !Character.isWhitespace(c) && i + 1 < inputLength
+                    && Character.isLetterOrDigit(input.charAt(i + 1))) {
+                text[length++] = c;
+            } else if (inToken) {
+                ends[tokenCount - 1] = length;
+                inToken = false;
+            }
+        }
+        if (inToken) {
+            ends[tokenCount - 1] = length;
+        }
+        return this;
+    }
+
+    private void startToken() {
+        if (tokenCount == starts.length) {
+            starts = Arrays.copyOf(starts, tokenCount * 2);
+            ends = Arrays.copyOf(ends, tokenCount * 2);
+        }
+        starts[tokenCount++] = length;
+    }
+
+    public int tokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Returns the index in the text of the first character of the token.
+     */
+    public int tokenStart(int token) {
+        return starts[token];
+    }
+
+    /**
+     * Returns the index in the text just past the last character of the token.
+     */
+    public int tokenEnd(int token) {
+        return ends[token];
+    }
+
+    /**
+     * Returns whether the text equals {@code other}, without creating a string.
+     */
+    public boolean contentEquals(String other) {
+        if (other == null || other.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text[i] != other.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return text[index];
+    }
+
+    @Override
+    public String subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("[" + start + ", " + end + ") of " + length);
+        }
+        return new String(text, start, end - start);
+    }
+
+    /**
+     * Returns the normalized text. The string is created once per normalized message.
+     */
+    @Override
+    public String toString() {
+        if (string == null) {
+            string = new String(text, 0, length);
+        }
+        return string;
+    }
+}
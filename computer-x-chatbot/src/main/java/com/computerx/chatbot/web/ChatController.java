@@ -0,0 +1,146 @@
+package com.computerx.chatbot.web;
+
+import com.computerx.chatbot.batch.ChatBatchProcessor;
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.model.ProductPage;
+import com.computerx.chatbot.service.ChatService;
+import com.computerx.chatbot.tenant.Tenant;
+import com.computerx.chatbot.tenant.TenantRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The chat API. Requests are answered by the tenant named in the {@code X-Tenant-Id} header, or by
+ * the shared knowledge base without one; a tenant that does not exist gets a 404.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "chatbot.mode", havingValue = "headless")
+public class ChatController {
+
+    static final String SESSION_HEADER = "X-Session-Id";
+    static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final long STREAM_TIMEOUT_MS = 30_000;
+    /** Numbers the stream threads across requests; a factory, unlike a builder, is safe to share. */
+    private static final ThreadFactory STREAM_THREADS = Thread.ofVirtual().name("chat-stream-", 0).factory();
+
+    private final ChatService chatService;
+    private final ChatBatchProcessor batchProcessor;
+    private final TenantRegistry tenants;
+
+    @PostMapping("/chat")
+    public ResponseEntity<ChatResponse> chat(@RequestHeader(name = TENANT_HEADER, required = false) String tenantId,
+                                             @RequestBody ChatRequest request) {
+        if (request.message() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<Tenant> tenant = tenants.find(tenantId);
+        if (tenant.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String sessionId = request.sessionId() != null ? request.sessionId() : UUID.randomUUID().toString();
+        ChatResponse response = chatService.getResponse(tenant.get(), sessionId, request.message());
+        return ResponseEntity.ok().header(SESSION_HEADER, sessionId).body(response);
+    }
+
+    /**
+     * Answers like {@link #chat} but as server-sent events, so a product listing can be rendered one
+     * product at a time: a {@code message} event with the text (or, for a listing, its heading), one
+     * {@code item} event per product, then an {@code end} event. The page is computed in full before
+     * the first event is sent; the events split it up for the client rather than stream the search.
+     */
+    @PostMapping(path = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> chatStream(@RequestHeader(name = TENANT_HEADER, required = false) String tenantId,
+                                                 @RequestBody ChatRequest request) {
+        if (request.message() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<Tenant> tenant = tenants.find(tenantId);
+        if (tenant.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String sessionId = request.sessionId() != null ? request.sessionId() : UUID.randomUUID().toString();
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        STREAM_THREADS.newThread(() -> streamResponse(emitter, tenant.get(), sessionId, request.message())).start();
+        return ResponseEntity.ok().header(SESSION_HEADER, sessionId).body(emitter);
+    }
+
+    /**
+     * Answers a transcript of {@code session<TAB>message} lines posted as UTF-8 text, streaming back
+     * {@code session<TAB>state<TAB>message} lines as they are answered and a summary at the end.
+     * Sessions are separate from those of {@link #chat}; see {@link ChatBatchProcessor}. Batches are
+     * answered from the shared knowledge base.
+     */
+    @PostMapping(path = "/chat/batch", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public void chatBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        BufferedReader input = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        Writer output = response.getWriter();
+        batchProcessor.process(input, output);
+    }
+
+    private void streamResponse(SseEmitter emitter, Tenant tenant, String sessionId, String message) {
+        try {
+            ChatResponse response = chatService.getResponse(tenant, sessionId, message);
+            ProductPage page = response.page();
+            if (page == null) {
+                emitter.send(SseEmitter.event().name("message").data(response.message()));
+            } else {
+                emitter.send(SseEmitter.event().name("message").data(page.heading()));
+                for (String item : page.items()) {
+                    emitter.send(SseEmitter.event().name("item").data(item));
+                }
+            }
+            emitter.send(SseEmitter.event().name("end").data(ChatStreamEnd.of(response), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            log.debug("Chat stream for session {} closed early: {}", sessionId, e.getMessage());
+            emitter.completeWithError(e);
+        } catch (RuntimeException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    @PostMapping("/learn")
+    public ResponseEntity<Void> learn(@RequestHeader(name = TENANT_HEADER, required = false) String tenantId,
+                                      @RequestBody LearnRequest request) {
+        if (request.question() == null || request.answer() == null || request.answer().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<Tenant> tenant = tenants.find(tenantId);
+        if (tenant.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            chatService.learn(tenant.get(), request.question(), request.answer());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
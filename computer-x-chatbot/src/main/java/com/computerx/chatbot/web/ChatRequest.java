@@ -0,0 +1,8 @@
+package com.computerx.chatbot.web;
+
+/**
+ * Body of a chat request.
+ * @param sessionId The conversation to continue; a new one is started when absent.
+ * @param message The user's message.
+ */
+public record ChatRequest(String sessionId, String message) {}
@@ -0,0 +1,15 @@
+package com.computerx.chatbot.web;
+
+/**
+ * A text frame received on the chat WebSocket. Frames carrying a {@code question} and an
+ * {@code answer} teach the bot; all other frames are chat messages.
+ * @param message The user's chat message.
+ * @param question The question being taught.
+ * @param answer The answer being taught.
+ */
+public record ChatSocketMessage(String message, String question, String answer) {
+
+    boolean isLearn() {
+        return question != null && answer != null;
+    }
+}
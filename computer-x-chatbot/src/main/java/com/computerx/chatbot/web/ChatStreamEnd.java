@@ -0,0 +1,24 @@
+package com.computerx.chatbot.web;
+
+import com.computerx.chatbot.model.BotState;
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.model.ProductPage;
+
+/**
+ * Last event of a streamed chat response.
+ * @param endConversation If true, the conversation is over.
+ * @param botState The emotional state of the bot for this response.
+ * @param footer How to reach the other pages of a listing; empty when there are none.
+ * @param page The 1-based page of the listing that was streamed, or 0 if it was not a listing.
+ * @param pageCount How many pages the listing has, or 0 if it was not a listing.
+ * @param totalResults How many products the listing has, or 0 if it was not a listing.
+ */
+public record ChatStreamEnd(boolean endConversation, BotState botState, String footer, int page, int pageCount, int totalResults) {
+
+    static ChatStreamEnd of(ChatResponse response) {
+        ProductPage page = response.page();
+        return page == null
+                ? new ChatStreamEnd(response.endConversation(), response.botState(), "", 0, 0, 0)
+                : new ChatStreamEnd(response.endConversation(), response.botState(), page.footer(), page.page(), page.pageCount(), page.totalResults());
+    }
+}
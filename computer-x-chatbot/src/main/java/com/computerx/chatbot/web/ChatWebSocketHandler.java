@@ -0,0 +1,87 @@
+package com.computerx.chatbot.web;
+
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.service.ChatService;
+import com.computerx.chatbot.tenant.Tenant;
+import com.computerx.chatbot.tenant.TenantRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Chat over a WebSocket connection. Each connection is its own conversation session, which is
+ * discarded when the connection closes. The connection is with the tenant named by the
+ * {@code tenant} query parameter or the {@code X-Tenant-Id} header of the handshake, since browsers
+ * cannot set headers on it; one naming a tenant that does not exist is closed.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String TENANT_ATTRIBUTE = "tenant";
+
+    private final ChatService chatService;
+    private final ObjectMapper objectMapper;
+    private final TenantRegistry tenants;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        String tenantId = session.getUri() == null ? null
+                : UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("tenant");
+        if (tenantId == null) {
+            tenantId = session.getHandshakeHeaders().getFirst(ChatController.TENANT_HEADER);
+        }
+        Optional<Tenant> tenant = tenants.find(tenantId);
+        if (tenant.isEmpty()) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Unknown tenant"));
+            return;
+        }
+        session.getAttributes().put(TENANT_ATTRIBUTE, tenant.get());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage textMessage) throws IOException {
+        Tenant tenant = (Tenant) session.getAttributes().get(TENANT_ATTRIBUTE);
+        if (tenant == null) {
+            return;
+        }
+        ChatSocketMessage message = objectMapper.readValue(textMessage.getPayload(), ChatSocketMessage.class);
+        if (message.isLearn()) {
+            try {
+                chatService.learn(tenant, message.question(), message.answer());
+            } catch (IllegalArgumentException e) {
+                log.debug("Ignored answer taught on WebSocket session {}: {}", session.getId(), e.getMessage());
+            }
+            return;
+        }
+        if (message.message() == null) {
+            return;
+        }
+        ChatResponse response = chatService.getResponse(tenant, session.getId(), message.message());
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+        if (response.endConversation()) {
+            session.close(CloseStatus.NORMAL);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("WebSocket transport error on session {}: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Tenant tenant = (Tenant) session.getAttributes().get(TENANT_ATTRIBUTE);
+        if (tenant != null) {
+            chatService.endSession(tenant, session.getId());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.computerx.chatbot.web;
+
+/**
+ * Body of a request that teaches the bot a new answer.
+ * @param question The question as the user asked it.
+ * @param answer The answer the bot should give from now on.
+ */
+public record LearnRequest(String question, String answer) {}
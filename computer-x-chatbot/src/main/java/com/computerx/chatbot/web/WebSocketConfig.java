@@ -0,0 +1,34 @@
+package com.computerx.chatbot.web;
+
+import com.computerx.chatbot.service.ChatService;
+import com.computerx.chatbot.tenant.TenantRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "chatbot.mode", havingValue = "headless")
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final ChatService chatService;
+    private final ObjectMapper objectMapper;
+    private final TenantRegistry tenants;
+
+    @Value("${chatbot.web.allowed-origins:}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(new ChatWebSocketHandler(chatService, objectMapper, tenants), "/ws/chat")
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
@@ -3,7 +3,7 @@ package com.computerx.chatbot;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {"chatbot.mode=headless", "chatbot.catalog.snapshot.path="})
 class ComputerXChatbotApplicationTests {
 
     @Test
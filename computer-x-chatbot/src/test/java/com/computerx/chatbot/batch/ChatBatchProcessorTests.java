@@ -0,0 +1,66 @@
+package com.computerx.chatbot.batch;
+
+import com.computerx.chatbot.model.BotState;
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.service.ChatService;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ChatBatchProcessorTests {
+
+    private final ChatService chatService = mock(ChatService.class);
+    private final Map<String, List<String>> answered = new ConcurrentHashMap<>();
+
+    private String run(ChatBatchProcessor processor, String input) throws IOException {
+        StringWriter output = new StringWriter();
+        processor.process(new BufferedReader(new StringReader(input)), output);
+        return output.toString();
+    }
+
+    @Test
+    void keepsMessageOrderWithinEachSession() throws IOException {
+        when(chatService.getResponse(anyString(), anyString())).thenAnswer(invocation -> {
+            String message = invocation.getArgument(1);
+            answered.computeIfAbsent(invocation.getArgument(0), k -> Collections.synchronizedList(new ArrayList<>())).add(message);
+            Thread.sleep(message.hashCode() & 3);
+            return new ChatResponse("re: " + message, false, BotState.NORMAL, false);
+        });
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append("s").append(i % 7).append('\t').append("m").append(i).append('\n');
+        }
+
+        String output = run(new ChatBatchProcessor(chatService, 3, 2), input.toString());
+
+        assertThat(answered).hasSize(7);
+        answered.values().forEach(messages -> assertThat(messages)
+                .isSortedAccordingTo(Comparator.comparingInt(message -> Integer.parseInt(message.substring(1)))));
+        assertThat(output.lines().filter(line -> !line.startsWith("#"))).hasSize(200);
+        assertThat(output).contains("# NORMAL 200 (100.00%)");
+    }
+
+    @Test
+    void summarizesStatesAndSkipsMalformedLines() throws IOException {
+        when(chatService.getResponse(anyString(), eq("hi"))).thenReturn(new ChatResponse("Hello!\n\tWelcome", false, BotState.NORMAL, true));
+        when(chatService.getResponse(anyString(), eq("what is love"))).thenReturn(
+                new ChatResponse("I'm not sure how to answer that.", false, BotState.LEARNING, false));
+        when(chatService.getResponse(anyString(), eq("boom"))).thenThrow(new IllegalStateException("boom"));
+
+        String output = run(new ChatBatchProcessor(chatService, 100, 100),
+                "# replayed transcript\nalice\thi\nno tab here\n\nbob\twhat is love\nbob\tboom\n");
+
+        assertThat(output).contains("alice\tNORMAL\tHello!\\n\\tWelcome\n", "bob\tLEARNING\tI'm not sure how to answer that.\n",
+                "bob\tERROR\tboom\n", "# messages 3, errors 1, skipped lines 1", "# LEARNING 1 (33.33%)");
+        verify(chatService, times(2)).endSession(anyString());
+    }
+}
@@ -0,0 +1,60 @@
+package com.computerx.chatbot.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.computerx.chatbot.model.TestProducts.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotFileTests {
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.build(3, List.of(RTX_4090, ODYSSEY_G7, RX_7600));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresProductsAndIndexesInEveryStore() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotFile.write(file, "products.csv 1234 5678", snapshot);
+
+        for (CatalogStore store : CatalogStore.values()) {
+            CatalogSnapshot restored = CatalogSnapshotFile.read(file, "products.csv 1234 5678", 1, store).orElseThrow();
+
+            assertThat(restored.version()).isEqualTo(1);
+            assertThat(restored.products()).containsExactlyElementsOf(snapshot.products());
+            assertThat(restored.index().search("odyssey")).containsExactly(1);
+            assertThat(restored.index().search("gpu")).containsExactly(0, 2);
+            assertThat(restored.fuzzyIndex().search("geforse", 10, Long.MAX_VALUE)).containsExactly(0);
+            assertThat(restored.views().categories()).isEqualTo(snapshot.views().categories());
+        }
+    }
+
+    @Test
+    void ignoresSnapshotsOfAnotherCatalog() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotFile.write(file, "products.csv 1234 5678", snapshot);
+
+        assertThat(CatalogSnapshotFile.read(file, "products.csv 1234 9999", 1, CatalogStore.HEAP)).isEmpty();
+        assertThat(CatalogSnapshotFile.read(directory.resolve("missing"), "products.csv 1234 5678", 1, CatalogStore.HEAP))
+                .isEmpty();
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotFile.write(file, "products.csv 1234 5678", snapshot);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertThatThrownBy(() -> CatalogSnapshotFile.read(file, "products.csv 1234 5678", 1, CatalogStore.HEAP))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,53 @@
+package com.computerx.chatbot.catalog;
+
+import com.computerx.chatbot.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static com.computerx.chatbot.model.TestProducts.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogViewsTests {
+
+    private final List<Product> products = List.of(RTX_4090,
+            new Product("RAM", "Dominator 64GB DDR5", "Corsair", 229.99, "in stock", "RAM kit.", Map.of()), FURY_BEAST_DDR4);
+
+    private final CatalogViews views = CatalogSnapshot.build(1, products).views();
+
+    @Test
+    void collectsCapitalizedCategoriesAndNamesInCatalogOrder() {
+        assertThat(views.categories()).containsExactly("Gpu", "Ram");
+        assertThat(views.productNames()).containsExactly("GeForce RTX 4090", "Dominator 64GB DDR5", "Fury Beast 16GB DDR4");
+    }
+
+    @Test
+    void rendersCardsLikeProductToString() {
+        assertThat(views.card(1)).isEqualTo(products.get(1).toString());
+        assertThat(views.card(2)).isSameAs(views.card(2));
+    }
+
+    @Test
+    void keepsAtMostTheCappedNumberOfCards() {
+        List<Product> many = IntStream.range(0, 10)
+                .mapToObj(i -> new Product("case", "Case " + i, "Fractal", 100 + i, "in stock", "", Map.of()))
+                .toList();
+        CatalogViews capped = new CatalogViews(many, 4);
+
+        String first = capped.card(1);
+        assertThat(capped.card(1)).isSameAs(first);
+        assertThat(capped.card(5)).isEqualTo(many.get(5).toString());
+        assertThat(capped.card(1)).isEqualTo(first).isNotSameAs(first);
+        assertThat(IntStream.range(0, 10).mapToObj(capped::card))
+                .containsExactlyElementsOf(many.stream().map(Product::toString).toList());
+    }
+
+    @Test
+    void memoizesPerSnapshot() {
+        assertThat(views.memoize("key", () -> "first")).isEqualTo("first");
+        assertThat(views.memoize("key", () -> "second")).isEqualTo("first");
+        assertThat(CatalogSnapshot.build(2, products).views().memoize("key", () -> "second")).isEqualTo("second");
+    }
+}
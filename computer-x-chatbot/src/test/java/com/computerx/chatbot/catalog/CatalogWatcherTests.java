@@ -0,0 +1,85 @@
+package com.computerx.chatbot.catalog;
+
+import com.computerx.chatbot.service.KnowledgeBaseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogWatcherTests {
+
+    private static final Duration DEBOUNCE = Duration.ofMillis(200);
+
+    @TempDir
+    Path directory;
+
+    private final KnowledgeBaseService knowledgeBase = mock(KnowledgeBaseService.class);
+    private final AtomicInteger reloads = new AtomicInteger();
+    private Path catalogFile;
+    private CatalogWatcher watcher;
+
+    @BeforeEach
+    void start() throws IOException {
+        catalogFile = Files.writeString(directory.resolve("products.csv"), "category,name\n");
+        when(knowledgeBase.getCatalogFile()).thenReturn(Optional.of(catalogFile));
+        when(knowledgeBase.reloadCatalog()).thenAnswer(invocation -> {
+            reloads.incrementAndGet();
+            return null;
+        });
+        watcher = new CatalogWatcher(knowledgeBase, DEBOUNCE);
+        watcher.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        watcher.stop();
+    }
+
+    @Test
+    void reloadsOnceForABurstOfWrites() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(catalogFile, "category,name\ngpu,Card " + i + "\n");
+            Thread.sleep(20);
+        }
+
+        awaitReloads(1);
+        Thread.sleep(DEBOUNCE.toMillis() * 3);
+        assertThat(reloads).hasValue(1);
+    }
+
+    @Test
+    void reloadsAFileRenamedIntoPlace() throws Exception {
+        Path staged = Files.writeString(directory.resolve("products.csv.tmp"), "category,name\ngpu,Card\n");
+        Files.move(staged, catalogFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        awaitReloads(1);
+    }
+
+    @Test
+    void ignoresOtherFilesInTheDirectory() throws Exception {
+        Files.writeString(directory.resolve("notes.txt"), "not the catalog");
+
+        Thread.sleep(DEBOUNCE.toMillis() * 3);
+        assertThat(reloads).hasValue(0);
+    }
+
+    private void awaitReloads(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (reloads.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(reloads).hasValue(expected);
+    }
+}
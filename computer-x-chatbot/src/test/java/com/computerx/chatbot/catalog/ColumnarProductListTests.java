@@ -0,0 +1,58 @@
+package com.computerx.chatbot.catalog;
+
+import com.computerx.chatbot.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.computerx.chatbot.model.TestProducts.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnarProductListTests {
+
+    private final List<Product> products = List.of(RTX_4090, ODYSSEY_G7, RX_7600);
+
+    private ColumnarProductList columnar(boolean offHeap) {
+        ColumnarProductList.Builder builder = ColumnarProductList.builder();
+        products.forEach(builder::add);
+        return builder.build(offHeap);
+    }
+
+    @Test
+    void materializesTheProductsItWasBuiltFrom() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            ColumnarProductList list = columnar(offHeap);
+
+            assertThat(list).containsExactlyElementsOf(products);
+            assertThat(list.price(1)).isEqualTo(599.99);
+            assertThat(list.isInStock(0)).isTrue();
+            assertThat(list.isInStock(2)).isFalse();
+        }
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        ColumnarProductList.Builder builder = ColumnarProductList.builder();
+        for (int i = 0; i < 1000; i++) {
+            builder.add(new Product("ram", "Kit " + i, "Brand " + (i % 7), i, i % 2 == 0 ? "in stock" : "out of stock",
+                    "Description " + i, Map.of("capacity", (i % 4 * 16) + "GB")));
+        }
+        ColumnarProductList list = builder.build(false);
+
+        assertThat(list).hasSize(1000);
+        assertThat(list.get(999)).isEqualTo(new Product("ram", "Kit 999", "Brand 5", 999, "out of stock",
+                "Description 999", Map.of("capacity", "48GB")));
+        assertThatThrownBy(() -> list.get(1000)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void snapshotsKeepColumnarListsAsIs() {
+        ColumnarProductList list = columnar(false);
+        CatalogSnapshot snapshot = CatalogSnapshot.build(1, list);
+
+        assertThat(snapshot.products()).isSameAs(list);
+        assertThat(snapshot.index().search("odyssey")).containsExactly(1);
+    }
+}
@@ -0,0 +1,67 @@
+package com.computerx.chatbot.catalog;
+
+import com.computerx.chatbot.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCsvParserTests {
+
+    private final List<Product> products = new ArrayList<>();
+    private final List<ProductCsvParser.RowError> errors = new ArrayList<>();
+
+    private void parse(String csv) throws IOException {
+        ProductCsvParser.parse(Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))),
+                products::add, errors::add);
+    }
+
+    @Test
+    void parsesQuotedFieldsAndAttributes() throws IOException {
+        parse("""
+                category,name,brand,price,stock,description,attributes
+                gpu,"GeForce RTX 4090","MSI",1799.99,in stock,"Fast, quiet and big.","gpu_brand:Nvidia;vram:24GB;"
+                casing,"H5 Flow","NZXT",94.99,in stock,"Mid-tower case.",""
+                """);
+
+        assertThat(errors).isEmpty();
+        assertThat(products).hasSize(2);
+        assertThat(products.get(0).name()).isEqualTo("GeForce RTX 4090");
+        assertThat(products.get(0).description()).isEqualTo("Fast, quiet and big.");
+        assertThat(products.get(0).attributes()).isEqualTo(Map.of("gpu_brand", "Nvidia", "vram", "24GB"));
+        assertThat(products.get(1).attributes()).isEmpty();
+    }
+
+    @Test
+    void handlesEscapedQuotesAndLineBreaks() throws IOException {
+        parse("category,name,brand,price,stock,description,attributes\r\n"
+                + "monitor,\"UltraSharp \"\"U2422H\"\"\",Dell,359.99,in stock,\"Line one\r\nline two\",\"screen_size:24\\\";\"\r\n");
+
+        assertThat(errors).isEmpty();
+        assertThat(products).singleElement().satisfies(product -> {
+            assertThat(product.name()).isEqualTo("UltraSharp \"U2422H\"");
+            assertThat(product.description()).isEqualTo("Line one\r\nline two");
+            assertThat(product.attributes()).containsEntry("screen_size", "24\"");
+        });
+    }
+
+    @Test
+    void reportsBadRowsWithLineNumbersAndKeepsGoing() throws IOException {
+        parse("""
+                category,name,brand,price,stock,description,attributes
+                gpu,"A","MSI",cheap,in stock,"Bad price.",""
+                gpu,"B","MSI"
+                gpu,"C","MSI",10.00,in stock,"Fine.",""
+                """);
+
+        assertThat(products).extracting(Product::name).containsExactly("C");
+        assertThat(errors).extracting(ProductCsvParser.RowError::line).containsExactly(2L, 3L);
+    }
+}
@@ -0,0 +1,66 @@
+package com.computerx.chatbot.gui;
+
+import com.computerx.chatbot.model.BotState;
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.service.ChatService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AsyncChatClientTests {
+
+    private final ChatService chatService = mock(ChatService.class);
+    private final AsyncChatClient client = new AsyncChatClient(chatService, 1, 2);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        client.shutdown();
+    }
+
+    private void blockWorker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        when(chatService.getResponse("s", "slow")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new ChatResponse("done", false, BotState.NORMAL, false);
+        });
+        client.getResponse("s", "slow");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void skipsRequestsCancelledBeforeTheyStart() throws Exception {
+        blockWorker();
+        CompletableFuture<ChatResponse> stale = client.getResponse("s", "stale");
+        stale.cancel(false);
+        when(chatService.getResponse("s", "fresh")).thenReturn(new ChatResponse("fresh", false, BotState.NORMAL, false));
+        CompletableFuture<ChatResponse> fresh = client.getResponse("s", "fresh");
+        release.countDown();
+
+        assertThat(fresh.get(5, TimeUnit.SECONDS).message()).isEqualTo("fresh");
+        verify(chatService, never()).getResponse("s", "stale");
+    }
+
+    @Test
+    void failsFastWhenTheQueueIsFull() throws Exception {
+        blockWorker();
+        client.getResponse("s", "queued");
+        client.getResponse("s", "queued too");
+
+        CompletableFuture<ChatResponse> rejected = client.getResponse("s", "overflow");
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(rejected.handle((r, e) -> e).get()).isInstanceOf(RejectedExecutionException.class);
+        verify(chatService, never()).getResponse(anyString(), eq("overflow"));
+    }
+}
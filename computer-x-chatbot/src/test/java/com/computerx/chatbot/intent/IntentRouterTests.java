@@ -0,0 +1,69 @@
+package com.computerx.chatbot.intent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntentRouterTests {
+
+    private final IntentRouter router = new IntentRouter();
+
+    private Intent firstPhraseIntent(String input) {
+        IntentMatch match = router.route(input);
+        return Arrays.stream(Intent.values())
+                .filter(intent -> intent.trigger() != Intent.Trigger.LOOKUP && match.matches(intent))
+                .findFirst()
+                .orElse(Intent.FALLBACK);
+    }
+
+    @Test
+    void keepsRulePriority() {
+        assertThat(firstPhraseIntent("good morning, show me gpus")).isEqualTo(Intent.TIME_GREETING);
+        assertThat(firstPhraseIntent("hi")).isEqualTo(Intent.GREETING);
+        assertThat(firstPhraseIntent("  Hi! ")).isEqualTo(Intent.GREETING);
+        assertThat(firstPhraseIntent("hi there")).isEqualTo(Intent.FALLBACK);
+        assertThat(firstPhraseIntent("list the categories")).isEqualTo(Intent.CATEGORIES);
+        assertThat(firstPhraseIntent("show me any laptops")).isEqualTo(Intent.LIST_PRODUCTS);
+        assertThat(firstPhraseIntent("price of h5 flow")).isEqualTo(Intent.PRICE);
+        assertThat(firstPhraseIntent("the price of h5 flow")).isEqualTo(Intent.FALLBACK);
+        assertThat(firstPhraseIntent("is the h5 flow in stock?")).isEqualTo(Intent.STOCK);
+        assertThat(firstPhraseIntent("show more")).isEqualTo(Intent.MORE_RESULTS);
+        assertThat(firstPhraseIntent("page 3")).isEqualTo(Intent.PAGE);
+    }
+
+    @Test
+    void reportsFirstDeclaredTriggerPhrase() {
+        IntentMatch match = router.route("good night and good morning");
+        assertThat(match.matchedPhrase(Intent.TIME_GREETING)).isEqualTo("morning");
+    }
+
+    @Test
+    void extractsKeywordByRemovingPrefixesInOrder() {
+        assertThat(router.route("show me gpus").keyword(Intent.LIST_PRODUCTS)).isEqualTo("gpus");
+        assertThat(router.route("what is the price of h5 flow?").keyword(Intent.PRICE)).isEqualTo("h5 flow");
+        assertThat(router.route("is the h5 flow in stock?").keyword(Intent.STOCK)).isEqualTo("the h5 flow");
+        assertThat(router.route("page 12").keyword(Intent.PAGE)).isEqualTo("12");
+    }
+
+    @Test
+    void removesPrefixesOnlyAsWholeTokens() {
+        assertThat(router.route("Is this G.Skill kit available?").keyword(Intent.STOCK)).isEqualTo("this g.skill kit");
+        assertThat(router.route("show me the showcase items").keyword(Intent.LIST_PRODUCTS)).isEqualTo("the showcase items");
+        assertThat(router.route("any seeing-eye mice").keyword(Intent.SEARCH_PRODUCTS)).isEqualTo("seeing-eye mice");
+    }
+
+    @Test
+    void reusesOneMatchForEveryMessage() {
+        IntentMatch match = router.newMatch();
+
+        router.route("show me the whole range of gpus you have in stock", match);
+        assertThat(match.keyword(Intent.LIST_PRODUCTS)).isEqualTo("the whole range of gpus you have in stock");
+
+        router.route("Price of H5 Flow", match);
+        assertThat(match.matches(Intent.LIST_PRODUCTS)).isFalse();
+        assertThat(match.keyword(Intent.PRICE)).isEqualTo("h5 flow");
+        assertThat(match.message()).hasToString("Price of H5 Flow");
+    }
+}
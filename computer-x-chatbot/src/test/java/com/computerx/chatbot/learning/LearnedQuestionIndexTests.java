@@ -0,0 +1,50 @@
+package com.computerx.chatbot.learning;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LearnedQuestionIndexTests {
+
+    private static final double THRESHOLD = 0.8;
+
+    private LearnedQuestionIndex index(String... questions) {
+        LearnedQuestionIndex index = new LearnedQuestionIndex();
+        for (String question : questions) {
+            index.add(question);
+        }
+        return index;
+    }
+
+    @Test
+    void ignoresPunctuationSpacingAndWordOrder() {
+        LearnedQuestionIndex index = index("what is your return policy", "do you ship overseas");
+
+        assertThat(index.closest("What is your return policy??", THRESHOLD)).isEqualTo("what is your return policy");
+        assertThat(index.closest("  do you   ship, overseas ", THRESHOLD)).isEqualTo("do you ship overseas");
+        assertThat(index.closest("your return policy is what", THRESHOLD)).isEqualTo("what is your return policy");
+    }
+
+    @Test
+    void matchesRephrasingsAboveTheThresholdOnly() {
+        LearnedQuestionIndex index = index("what is your return policy", "what is your warranty policy",
+                "where is your store", "what are your opening hours");
+
+        assertThat(index.closest("tell me your return policy", THRESHOLD)).isEqualTo("what is your return policy");
+        assertThat(index.closest("what are the opening hours", THRESHOLD)).isEqualTo("what are your opening hours");
+        assertThat(index.closest("what is your name", THRESHOLD)).isNull();
+        assertThat(index.closest("what is", THRESHOLD)).isNull();
+    }
+
+    @Test
+    void picksUpQuestionsAsTheyAreAdded() {
+        LearnedQuestionIndex index = index("where is your store");
+        assertThat(index.closest("do you price match?", THRESHOLD)).isNull();
+
+        index.add("do you price match");
+        index.add("Do you price-match!");
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.closest("do you price match?", THRESHOLD)).isEqualTo("Do you price-match!");
+    }
+}
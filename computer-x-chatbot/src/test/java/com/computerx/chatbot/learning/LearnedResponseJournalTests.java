@@ -0,0 +1,309 @@
+package com.computerx.chatbot.learning;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LearnedResponseJournalTests {
+
+    @TempDir
+    Path directory;
+
+    private LearnedResponseJournal journal(Duration compactionInterval) {
+        return new LearnedResponseJournal(directory.resolve("learned.journal"), FsyncPolicy.ALWAYS,
+                Duration.ofSeconds(1), 64, compactionInterval, 0.5, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void replaysLatestAnswerPerQuestion() throws IOException {
+        LearnedResponseJournal journal = journal(Duration.ofHours(1));
+        assertThat(journal.open()).isEmpty();
+        journal.append("what is your return policy", "14 days.");
+        journal.append("ça va?", "Très bien!");
+        journal.append("what is your return policy", "30 days.");
+        journal.close();
+
+        assertThat(journal(Duration.ofHours(1)).open())
+                .containsExactly(Map.entry("what is your return policy", "30 days."), Map.entry("ça va?", "Très bien!"));
+    }
+
+    @Test
+    void truncatesTornLastRecord() throws IOException {
+        LearnedResponseJournal journal = journal(Duration.ofHours(1));
+        journal.open();
+        journal.append("first", "one");
+        journal.append("second", "two");
+        journal.close();
+
+        Path path = directory.resolve("learned.journal");
+        long intact = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(intact - 3);
+        }
+
+        LearnedResponseJournal recovered = journal(Duration.ofHours(1));
+        assertThat(recovered.open()).containsExactly(Map.entry("first", "one"));
+        recovered.append("third", "three");
+        recovered.close();
+
+        assertThat(journal(Duration.ofHours(1)).open()).containsOnlyKeys("first", "third");
+    }
+
+    @Test
+    void compactsOverwrittenAnswers() throws Exception {
+        LearnedResponseJournal writer = journal(Duration.ofHours(1));
+        writer.open();
+        for (int i = 0; i < 100; i++) {
+            writer.append("question", "answer " + i);
+        }
+        writer.close();
+        Path path = directory.resolve("learned.journal");
+        assertThat(Files.size(path)).isGreaterThan(1000);
+
+        LearnedResponseJournal journal = journal(Duration.ofMillis(20));
+        journal.open();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline && Files.size(path) > 100) {
+            Thread.sleep(20);
+        }
+        journal.close();
+
+        assertThat(Files.size(path)).isLessThan(100);
+        assertThat(journal(Duration.ofHours(1)).open()).containsExactly(Map.entry("question", "answer 99"));
+    }
+
+    @Test
+    void cutsOffAFailedBatchSoLaterRecordsSurviveRecovery() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AtomicBoolean torn = new AtomicBoolean();
+        LearnedResponseJournal journal = new LearnedResponseJournal(directory.resolve("learned.journal"),
+                FsyncPolicy.ALWAYS, Duration.ofSeconds(1), 64, Duration.ofHours(1), 0.5, meterRegistry) {
+            @Override
+            FileChannel openChannel(Path path, OpenOption... options) throws IOException {
+                return new TearingChannel(FileChannel.open(path, options), "second", torn, new AtomicInteger());
+            }
+        };
+        journal.open();
+        journal.append("first", "one");
+        Path path = directory.resolve("learned.journal");
+        awaitUntil(() -> Files.exists(path) && path.toFile().length() > LearnedResponseJournal.FILE_HEADER_BYTES);
+        journal.append("second", "two");
+        awaitUntil(() -> meterRegistry.counter("chatbot.learned.journal.failures").count() == 1);
+        journal.append("third", "three");
+        journal.append("second", "two again");
+        journal.close();
+
+        assertThat(journal(Duration.ofHours(1)).open()).containsExactly(
+                Map.entry("first", "one"), Map.entry("third", "three"), Map.entry("second", "two again"));
+    }
+
+    @Test
+    void forcesWhatWasWrittenBeforeAFailureUnderTheIntervalPolicy() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AtomicBoolean torn = new AtomicBoolean();
+        AtomicInteger forces = new AtomicInteger();
+        Duration fsyncInterval = Duration.ofMillis(300);
+        LearnedResponseJournal journal = new LearnedResponseJournal(directory.resolve("learned.journal"),
+                FsyncPolicy.INTERVAL, fsyncInterval, 64, Duration.ofHours(1), 0.5, meterRegistry) {
+            @Override
+            FileChannel openChannel(Path path, OpenOption... options) throws IOException {
+                return new TearingChannel(FileChannel.open(path, options), "second", torn, forces);
+            }
+        };
+        journal.open();
+        journal.append("first", "one");
+        Path path = directory.resolve("learned.journal");
+        awaitUntil(() -> Files.exists(path) && path.toFile().length() > LearnedResponseJournal.FILE_HEADER_BYTES);
+        journal.append("second", "two");
+        awaitUntil(() -> meterRegistry.counter("chatbot.learned.journal.failures").count() == 1);
+
+        awaitUntil(() -> forces.get() == 1);
+        Thread.sleep(fsyncInterval.toMillis() * 3);
+        assertThat(forces).hasValue(1);
+        assertThat(meterRegistry.counter("chatbot.learned.journal.failures").count()).isEqualTo(1);
+
+        journal.append("third", "three");
+        journal.close();
+        assertThat(journal(Duration.ofHours(1)).open()).containsOnlyKeys("first", "third");
+    }
+
+    @Test
+    void rejectsPairsTooLargeForOneRecord() throws IOException {
+        LearnedResponseJournal journal = journal(Duration.ofHours(1));
+        journal.open();
+        String huge = "x".repeat(LearnedResponseJournal.MAX_RECORD_BYTES);
+        LearnedResponses learned = new LearnedResponses(journal);
+
+        assertThatThrownBy(() -> journal.append("question", huge)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> learned.put("question", huge)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(learned.size()).isZero();
+        journal.append("before", "one");
+        journal.append("after", "two");
+        journal.close();
+
+        assertThat(journal(Duration.ofHours(1)).open()).containsOnlyKeys("before", "after");
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    /**
+     * Writes half of the first write that carries {@code tornText} and then fails, as a full disk
+     * would; every other call goes to the real channel. {@code torn} is shared by the channels of
+     * one journal, so only one write fails, and {@code forces} counts their data-only forces.
+     */
+    private static final class TearingChannel extends FileChannel {
+
+        private final FileChannel channel;
+        private final byte[] tornText;
+        private final AtomicBoolean torn;
+        private final AtomicInteger forces;
+
+        TearingChannel(FileChannel channel, String tornText, AtomicBoolean torn, AtomicInteger forces) {
+            this.channel = channel;
+            this.tornText = tornText.getBytes(StandardCharsets.UTF_8);
+            this.torn = torn;
+            this.forces = forces;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (torn.get() || !carries(src)) {
+                return channel.write(src);
+            }
+            torn.set(true);
+            int limit = src.limit();
+            src.limit(src.position() + src.remaining() / 2);
+            channel.write(src);
+            src.limit(limit);
+            throw new IOException("No space left on device");
+        }
+
+        private boolean carries(ByteBuffer src) {
+            byte[] bytes = new byte[src.remaining()];
+            src.duplicate().get(bytes);
+            outer:
+            for (int i = 0; i + tornText.length <= bytes.length; i++) {
+                for (int j = 0; j < tornText.length; j++) {
+                    if (bytes[i + j] != tornText[j]) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (!metaData) {
+                forces.incrementAndGet();
+            }
+            channel.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+}
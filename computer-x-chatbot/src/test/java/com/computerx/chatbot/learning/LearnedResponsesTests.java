@@ -0,0 +1,49 @@
+package com.computerx.chatbot.learning;
+
+import com.computerx.chatbot.text.TokenBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LearnedResponsesTests {
+
+    @TempDir
+    Path directory;
+
+    private LearnedResponseJournal journal;
+
+    private LearnedResponses open() throws IOException {
+        journal = new LearnedResponseJournal(directory.resolve("learned.journal"), FsyncPolicy.ALWAYS,
+                Duration.ofSeconds(1), 64, Duration.ofHours(1), 0.5, new SimpleMeterRegistry());
+        LearnedResponses learned = new LearnedResponses(journal);
+        learned.open();
+        return learned;
+    }
+
+    @AfterEach
+    void close() {
+        journal.close();
+    }
+
+    @Test
+    void findsTheLatestAnswerByTheNormalizedMessage() throws IOException {
+        LearnedResponses learned = open();
+        learned.put("do you price match", "No.");
+        learned.put("do you price match", "Yes, within 14 days.");
+        journal.close();
+
+        LearnedResponses recovered = open();
+        recovered.put("what are your store hours", "Always open.");
+
+        assertThat(recovered.exact(new TokenBuffer().normalize("Do you price match?"))).isEqualTo("Yes, within 14 days.");
+        assertThat(recovered.exact(new TokenBuffer().normalize("What are your store hours?"))).isEqualTo("Always open.");
+        assertThat(recovered.size()).isEqualTo(2);
+    }
+}
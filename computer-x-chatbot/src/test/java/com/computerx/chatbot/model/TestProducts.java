@@ -0,0 +1,40 @@
+package com.computerx.chatbot.model;
+
+import java.util.Map;
+
+/**
+ * Products the catalog, search and tenant tests build their catalogs from. Each test lists the
+ * ones it needs, so the ids it asserts on are positions in its own list.
+ */
+public final class TestProducts {
+
+    public static final Product RTX_4090 = new Product("gpu", "GeForce RTX 4090", "MSI", 1799.99, "in stock",
+            "The ultimate gaming GPU.", Map.of("gpu_brand", "Nvidia", "vram", "24GB"));
+    public static final Product RTX_4070_TI = new Product("gpu", "GeForce RTX 4070 Ti", "Asus", 799.99, "in stock",
+            "1440p GPU.", Map.of("vram", "12GB"));
+    public static final Product RTX_4060 = new Product("gpu", "GeForce RTX 4060", "ASUS", 299.99, "in stock",
+            "Mainstream GPU.", Map.of("vram", "8GB"));
+    public static final Product RX_7900_XTX = new Product("gpu", "Radeon RX 7900 XTX", "Gigabyte", 949.99, "in stock",
+            "Flagship GPU.", Map.of("vram", "24GB"));
+    public static final Product RX_7800_XT = new Product("gpu", "Radeon RX 7800 XT", "Asus", 499.99, "out of stock",
+            "1440p GPU.", Map.of("vram", "16GB"));
+    /** Has an empty description and no attributes. */
+    public static final Product RX_7600 = new Product("gpu", "Radeon RX 7600", "MSI", 269.99, "preorder", "", Map.of());
+    public static final Product ARC_A770 = new Product("gpu", "Arc A770", "Intel", 329.99, "in stock",
+            "Budget GPU.", Map.of("vram", "16GB"));
+    public static final Product VENGEANCE_DDR5 = new Product("ram", "Vengeance 32GB DDR5", "Corsair", 99.99, "in stock",
+            "DDR5 5600MHz RAM kit.", Map.of("type", "DDR5"));
+    public static final Product FURY_BEAST_DDR4 = new Product("ram", "Fury Beast 16GB DDR4", "Kingston", 44.99, "in stock",
+            "RAM kit.", Map.of("type", "DDR4", "capacity", "16GB"));
+    /** Has commas and parentheses in its name. */
+    public static final Product FURY_BEAST_DDR5 = new Product("ram", "Fury Beast 32GB (2x16GB, DDR5)", "Kingston", 109.99,
+            "in stock", "RAM kit.", Map.of("type", "DDR5"));
+    /** Has quotes and non-ASCII characters in its text. */
+    public static final Product ODYSSEY_G7 = new Product("monitor", "Odyssey G7 27\"", "Samsung", 599.99, "out of stock",
+            "Curved — 240Hz.", Map.of("screen_size", "27\""));
+    public static final Product AIRFLOW_4000D = new Product("casing", "4000D Airflow", "Corsair", 104.99, "out of stock",
+            "Mid-tower case.", Map.of());
+
+    private TestProducts() {
+    }
+}
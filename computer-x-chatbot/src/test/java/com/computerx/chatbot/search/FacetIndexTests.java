@@ -0,0 +1,67 @@
+package com.computerx.chatbot.search;
+
+import com.computerx.chatbot.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.computerx.chatbot.model.TestProducts.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetIndexTests {
+
+    private final List<Product> products = List.of(RTX_4070_TI, RX_7800_XT, RX_7900_XTX, FURY_BEAST_DDR4, ARC_A770);
+
+    private final FacetIndex facets = FacetIndex.build(products);
+
+    private int[] query(String message) {
+        return facets.filter(FilterParser.parse(message, facets));
+    }
+
+    @Test
+    void parsesPriceStockCategoryAndAttributeFilters() {
+        ProductFilter filter = FilterParser.parse("gpus under $800 with 16 GB vram in stock", facets);
+
+        assertThat(filter.categories()).containsExactly("gpu");
+        assertThat(filter.attributeValues()).containsExactly("16gb");
+        assertThat(filter.inStock()).isTrue();
+        assertThat(filter.maxPrice()).isLessThan(800).isGreaterThan(799.99);
+        assertThat(filter.isStructured()).isTrue();
+        assertThat(FilterParser.parse("show me gpus", facets).isStructured()).isFalse();
+    }
+
+    @Test
+    void intersectsFacets() {
+        assertThat(query("gpus under $800 with 16gb vram in stock")).containsExactly(4);
+        assertThat(query("16gb under $1k")).containsExactly(1, 3, 4);
+        assertThat(query("asus gpus out of stock")).containsExactly(1);
+        assertThat(query("gpus between $300 and $800")).containsExactly(0, 1, 4);
+        assertThat(query("anything over $900")).containsExactly(2);
+        assertThat(query("gpus at most $799.99")).containsExactly(0, 1, 4);
+    }
+
+    @Test
+    void readsBareAmountsAsPricesOnlyInPriceContext() {
+        assertThat(query("gpus under 400 dollars")).containsExactly(4);
+        assertThat(query("gpu price between 300 and 500")).containsExactly(1, 4);
+
+        assertThat(FilterParser.parse("I've been waiting for over 20 minutes", facets).hasPriceRange()).isFalse();
+        assertThat(FilterParser.parse("i <3 you", facets).hasPriceRange()).isFalse();
+        assertThat(FilterParser.parse("gpus with more than 12 gb", facets).hasPriceRange()).isFalse();
+        assertThat(FilterParser.parse("anything under $100 that ships in over 3 days", facets))
+                .extracting(ProductFilter::minPrice, ProductFilter::maxPrice)
+                .containsExactly(Double.NEGATIVE_INFINITY, Math.nextDown(100.0));
+        assertThat(FilterParser.parse("i've been here over 20 minutes", facets).isStructured()).isFalse();
+        assertThat(FilterParser.parse("i <3 you, gpus under $500", facets).maxPrice()).isLessThan(500).isGreaterThan(499);
+    }
+
+    @Test
+    void ignoresValuesTheCatalogDoesNotHave() {
+        ProductFilter filter = FilterParser.parse("nvidia laptops with 32gb", facets);
+
+        assertThat(filter.categories()).isEmpty();
+        assertThat(filter.brands()).isEmpty();
+        assertThat(filter.attributeValues()).isEqualTo(Set.of());
+    }
+}
@@ -0,0 +1,42 @@
+package com.computerx.chatbot.search;
+
+import com.computerx.chatbot.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.computerx.chatbot.model.TestProducts.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzyIndexTests {
+
+    private static final long BUDGET = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<Product> products = List.of(RTX_4090, VENGEANCE_DDR5, RTX_4060);
+
+    private final FuzzyIndex index = FuzzyIndex.build(products);
+
+    @Test
+    void toleratesTyposAndMissingOrExtraSpaces() {
+        assertThat(index.search("rtx4090", 10, BUDGET)).containsExactly(0);
+        assertThat(index.search("ddr 5", 10, BUDGET)).containsExactly(1);
+        assertThat(index.search("geforse", 10, BUDGET)).containsExactly(0, 2);
+        assertThat(index.search("vengance", 10, BUDGET)).containsExactly(1);
+    }
+
+    @Test
+    void ranksCloserMatchesFirstAndFallsBackToSingleWords() {
+        assertThat(index.search("geforse rtx 4060", 10, BUDGET)).startsWith(2);
+        assertThat(index.search("the vengance", 10, BUDGET)).containsExactly(1);
+        assertThat(index.search("geforse", 1, BUDGET)).hasSize(1);
+    }
+
+    @Test
+    void rejectsDistantTermsAndShortQueries() {
+        assertThat(index.search("printer", 10, BUDGET)).isEmpty();
+        assertThat(index.search("ms", 10, BUDGET)).isEmpty();
+        assertThat(FuzzyIndex.boundedDistance("kitten", "sitting", 3)).isEqualTo(3);
+        assertThat(FuzzyIndex.boundedDistance("kitten", "sitting", 1)).isEqualTo(2);
+    }
+}
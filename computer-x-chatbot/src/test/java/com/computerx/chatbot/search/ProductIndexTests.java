@@ -0,0 +1,67 @@
+package com.computerx.chatbot.search;
+
+import com.computerx.chatbot.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.computerx.chatbot.model.TestProducts.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductIndexTests {
+
+    private final List<Product> products = List.of(RTX_4090, VENGEANCE_DDR5, AIRFLOW_4000D);
+
+    private final ProductIndex index = ProductIndex.build(products);
+
+    @Test
+    void matchesSubstringsOfAnyField() {
+        assertThat(index.search("rtx 40")).containsExactly(0);
+        assertThat(index.search("corsair")).containsExactly(1, 2);
+        assertThat(index.search("24gb")).containsExactly(0);
+        assertThat(index.search("e")).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void matchesCategoriesContainedInKeyword() {
+        assertThat(index.search("all gpus")).containsExactly(0);
+    }
+
+    @Test
+    void doesNotMatchAcrossFieldBoundaries() {
+        assertThat(index.search("rtx 4090msi")).isEmpty();
+    }
+
+    @Test
+    void emptyKeywordMatchesEverything() {
+        assertThat(index.search("")).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void ranksByFieldWeightAndKeepsOnlyTheTopResults() {
+        List<Product> catalog = List.of(
+                new Product("mouse", "G203", "Logitech", 29.99, "in stock", "Shaped like the Corsair classics.", Map.of()),
+                new Product("keyboard", "K70", "Corsair", 129.99, "in stock", "Mechanical keyboard.", Map.of()),
+                new Product("ram", "Corsair Vengeance", "Corsair", 99.99, "in stock", "RAM kit.", Map.of()),
+                new Product("cooler", "H100i", "NZXT", 149.99, "in stock", "AIO cooler.", Map.of("software", "Corsair iCUE"))
+        );
+        ProductIndex ranked = ProductIndex.build(catalog);
+        int[] matches = ranked.search("corsair");
+
+        assertThat(ranked.rank(matches, "corsair", 10)).containsExactly(2, 1, 3, 0);
+        assertThat(ranked.rank(matches, "Corsair", 2)).containsExactly(2, 1);
+        assertThat(ranked.rank(new int[0], "corsair", 2)).isEmpty();
+    }
+
+    @Test
+    void exactNameMatchOutranksLongerNames() {
+        List<Product> catalog = List.of(
+                new Product("gpu", "RTX 4090 Ti", "MSI", 1999.99, "in stock", "", Map.of()),
+                new Product("gpu", "RTX 4090", "MSI", 1799.99, "in stock", "", Map.of())
+        );
+        ProductIndex ranked = ProductIndex.build(catalog);
+
+        assertThat(ranked.rank(ranked.search("rtx 4090"), "rtx 4090", 10)).containsExactly(1, 0);
+    }
+}
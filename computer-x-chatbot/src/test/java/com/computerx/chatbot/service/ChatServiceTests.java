@@ -0,0 +1,83 @@
+package com.computerx.chatbot.service;
+
+import com.computerx.chatbot.StartupTimings;
+import com.computerx.chatbot.intent.IntentRouter;
+import com.computerx.chatbot.learning.FsyncPolicy;
+import com.computerx.chatbot.learning.LearnedResponseJournal;
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.session.SessionStore;
+import com.computerx.chatbot.shard.LocalCatalogBackend;
+import com.computerx.chatbot.tenant.TenantRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatServiceTests {
+
+    @TempDir
+    Path directory;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LearnedResponseJournal journal;
+    private ChatService chatService;
+
+    @BeforeEach
+    void start() throws IOException {
+        Path catalogFile = Files.writeString(directory.resolve("products.csv"), """
+                category,name,brand,price,stock,description,attributes
+                ram,"Vengeance 32GB DDR5","Corsair",99.99,in stock,"DDR5 RAM kit.","type:DDR5;capacity:32GB;"
+                ram,"Fury Beast 16GB DDR4","Kingston",44.99,out of stock,"DDR4 RAM kit.","type:DDR4;capacity:16GB;"
+                gpu,"GeForce RTX 4070 Ti","Asus",799.99,in stock,"1440p GPU.","vram:12GB;"
+                """);
+        journal = new LearnedResponseJournal(directory.resolve("learned.journal"), FsyncPolicy.ALWAYS,
+                Duration.ofSeconds(1), 64, Duration.ofHours(1), 0.5, meterRegistry);
+        StartupTimings startupTimings = new StartupTimings(meterRegistry);
+        KnowledgeBaseService knowledgeBase = new KnowledgeBaseService(journal, meterRegistry, event -> {},
+                startupTimings, new LocalCatalogBackend());
+        ReflectionTestUtils.setField(knowledgeBase, "catalogLocation", new FileSystemResource(catalogFile));
+        knowledgeBase.initialize();
+        chatService = new ChatService(knowledgeBase, new SessionStore(Duration.ofMinutes(30), 100),
+                new TenantRegistry("", knowledgeBase, journal, meterRegistry), new IntentRouter(),
+                new ResponseCache(100, Duration.ofMinutes(5), meterRegistry), meterRegistry, startupTimings);
+        chatService.registerMetrics();
+    }
+
+    @AfterEach
+    void close() {
+        journal.close();
+    }
+
+    private ChatResponse ask(String message) {
+        return chatService.getResponse("s1", message);
+    }
+
+    @Test
+    void answersPriceAndStockQuestionsThatNameAFilterableCategory() {
+        ChatResponse price = ask("price of corsair ram");
+        ChatResponse stock = ask("is the ram in stock");
+
+        assertThat(price.page()).isNull();
+        assertThat(price.message()).startsWith("I found multiple products matching 'corsair ram'");
+        assertThat(stock.page()).isNull();
+        assertThat(stock.message()).startsWith("I found multiple products matching 'the ram'");
+    }
+
+    @Test
+    void filtersListingsOnlyWhenTheyBoundThePrice() {
+        assertThat(ask("show me corsair ram").page().items()).hasSize(2);
+        assertThat(ask("show me ram under $50").page().items()).singleElement().asString().contains("Fury Beast 16GB DDR4");
+        assertThat(ask("corsair ram").page().items()).singleElement().asString().contains("Vengeance 32GB DDR5");
+    }
+}
@@ -0,0 +1,149 @@
+package com.computerx.chatbot.service;
+
+import com.computerx.chatbot.StartupTimings;
+import com.computerx.chatbot.catalog.CatalogReloadedEvent;
+import com.computerx.chatbot.catalog.CatalogSnapshot;
+import com.computerx.chatbot.learning.FsyncPolicy;
+import com.computerx.chatbot.learning.LearnedResponseJournal;
+import com.computerx.chatbot.model.Product;
+import com.computerx.chatbot.shard.CatalogBackend;
+import com.computerx.chatbot.shard.LocalCatalogBackend;
+import com.computerx.chatbot.shard.PartitionedCatalogBackend;
+import com.computerx.chatbot.shard.ShardKey;
+import com.computerx.chatbot.text.TokenBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KnowledgeBaseServiceTests {
+
+    private static final String HEADER = "category,name,brand,price,stock,description,attributes\n";
+
+    @TempDir
+    Path directory;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Object> events = new ArrayList<>();
+    private LearnedResponseJournal journal;
+    private Path catalogFile;
+    private KnowledgeBaseService knowledgeBase;
+
+    static String catalog(int products) {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < products; i++) {
+            csv.append("ram,\"Memory Kit ").append(i).append("\",\"Kingston\",").append(40 + i)
+                    .append(",in stock,\"RAM kit.\",\"type:DDR4;\"\n");
+        }
+        return csv.toString();
+    }
+
+    @BeforeEach
+    void start() throws IOException {
+        catalogFile = Files.writeString(directory.resolve("products.csv"), catalog(10));
+        knowledgeBase = knowledgeBase(new LocalCatalogBackend());
+    }
+
+    private KnowledgeBaseService knowledgeBase(CatalogBackend backend) {
+        if (journal != null) {
+            journal.close();
+        }
+        journal = new LearnedResponseJournal(directory.resolve("learned.journal"), FsyncPolicy.ALWAYS,
+                Duration.ofSeconds(1), 64, Duration.ofHours(1), 0.5, meterRegistry);
+        KnowledgeBaseService service = new KnowledgeBaseService(journal, meterRegistry, events::add,
+                new StartupTimings(meterRegistry), backend);
+        ReflectionTestUtils.setField(service, "catalogLocation", new FileSystemResource(catalogFile));
+        ReflectionTestUtils.setField(service, "legacyLearnedFile", directory.resolve("learned.txt"));
+        service.initialize();
+        return service;
+    }
+
+    @AfterEach
+    void close() {
+        journal.close();
+    }
+
+    @Test
+    void swapsInEachReloadedCatalogAsANewVersion() throws IOException {
+        CatalogSnapshot first = knowledgeBase.getCatalog();
+        Files.writeString(catalogFile, catalog(12));
+
+        CatalogSnapshot second = knowledgeBase.reloadCatalog();
+
+        assertThat(first.size()).isEqualTo(10);
+        assertThat(second.version()).isEqualTo(first.version() + 1);
+        assertThat(knowledgeBase.getCatalog()).isSameAs(second);
+        assertThat(knowledgeBase.getProducts()).hasSize(12);
+        assertThat(events).last().isEqualTo(new CatalogReloadedEvent(first, second));
+        assertThat(meterRegistry.timer("chatbot.catalog.reload").count()).isEqualTo(2);
+        assertThat(meterRegistry.get("chatbot.catalog.version").gauge().value()).isEqualTo(second.version());
+        assertThat(meterRegistry.get("chatbot.catalog.products").gauge().value()).isEqualTo(12);
+    }
+
+    @Test
+    void keepsTheCurrentCatalogWhenTheFileComesOutEmptyOrTruncated() throws IOException {
+        CatalogSnapshot current = knowledgeBase.getCatalog();
+
+        Files.writeString(catalogFile, "");
+        assertThat(knowledgeBase.reloadCatalog()).isSameAs(current);
+        Files.writeString(catalogFile, catalog(4));
+        assertThat(knowledgeBase.reloadCatalog()).isSameAs(current);
+        Files.delete(catalogFile);
+        assertThat(knowledgeBase.reloadCatalog()).isSameAs(current);
+
+        assertThat(meterRegistry.counter("chatbot.catalog.reload.rejected").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("chatbot.catalog.reload.failures").count()).isEqualTo(1);
+        assertThat(events).hasSize(1);
+
+        Files.writeString(catalogFile, catalog(5));
+        assertThat(knowledgeBase.reloadCatalog().size()).isEqualTo(5);
+    }
+
+    @Test
+    void answersQuestionsImportedFromTheLegacyFileHoweverTheyWereWritten() throws IOException {
+        Files.writeString(directory.resolve("learned.txt"), """
+                What are your STORE hours?:::We are open 24/7!
+                  Do you ship abroad  :::Yes, worldwide.
+                :::No question.
+                """);
+        journal.close();
+        Files.delete(directory.resolve("learned.journal"));
+
+        KnowledgeBaseService imported = knowledgeBase(new LocalCatalogBackend());
+
+        assertThat(imported.getLearned().exact(new TokenBuffer().normalize("what are your store hours?")))
+                .isEqualTo("We are open 24/7!");
+        assertThat(imported.getLearned().exact(new TokenBuffer().normalize("Do you ship abroad?")))
+                .isEqualTo("Yes, worldwide.");
+        assertThat(imported.getLearned().size()).isEqualTo(2);
+    }
+
+    @Test
+    void leavesIndexingToTheShardsOfAPartitionedBackend() {
+        try (PartitionedCatalogBackend shards = PartitionedCatalogBackend.inProcess(2, ShardKey.HASH,
+                Duration.ofSeconds(2), meterRegistry)) {
+            KnowledgeBaseService partitioned = knowledgeBase(shards);
+
+            assertThat(partitioned.getCatalog().size()).isEqualTo(10);
+            assertThat(partitioned.getCatalog().index().size()).isZero();
+            assertThat(partitioned.findProductsByKeyword("memory kit 7")).extracting(Product::name)
+                    .containsExactly("Memory Kit 7");
+            assertThat(partitioned.findProductsByKeyword("kingston")).hasSize(10);
+            assertThat(meterRegistry.timer("chatbot.catalog.shards.query").count()).isEqualTo(2);
+        }
+        assertThat(knowledgeBase.getCatalog().index().size()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,71 @@
+package com.computerx.chatbot.service;
+
+import com.computerx.chatbot.catalog.CatalogReloadedEvent;
+import com.computerx.chatbot.catalog.CatalogSnapshot;
+import com.computerx.chatbot.intent.Intent;
+import com.computerx.chatbot.model.BotState;
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.tenant.Tenant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTests {
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    private ChatResponse build(String message) {
+        builds.incrementAndGet();
+        return new ChatResponse(message, false, BotState.NORMAL, false);
+    }
+
+    private static ResponseCache.Key key(String keyword) {
+        return new ResponseCache.Key(Tenant.DEFAULT_ID, Intent.PRICE, keyword, 1);
+    }
+
+    @Test
+    void buildsEachResponseOnceAndCountsHitsAndMisses() {
+        ResponseCache cache = new ResponseCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+        ChatResponse first = cache.get(key("rtx 4090"), () -> build("$1799.99"));
+        ChatResponse second = cache.get(key("rtx 4090"), () -> build("$1799.99"));
+        cache.get(new ResponseCache.Key(Tenant.DEFAULT_ID, Intent.STOCK, "rtx 4090", 1), () -> build("in stock"));
+        cache.get(new ResponseCache.Key(Tenant.DEFAULT_ID, Intent.PRICE, "rtx 4090", 2), () -> build("$1699.99"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(builds).hasValue(3);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(3);
+    }
+
+    @Test
+    void staysWithinItsSizeAndDropsExpiredEntries() {
+        ResponseCache small = new ResponseCache(2, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        for (String keyword : List.of("a", "b", "c", "d", "e")) {
+            small.get(key(keyword), () -> build(keyword));
+        }
+        assertThat(small.size()).isEqualTo(2);
+
+        ResponseCache expiring = new ResponseCache(100, Duration.ZERO, new SimpleMeterRegistry());
+        expiring.get(key("a"), () -> build("a"));
+        expiring.get(key("a"), () -> build("a"));
+        assertThat(expiring.hitCount()).isZero();
+    }
+
+    @Test
+    void clearsWhenTheCatalogIsReloaded() {
+        ResponseCache cache = new ResponseCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        cache.get(key("rtx 4090"), () -> build("$1799.99"));
+
+        cache.onCatalogReloaded(new CatalogReloadedEvent(CatalogSnapshot.EMPTY, CatalogSnapshot.EMPTY));
+
+        assertThat(cache.size()).isZero();
+        cache.get(key("rtx 4090"), () -> build("$1799.99"));
+        assertThat(builds).hasValue(2);
+    }
+}
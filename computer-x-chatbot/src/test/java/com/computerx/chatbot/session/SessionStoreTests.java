@@ -0,0 +1,122 @@
+package com.computerx.chatbot.session;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionStoreTests {
+
+    private SessionStore store;
+
+    @AfterEach
+    void shutdown() {
+        store.shutdown();
+    }
+
+    private ConversationSession use(String sessionId) {
+        ConversationSession session = store.acquire(sessionId);
+        store.release(session);
+        return session;
+    }
+
+    @Test
+    void evictsSessionsIdleForLongerThanTheTimeout() throws InterruptedException {
+        store = new SessionStore(Duration.ofMillis(50), 100);
+        ConversationSession idle = use("idle");
+        ConversationSession held = store.acquire("held");
+        Thread.sleep(100);
+        ConversationSession fresh = use("fresh");
+
+        store.evictIdleSessions();
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(use("fresh")).isSameAs(fresh);
+        assertThat(store.acquire("held")).isSameAs(held);
+        assertThat(use("idle")).isNotSameAs(idle);
+    }
+
+    @Test
+    void dropsTheLeastRecentlyUsedSessionBeyondTheBound() {
+        store = new SessionStore(Duration.ofMinutes(30), 2);
+        for (int i = 0; i < 1_000; i++) {
+            use("session-" + i);
+            assertThat(store.size()).isLessThanOrEqualTo(2);
+        }
+        store.shutdown();
+
+        store = new SessionStore(Duration.ofMinutes(30), 1);
+        ConversationSession first = use("first");
+        use("second");
+        assertThat(use("first")).isNotSameAs(first);
+    }
+
+    @Test
+    void neverEvictsASessionInUse() {
+        store = new SessionStore(Duration.ofMinutes(30), 1);
+        ConversationSession held = store.acquire("held");
+        ConversationSession other = use("other");
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.acquire("held")).isSameAs(held);
+        store.release(held);
+        store.release(held);
+
+        use("third");
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(use("other")).isNotSameAs(other);
+    }
+
+    @Test
+    void removesAnEndedSessionOnlyWhenNoOtherUseHoldsIt() {
+        store = new SessionStore(Duration.ofMinutes(30), 100);
+        ConversationSession ending = store.acquire("alice");
+        ConversationSession continuing = store.acquire("alice");
+        continuing.setUserName("Alice");
+
+        store.releaseAndRemove(ending);
+        store.release(continuing);
+
+        assertThat(use("alice")).isSameAs(continuing);
+
+        ConversationSession ended = store.acquire("alice");
+        store.releaseAndRemove(ended);
+
+        assertThat(store.size()).isZero();
+        assertThat(use("alice").getUserName()).isNull();
+    }
+
+    @Test
+    void keepsOneSessionPerIdAcrossThreads() throws Exception {
+        store = new SessionStore(Duration.ofMinutes(30), 100);
+        Set<ConversationSession> seen = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(() -> {
+                    ConversationSession session = store.acquire("shared");
+                    seen.add(session);
+                    store.release(session);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        ConversationSession alice = use("alice");
+        alice.setUserName("Alice");
+
+        assertThat(seen).hasSize(1);
+        assertThat(use("bob").getUserName()).isNull();
+        assertThat(use("alice").getUserName()).isEqualTo("Alice");
+    }
+}
@@ -0,0 +1,90 @@
+package com.computerx.chatbot.shard;
+
+import com.computerx.chatbot.catalog.CatalogSnapshot;
+import com.computerx.chatbot.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.computerx.chatbot.model.TestProducts.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionedCatalogBackendTests {
+
+    private static final List<String> KEYWORDS = List.of("rtx", "gpu", "corsair 32gb", "monitor", "ddr5", "kit 1", "xyz");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static CatalogSnapshot catalog() {
+        String[] categories = {"gpu", "ram", "monitor", "cpu", "ssd"};
+        String[] brands = {"MSI", "Corsair", "Samsung", "AMD", "Intel", "G.Skill"};
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String category = categories[i % categories.length];
+            products.add(new Product(category, (i % 3 == 0 ? "RTX Kit " : "Kit ") + i, brands[i % brands.length],
+                    10 + i % 17, i % 2 == 0 ? "in stock" : "out of stock", "A " + category + " for gaming",
+                    Map.of("capacity", (i % 4 * 16) + "GB", "memory_type", i % 5 == 1 ? "DDR5" : "DDR4")));
+        }
+        return CatalogSnapshot.build(1, products);
+    }
+
+    @Test
+    void returnsWhatTheWholeCatalogIndexReturns() {
+        CatalogSnapshot catalog = catalog();
+        LocalCatalogBackend local = new LocalCatalogBackend();
+        local.load(catalog);
+
+        for (ShardKey key : ShardKey.values()) {
+            try (PartitionedCatalogBackend partitioned = PartitionedCatalogBackend.inProcess(4, key, Duration.ofSeconds(5), meterRegistry)) {
+                partitioned.load(catalog);
+
+                assertThat(partitioned.shards()).hasSize(4);
+                for (String keyword : KEYWORDS) {
+                    assertThat(partitioned.findProductsByKeyword(keyword)).as(keyword)
+                            .containsExactlyElementsOf(local.findProductsByKeyword(keyword));
+                    assertThat(partitioned.search(keyword, 10)).as(keyword)
+                            .containsExactlyElementsOf(local.search(keyword, 10));
+                }
+                assertThat(partitioned.findSimilarProducts("corsiar", 5, Long.MAX_VALUE))
+                        .hasSize(5)
+                        .allMatch(product -> product.brand().equals("Corsair"));
+            }
+        }
+    }
+
+    @Test
+    void leavesFailedShardsOutOfTheResults() {
+        CatalogShard healthy = new InProcessShard("healthy", List.of(RTX_4090), new long[]{7}, true);
+        CatalogShard broken = new CatalogShard() {
+            @Override
+            public String name() {
+                return "broken";
+            }
+
+            @Override
+            public List<ShardHit> findByKeyword(String keyword) {
+                throw new IllegalStateException("unreachable");
+            }
+
+            @Override
+            public List<ShardHit> search(String keyword, int limit) {
+                throw new IllegalStateException("unreachable");
+            }
+
+            @Override
+            public List<ShardHit> findSimilar(String keyword, int limit, long budgetNanos) {
+                throw new IllegalStateException("unreachable");
+            }
+        };
+
+        try (PartitionedCatalogBackend backend = PartitionedCatalogBackend.of(List.of(broken, healthy), Duration.ofSeconds(5), meterRegistry)) {
+            assertThat(backend.findProductsByKeyword("rtx")).containsExactly(RTX_4090);
+            assertThat(backend.search("rtx", 10)).containsExactly(RTX_4090);
+        }
+        assertThat(meterRegistry.counter("chatbot.catalog.shard.failures", "shard", "broken").count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,73 @@
+package com.computerx.chatbot.tenant;
+
+import com.computerx.chatbot.catalog.CatalogSnapshot;
+import com.computerx.chatbot.model.Product;
+import com.computerx.chatbot.search.FilterParser;
+import com.computerx.chatbot.search.ProductFilter;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static com.computerx.chatbot.model.TestProducts.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogOverlayTests {
+
+    private final CatalogSnapshot catalog = CatalogSnapshot.build(1,
+            List.of(RTX_4070_TI, RX_7800_XT, RX_7900_XTX, FURY_BEAST_DDR4, ARC_A770, FURY_BEAST_DDR5));
+
+    private static CatalogOverlay parse(String csv) throws IOException {
+        return CatalogOverlay.parse(new BufferedReader(new StringReader(csv)), "test overlay");
+    }
+
+    private final CatalogOverlay overlay;
+
+    CatalogOverlayTests() throws IOException {
+        overlay = parse("""
+                name,price,stock
+                "GeForce RTX 4070 Ti",699.99,
+                Radeon RX 7800 XT,,in stock
+                Fury Beast 32GB (2x16GB, DDR5),89.99,out of stock
+                no price or stock
+                Arc A770,cheap,in stock
+                """);
+    }
+
+    private int[] filter(String message) {
+        ProductFilter filter = FilterParser.parse(message, catalog.facets());
+        return overlay.filter(catalog, filter, catalog.facets().filter(filter));
+    }
+
+    @Test
+    void overridesOnlyTheListedFieldsOfTheListedProducts() throws IOException {
+        List<Product> products = catalog.products();
+
+        assertThat(overlay.size()).isEqualTo(3);
+        assertThat(overlay.apply(products.get(0)).price()).isEqualTo(699.99);
+        assertThat(overlay.apply(products.get(0)).stock()).isEqualTo("in stock");
+        assertThat(overlay.apply(products.get(1)).price()).isEqualTo(499.99);
+        assertThat(overlay.apply(products.get(1)).stock()).isEqualTo("in stock");
+        assertThat(overlay.apply(products.get(5)).price()).isEqualTo(89.99);
+        assertThat(overlay.apply(products.get(4))).isSameAs(products.get(4));
+        assertThat(parse("name,price,stock\n")).isSameAs(CatalogOverlay.EMPTY);
+    }
+
+    @Test
+    void correctsFiltersToTheOverriddenValues() {
+        assertThat(filter("gpus under $750")).containsExactly(0, 1, 4);
+        assertThat(filter("gpus under $800 in stock")).containsExactly(0, 1, 4);
+        assertThat(filter("ram in stock")).containsExactly(3);
+        assertThat(filter("ram out of stock")).containsExactly(5);
+        assertThat(CatalogOverlay.EMPTY.filter(catalog, FilterParser.parse("gpus under $750", catalog.facets()),
+                new int[]{1, 4})).containsExactly(1, 4);
+    }
+
+    @Test
+    void sharesTheCatalogsCardsOfProductsItDoesNotOverride() {
+        assertThat(overlay.card(catalog, 0)).contains("$699.99").doesNotContain("$799.99");
+        assertThat(overlay.card(catalog, 2)).isSameAs(catalog.views().card(2));
+    }
+}
@@ -0,0 +1,95 @@
+package com.computerx.chatbot.tenant;
+
+import com.computerx.chatbot.learning.FsyncPolicy;
+import com.computerx.chatbot.learning.LearnedResponseJournal;
+import com.computerx.chatbot.learning.LearnedResponses;
+import com.computerx.chatbot.service.KnowledgeBaseService;
+import com.computerx.chatbot.text.TokenBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TenantRegistryTests {
+
+    @TempDir
+    Path directory;
+
+    private final LearnedResponseJournal sharedJournal = new LearnedResponseJournal(Path.of("unused.journal"),
+            FsyncPolicy.ALWAYS, Duration.ofSeconds(1), 64, Duration.ofHours(1), 0.5, new SimpleMeterRegistry());
+    private final LearnedResponses shared = new LearnedResponses(sharedJournal);
+    private TenantRegistry registry;
+
+    private TenantRegistry registry() {
+        KnowledgeBaseService knowledgeBase = mock(KnowledgeBaseService.class);
+        when(knowledgeBase.getLearned()).thenReturn(shared);
+        return new TenantRegistry(directory.toString(), knowledgeBase, sharedJournal, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void close() {
+        if (registry != null) {
+            registry.close();
+        }
+    }
+
+    @Test
+    void routesOnlyToTenantsThatWereSetUp() throws IOException {
+        Files.createDirectories(directory.resolve("acme"));
+        registry = registry();
+
+        assertThat(registry.find(null)).containsSame(registry.defaultTenant());
+        assertThat(registry.find(Tenant.DEFAULT_ID)).containsSame(registry.defaultTenant());
+        assertThat(registry.defaultTenant().learned()).isSameAs(shared);
+        assertThat(registry.find("acme")).get().extracting(Tenant::id).isEqualTo("acme");
+        assertThat(registry.find("acme").get()).isSameAs(registry.find("acme").get());
+        assertThat(registry.find("globex")).isEmpty();
+        assertThat(registry.find("../acme")).isEmpty();
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsEveryTenantsSessionsApart() throws IOException {
+        Files.createDirectories(directory.resolve("acme"));
+        registry = registry();
+        Tenant acme = registry.find("acme").orElseThrow();
+        Tenant shared = registry.defaultTenant();
+
+        assertThat(shared.sessionKey(acme.sessionKey("xyz"))).isNotEqualTo(acme.sessionKey("xyz"));
+        assertThat(shared.sessionKey("tenant-acme:xyz")).isNotEqualTo(acme.sessionKey("xyz"));
+        assertThat(acme.sessionKey("default:xyz")).isNotEqualTo(shared.sessionKey("xyz"));
+    }
+
+    @Test
+    void loadsEachTenantsOwnSmallTalkOverlayAndLearnedAnswers() throws IOException {
+        Path acme = Files.createDirectories(directory.resolve("acme"));
+        Files.writeString(acme.resolve(TenantRegistry.SMALLTALK_FILE), "store.location=Visit us at 1 Acme Way.\n");
+        Files.writeString(acme.resolve(TenantRegistry.OVERLAY_FILE), "name,price,stock\nArc A770,299.99,\n");
+        Files.createDirectories(directory.resolve("globex"));
+        registry = registry();
+
+        Tenant tenant = registry.find("acme").orElseThrow();
+        tenant.learned().put("do you price match", "Yes, within 14 days.");
+        TokenBuffer question = new TokenBuffer().normalize("Do you price match?");
+
+        assertThat(tenant.smallTalk().get("store location")).isEqualTo("Visit us at 1 Acme Way.");
+        assertThat(tenant.overlay().size()).isEqualTo(1);
+        assertThat(tenant.learned()).isNotSameAs(shared);
+        assertThat(registry.find("globex").orElseThrow().learned().exact(question)).isNull();
+        assertThat(shared.exact(question)).isNull();
+
+        registry.close();
+        registry = registry();
+        assertThat(registry.find("acme").orElseThrow().learned().exact(question)).isEqualTo("Yes, within 14 days.");
+        assertThat(Files.exists(acme.resolve(TenantRegistry.JOURNAL_FILE))).isTrue();
+    }
+}
@@ -0,0 +1,41 @@
+package com.computerx.chatbot.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBufferTests {
+
+    private static List<String> tokens(TokenBuffer buffer) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < buffer.tokenCount(); i++) {
+            tokens.add(buffer.subSequence(buffer.tokenStart(i), buffer.tokenEnd(i)));
+        }
+        return tokens;
+    }
+
+    @Test
+    void lowercasesAndCollapsesPunctuationAndWhitespace() {
+        TokenBuffer buffer = new TokenBuffer().normalize("  Is the  G.Skill i7-13700K kit... IN STOCK?! \t");
+
+        assertThat(buffer).hasToString("is the g.skill i7-13700k kit in stock");
+        assertThat(tokens(buffer)).containsExactly("is", "the", "g.skill", "i7-13700k", "kit", "in", "stock");
+        assertThat(buffer.contentEquals("is the g.skill i7-13700k kit in stock")).isTrue();
+    }
+
+    @Test
+    void reusesItsArraysForTheNextMessage() {
+        TokenBuffer buffer = new TokenBuffer().normalize("a message long enough to grow the buffer past its initial size, twice over!");
+
+        buffer.normalize("?!");
+        assertThat(buffer.length()).isZero();
+        assertThat(buffer.tokenCount()).isZero();
+
+        buffer.normalize("Hello, WORLD");
+        assertThat(buffer).hasToString("hello world");
+        assertThat(tokens(buffer)).containsExactly("hello", "world");
+    }
+}
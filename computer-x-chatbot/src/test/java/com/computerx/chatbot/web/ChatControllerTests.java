@@ -0,0 +1,150 @@
+package com.computerx.chatbot.web;
+
+import com.computerx.chatbot.batch.ChatBatchProcessor;
+import com.computerx.chatbot.model.BotState;
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.model.ProductPage;
+import com.computerx.chatbot.service.ChatService;
+import com.computerx.chatbot.tenant.CatalogOverlay;
+import com.computerx.chatbot.tenant.Tenant;
+import com.computerx.chatbot.tenant.TenantRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ChatControllerTests {
+
+    private final ChatService chatService = mock(ChatService.class);
+    private final TenantRegistry tenants = mock(TenantRegistry.class);
+    private final Tenant shared = new Tenant(Tenant.DEFAULT_ID, null, null, CatalogOverlay.EMPTY);
+    private final Tenant acme = new Tenant("acme", null, null, CatalogOverlay.EMPTY);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void start() {
+        when(tenants.find(any())).thenReturn(Optional.empty());
+        when(tenants.find(null)).thenReturn(Optional.of(shared));
+        when(tenants.find("acme")).thenReturn(Optional.of(acme));
+        mvc = MockMvcBuilders.standaloneSetup(new ChatController(chatService, mock(ChatBatchProcessor.class), tenants))
+                .build();
+    }
+
+    @Test
+    void answersInTheGivenSessionOfTheNamedTenant() throws Exception {
+        when(chatService.getResponse(acme, "s1", "hi")).thenReturn(new ChatResponse("Hello!", false, BotState.NORMAL, true));
+
+        mvc.perform(post("/api/chat").header(ChatController.TENANT_HEADER, "acme")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"sessionId\":\"s1\",\"message\":\"hi\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ChatController.SESSION_HEADER, "s1"))
+                .andExpect(jsonPath("$.message").value("Hello!"))
+                .andExpect(jsonPath("$.botState").value("NORMAL"));
+    }
+
+    @Test
+    void startsANewSessionWhenNoneIsGiven() throws Exception {
+        when(chatService.getResponse(eq(shared), anyString(), eq("hi"))).thenReturn(new ChatResponse("Hello!", false, BotState.NORMAL, true));
+
+        MvcResult result = mvc.perform(post("/api/chat").contentType(MediaType.APPLICATION_JSON).content("{\"message\":\"hi\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String sessionId = result.getResponse().getHeader(ChatController.SESSION_HEADER);
+        assertThat(sessionId).isNotBlank();
+        verify(chatService).getResponse(shared, sessionId, "hi");
+    }
+
+    @Test
+    void rejectsMissingMessagesAndUnknownTenants() throws Exception {
+        mvc.perform(post("/api/chat").contentType(MediaType.APPLICATION_JSON).content("{\"sessionId\":\"s1\"}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/chat").header(ChatController.TENANT_HEADER, "globex")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"message\":\"hi\"}"))
+                .andExpect(status().isNotFound());
+        mvc.perform(post("/api/chat/stream").header(ChatController.TENANT_HEADER, "globex")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"message\":\"hi\"}"))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(chatService);
+    }
+
+    @Test
+    void learnsOnlyCompleteAnswers() throws Exception {
+        mvc.perform(post("/api/learn").header(ChatController.TENANT_HEADER, "acme")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"question\":\"do you ship\",\"answer\":\"Yes.\"}"))
+                .andExpect(status().isNoContent());
+        mvc.perform(post("/api/learn").contentType(MediaType.APPLICATION_JSON).content("{\"question\":\"do you ship\",\"answer\":\" \"}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/learn").contentType(MediaType.APPLICATION_JSON).content("{\"answer\":\"Yes.\"}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/learn").header(ChatController.TENANT_HEADER, "globex")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"question\":\"do you ship\",\"answer\":\"Yes.\"}"))
+                .andExpect(status().isNotFound());
+
+        verify(chatService).learn(acme, "do you ship", "Yes.");
+        verifyNoMoreInteractions(chatService);
+    }
+
+    @Test
+    void rejectsAnswersTooLargeToKeep() throws Exception {
+        doThrow(new IllegalArgumentException("Learned response too large")).when(chatService).learn(acme, "do you ship", "Yes.");
+
+        mvc.perform(post("/api/learn").header(ChatController.TENANT_HEADER, "acme")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"question\":\"do you ship\",\"answer\":\"Yes.\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamsAListingOneItemPerEvent() throws Exception {
+        ProductPage page = new ProductPage("Found 2 products:\n", List.of("Card A", "Card B"), 1, 1, 2, "");
+        when(chatService.getResponse(shared, "s1", "show gpus"))
+                .thenReturn(new ChatResponse(page.toText(), false, BotState.NORMAL, false, page));
+
+        MvcResult started = mvc.perform(post("/api/chat/stream").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sessionId\":\"s1\",\"message\":\"show gpus\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitEnd(started);
+
+        assertThat(started.getResponse().getContentAsString()).containsSubsequence("event:message",
+                "event:item\ndata:Card A", "event:item\ndata:Card B", "event:end", "\"totalResults\":2");
+    }
+
+    @Test
+    void answersEachStreamOnItsOwnNumberedThread() throws Exception {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        when(chatService.getResponse(eq(shared), anyString(), eq("hi"))).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return new ChatResponse("Hello!", false, BotState.NORMAL, true);
+        });
+
+        for (int i = 0; i < 2; i++) {
+            awaitEnd(mvc.perform(post("/api/chat/stream").contentType(MediaType.APPLICATION_JSON).content("{\"message\":\"hi\"}"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn());
+        }
+
+        assertThat(threads).hasSize(2).doesNotHaveDuplicates().allMatch(name -> name.startsWith("chat-stream-"));
+    }
+
+    private static void awaitEnd(MvcResult stream) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!stream.getResponse().getContentAsString().contains("event:end") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
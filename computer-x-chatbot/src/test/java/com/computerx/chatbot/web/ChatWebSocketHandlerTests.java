@@ -0,0 +1,98 @@
+package com.computerx.chatbot.web;
+
+import com.computerx.chatbot.model.BotState;
+import com.computerx.chatbot.model.ChatResponse;
+import com.computerx.chatbot.service.ChatService;
+import com.computerx.chatbot.tenant.CatalogOverlay;
+import com.computerx.chatbot.tenant.Tenant;
+import com.computerx.chatbot.tenant.TenantRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ChatWebSocketHandlerTests {
+
+    private final ChatService chatService = mock(ChatService.class);
+    private final TenantRegistry tenants = mock(TenantRegistry.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Tenant acme = new Tenant("acme", null, null, CatalogOverlay.EMPTY);
+    private final ChatWebSocketHandler handler = new ChatWebSocketHandler(chatService, objectMapper, tenants);
+
+    @BeforeEach
+    void start() {
+        when(tenants.find(any())).thenReturn(Optional.empty());
+        when(tenants.find("acme")).thenReturn(Optional.of(acme));
+    }
+
+    private WebSocketSession connection(String uri, HttpHeaders headers) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>();
+        when(session.getId()).thenReturn("ws-1");
+        when(session.getUri()).thenReturn(URI.create(uri));
+        when(session.getHandshakeHeaders()).thenReturn(headers);
+        when(session.getAttributes()).thenReturn(attributes);
+        return session;
+    }
+
+    @Test
+    void answersTeachesAndEndsTheSessionOfTheConnection() throws Exception {
+        ChatResponse hello = new ChatResponse("Hello!", false, BotState.NORMAL, true);
+        ChatResponse goodbye = new ChatResponse("Goodbye!", true, BotState.NORMAL, true);
+        when(chatService.getResponse(acme, "ws-1", "hi")).thenReturn(hello);
+        when(chatService.getResponse(acme, "ws-1", "bye")).thenReturn(goodbye);
+        WebSocketSession session = connection("ws://localhost/ws/chat?tenant=acme", new HttpHeaders());
+
+        handler.afterConnectionEstablished(session);
+        handler.handleTextMessage(session, new TextMessage("{\"message\":\"hi\"}"));
+        handler.handleTextMessage(session, new TextMessage("{\"question\":\"do you ship\",\"answer\":\"Yes.\"}"));
+        handler.handleTextMessage(session, new TextMessage("{}"));
+        handler.handleTextMessage(session, new TextMessage("{\"message\":\"bye\"}"));
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        verify(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(hello)));
+        verify(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(goodbye)));
+        verify(session).close(CloseStatus.NORMAL);
+        verify(chatService).learn(acme, "do you ship", "Yes.");
+        verify(chatService).endSession(acme, "ws-1");
+        verify(chatService, times(2)).getResponse(any(Tenant.class), any(), any());
+    }
+
+    @Test
+    void takesTheTenantFromTheHandshakeHeaderWithoutAQueryParameter() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(ChatController.TENANT_HEADER, "acme");
+        when(chatService.getResponse(acme, "ws-1", "hi")).thenReturn(new ChatResponse("Hello!", false, BotState.NORMAL, true));
+        WebSocketSession session = connection("ws://localhost/ws/chat", headers);
+
+        handler.afterConnectionEstablished(session);
+        handler.handleTextMessage(session, new TextMessage("{\"message\":\"hi\"}"));
+
+        verify(chatService).getResponse(acme, "ws-1", "hi");
+        verify(session, never()).close(any());
+    }
+
+    @Test
+    void closesConnectionsToUnknownTenantsWithoutAnswering() throws Exception {
+        WebSocketSession session = connection("ws://localhost/ws/chat?tenant=globex", new HttpHeaders());
+
+        handler.afterConnectionEstablished(session);
+        handler.handleTextMessage(session, new TextMessage("{\"message\":\"hi\"}"));
+        handler.afterConnectionClosed(session, CloseStatus.POLICY_VIOLATION);
+
+        verify(session).close(CloseStatus.POLICY_VIOLATION.withReason("Unknown tenant"));
+        verify(session, never()).sendMessage(any());
+        verifyNoInteractions(chatService);
+    }
+}